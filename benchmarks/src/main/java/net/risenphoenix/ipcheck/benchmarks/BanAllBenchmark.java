@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import net.risenphoenix.ipcheck.actions.ActionBanAll;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/* Cost of the /ipc banall path: bans, then un-bans again (so that every
+ * invocation starts from the same state), every account registered within
+ * a window of "windowDays" days. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BanAllBenchmark {
+
+    @Param({"10000", "100000"})
+    public int logRows;
+
+    @Param({"1", "7"})
+    public int windowDays;
+
+    private BenchmarkEnvironment env;
+
+    private String dateFrom;
+    private String dateTo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File folder = new File("target/bench-data/banall-" + logRows);
+
+        this.env = new BenchmarkEnvironment(folder);
+
+        // Always re-seed, as an interrupted run may leave accounts banned
+        try (Connection c = env.openConnection()) {
+            DatasetSeeder.seed(c, logRows);
+        }
+
+        long middle = DatasetSeeder.EPOCH - DatasetSeeder.SPREAD / 2;
+        this.dateFrom = DatasetSeeder.formatTimestamp(middle);
+        this.dateTo = DatasetSeeder.formatTimestamp(middle +
+                windowDays * 86400000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.env.close();
+    }
+
+    @Benchmark
+    public int banAllThenUnbanAll() {
+        Object[] banned = new ActionBanAll(env.getPlugin(), dateFrom, dateTo,
+                "Benchmark ban.", true).execute();
+        Object[] unbanned = new ActionBanAll(env.getPlugin(), dateFrom, dateTo,
+                null, false).execute();
+
+        return (Integer) banned[0] + (Integer) unbanned[0];
+    }
+}
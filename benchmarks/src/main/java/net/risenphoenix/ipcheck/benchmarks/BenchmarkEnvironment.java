@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.commons.localization.LocalizationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/* Sets up a real DatabaseController (backed by an SQLite file in the given
+ * folder, or by a MySQL server) behind a mocked IPCheck instance, so that the
+ * database layer and the actions built on it can be exercised without a
+ * Minecraft server. */
+public class BenchmarkEnvironment {
+
+    // RP-Commons stores SQLite databases as <name>.db in the data folder
+    public static final String DB_FILE = "ip-check.db";
+
+    private final File dataFolder;
+    private final IPCheck plugin;
+    private final ConfigurationManager config;
+    private final DatabaseController db;
+
+    // JDBC settings for openConnection()
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+
+    public BenchmarkEnvironment(File dataFolder) {
+        this(dataFolder, null, 0, null, null, null);
+    }
+
+    // MySQL variant; a null hostname selects SQLite
+    public BenchmarkEnvironment(File dataFolder, String hostname, int port,
+                                String database, String username,
+                                String password) {
+        StubServer.install();
+
+        this.dataFolder = dataFolder;
+        if (!dataFolder.isDirectory() && !dataFolder.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + dataFolder);
+        }
+
+        this.config = mock(ConfigurationManager.class);
+        when(config.getBoolean("dbGenerated")).thenReturn(true);
+        when(config.getBoolean("use-mysql")).thenReturn(hostname != null);
+        when(config.getBoolean("should-manage-bans")).thenReturn(true);
+        when(config.getString("ban-message")).thenReturn("Benchmark ban.");
+        when(config.getInteger(anyString())).thenReturn(0);
+
+        LocalizationManager local = mock(LocalizationManager.class);
+        when(local.getLocalString(anyString())).thenReturn("");
+
+        this.plugin = mock(IPCheck.class);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        when(plugin.getConfigurationManager()).thenReturn(config);
+        when(plugin.getLocalizationManager()).thenReturn(local);
+
+        if (hostname != null) {
+            this.db = new DatabaseController(plugin, hostname, port, database,
+                    username, password);
+            this.jdbcUrl = "jdbc:mysql://" + hostname + ":" + port + "/" +
+                    database + "?rewriteBatchedStatements=true";
+        } else {
+            this.db = new DatabaseController(plugin);
+            this.jdbcUrl = "jdbc:sqlite:" +
+                    this.getDatabaseFile().getAbsolutePath();
+        }
+
+        this.username = username;
+        this.password = password;
+        when(plugin.getDatabaseController()).thenReturn(db);
+    }
+
+    public File getDatabaseFile() {
+        return new File(this.dataFolder, DB_FILE);
+    }
+
+    public boolean isMySQL() {
+        return this.jdbcUrl.startsWith("jdbc:mysql:");
+    }
+
+    // Opens a separate JDBC connection to the same database (for seeding)
+    public Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(this.jdbcUrl, this.username,
+                this.password);
+    }
+
+    public IPCheck getPlugin() {
+        return this.plugin;
+    }
+
+    public ConfigurationManager getConfig() {
+        return this.config;
+    }
+
+    public DatabaseController getDatabase() {
+        return this.db;
+    }
+
+    public void close() {
+        this.db.getDatabaseConnection().closeConnection();
+    }
+}
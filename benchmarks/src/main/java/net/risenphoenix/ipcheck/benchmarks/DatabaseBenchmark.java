@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.objects.IPObject;
+import net.risenphoenix.ipcheck.objects.UserObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/* Throughput of the DatabaseController operations on the login and report
+ * paths, against an SQLite database seeded with "logRows" log entries. Run
+ * with the GC profiler (enabled by default by BenchmarkRunner) to also see
+ * the allocation rate per operation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DatabaseBenchmark {
+
+    // Override with -p logRows=1000000,5000000 for the large datasets
+    @Param({"10000", "100000"})
+    public int logRows;
+
+    private BenchmarkEnvironment env;
+    private DatabaseController db;
+
+    private int players;
+    private int addresses;
+
+    // One-day window in the middle of the seeded timestamp range
+    private String dateFrom;
+    private String dateTo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        File folder = new File("target/bench-data/" + logRows);
+        boolean seeded = new File(folder, BenchmarkEnvironment.DB_FILE)
+                .exists();
+
+        this.env = new BenchmarkEnvironment(folder);
+        this.db = env.getDatabase();
+
+        // Datasets are kept between runs, as large ones take a while to seed
+        if (!seeded) {
+            try (Connection c = env.openConnection()) {
+                DatasetSeeder.seed(c, logRows);
+            }
+        }
+
+        this.players = DatasetSeeder.playersFor(logRows);
+        this.addresses = DatasetSeeder.addressesFor(logRows);
+
+        long middle = DatasetSeeder.EPOCH - DatasetSeeder.SPREAD / 2;
+        this.dateFrom = DatasetSeeder.formatTimestamp(middle);
+        this.dateTo = DatasetSeeder.formatTimestamp(middle + 86400000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.env.close();
+    }
+
+    private String randomPlayer() {
+        return DatasetSeeder.playerName(
+                ThreadLocalRandom.current().nextInt(players));
+    }
+
+    private String randomAddress() {
+        return DatasetSeeder.address(
+                ThreadLocalRandom.current().nextInt(addresses));
+    }
+
+    @Benchmark
+    public void log() {
+        db.log(randomPlayer(), randomAddress());
+    }
+
+    @Benchmark
+    public UserObject getUserObject() {
+        return db.getUserObject(randomPlayer());
+    }
+
+    @Benchmark
+    public IPObject getIPObject() {
+        return db.getIPObject(randomAddress());
+    }
+
+    @Benchmark
+    public boolean isBannedPlayer() {
+        return db.isBannedPlayer(randomPlayer());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ArrayList<UserObject> fetchAllPlayers() {
+        return db.fetchAllPlayers();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ArrayList<UserObject> getPlayersByDate() {
+        return db.getPlayersByDate(dateFrom, dateTo);
+    }
+}
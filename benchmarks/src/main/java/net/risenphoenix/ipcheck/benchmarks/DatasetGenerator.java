@@ -0,0 +1,368 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.UUID;
+
+/* Generates a production-like IP-Check database for scale testing. Players
+ * come in alt clusters (one person, several accounts) whose sizes follow a
+ * power law; the accounts of a cluster share a handful of home addresses,
+ * and some clusters also log in through large shared NAT gateways. Whole
+ * clusters are banned, individual accounts and gateways exempted, and all
+ * timestamps are spread over the configured number of days.
+ *
+ * Rows are streamed straight into ipcheck_user, ipcheck_ip and ipcheck_log
+ * with batched prepared statements, committing every few hundred thousand
+ * rows, so memory use does not grow with the size of the dataset. Names and
+ * addresses are numbered as in DatasetSeeder, and equal seeds give identical
+ * datasets. */
+public class DatasetGenerator {
+
+    private static final String[] OPTIONS = {"users", "alpha",
+            "max-cluster", "home-ips", "nat-ratio", "users-per-gateway",
+            "banned", "exempt", "rejoin-exempt", "protected",
+            "gateway-exempt", "days", "seed", "batch", "commit"};
+
+    // Gateways are numbered from here, well clear of the home addresses
+    private static final int GATEWAY_BASE = 0x30000000;
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final String BAN_MESSAGE = "Banned for Multi-Accounting.";
+
+    private final int users;
+    private final double alpha;
+    private final int maxCluster;
+    private final double homeIPs;
+    private final double natRatio;
+    private final int gateways;
+    private final double bannedRatio;
+    private final double exemptRatio;
+    private final double rejoinExemptRatio;
+    private final double protectedRatio;
+    private final double gatewayExemptRatio;
+    private final long spread;
+    private final long seed;
+    private final int batchSize;
+    private final int commitSize;
+
+    private final Random random;
+    private final SimpleDateFormat format;
+
+    // Progress
+    private long userRows = 0;
+    private long ipRows = 0;
+    private long logRows = 0;
+    private long pending = 0;
+    private long uncommitted = 0;
+    private int clusters = 0;
+    private int largestCluster = 0;
+    private final long[] clusterSizes = new long[32];
+
+    public DatasetGenerator(ToolOptions options) {
+        this.users = options.getInt("users", 100000);
+        this.alpha = options.getDouble("alpha", 2.2);
+        this.maxCluster = options.getInt("max-cluster", 64);
+        this.homeIPs = options.getDouble("home-ips", 4);
+        this.natRatio = options.getDouble("nat-ratio", 0.3);
+        this.gateways = Math.max(1, this.users /
+                options.getInt("users-per-gateway", 200));
+        this.bannedRatio = options.getDouble("banned", 0.02);
+        this.exemptRatio = options.getDouble("exempt", 0.01);
+        this.rejoinExemptRatio = options.getDouble("rejoin-exempt", 0.002);
+        this.protectedRatio = options.getDouble("protected", 0.001);
+        this.gatewayExemptRatio = options.getDouble("gateway-exempt", 0.1);
+        this.spread = options.getInt("days", 365) * DAY;
+        this.seed = options.getLong("seed", 42);
+        this.batchSize = options.getInt("batch", 10000);
+        this.commitSize = options.getInt("commit", 200000);
+
+        this.random = new Random(this.seed);
+
+        // Same format as DatasetSeeder.formatTimestamp, without the per-row
+        // SimpleDateFormat
+        this.format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        this.format.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    public void generate(Connection c, boolean mysql, PrintStream out)
+            throws SQLException {
+        boolean autoCommit = c.getAutoCommit();
+
+        try (Statement s = c.createStatement()) {
+            // Durability is pointless while bulk loading
+            if (mysql) {
+                s.execute("SET unique_checks = 0");
+            } else {
+                // The journal mode is left alone: a database the plugin
+                // has used is in persistent WAL mode, and loads must be
+                // comparable whichever file the tool is pointed at
+                s.execute("PRAGMA synchronous = OFF");
+                s.execute("PRAGMA cache_size = -262144"); // 256 MiB
+            }
+
+            s.executeUpdate("delete from ipcheck_log");
+            s.executeUpdate("delete from ipcheck_user");
+            s.executeUpdate("delete from ipcheck_ip");
+        }
+
+        c.setAutoCommit(false);
+        long start = System.nanoTime();
+
+        try (PreparedStatement user = c.prepareStatement("insert into " +
+                "ipcheck_user (username, uuid, timestamp, banmessage, " +
+                "banned, exempted, rejoinexempt, protected) values " +
+                "(?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement ip = c.prepareStatement("insert into " +
+                     "ipcheck_ip (ip, timestamp, banned, exempted, " +
+                     "rejoinexempt) values (?, ?, ?, ?, ?)");
+             PreparedStatement log = c.prepareStatement("insert into " +
+                     "ipcheck_log (ip, username, timestamp) values " +
+                     "(?, ?, ?)")) {
+            long end = DatasetSeeder.EPOCH;
+            long first = end - this.spread;
+
+            // Gateways have been around since the start
+            for (int g = 0; g < this.gateways; g++) {
+                this.addIP(ip, GATEWAY_BASE + g, first, false,
+                        this.random.nextDouble() < this.gatewayExemptRatio);
+                this.flush(c, user, ip, log, start, out, false);
+            }
+
+            int player = 0;
+            int address = 0;
+
+            while (player < this.users) {
+                int size = Math.min(this.clusterSize(),
+                        this.users - player);
+                boolean banned = this.random.nextDouble() < this.bannedRatio;
+
+                // Clusters appear over time, more of them recently
+                long appeared = first + (long) (Math.sqrt(
+                        this.random.nextDouble()) * this.spread);
+
+                int homes = 1 + this.geometric(this.homeIPs - 1);
+                for (int h = 0; h < homes; h++) {
+                    this.addIP(ip, address + h, appeared, banned, false);
+                }
+
+                int gateway = (this.random.nextDouble() < this.natRatio) ?
+                        this.gateway() : -1;
+
+                for (int a = 0; a < size; a++) {
+                    String name = DatasetSeeder.playerName(player + a);
+                    long created = appeared + (long) (this.random
+                            .nextDouble() * (end - appeared) / 2);
+
+                    this.addUser(user, name, created, banned);
+
+                    // Every account uses the first home address, which is
+                    // what ties the cluster together
+                    for (int h = 0; h < homes; h++) {
+                        if (h == 0 || this.random.nextInt(5) < 3) {
+                            this.addLog(log, address + h, name, created, end);
+                        }
+                    }
+
+                    if (gateway >= 0 && this.random.nextBoolean()) {
+                        this.addLog(log, GATEWAY_BASE + gateway, name,
+                                created, end);
+                    }
+
+                    this.flush(c, user, ip, log, start, out, false);
+                }
+
+                player += size;
+                address += homes;
+
+                this.clusters++;
+                this.largestCluster = Math.max(this.largestCluster, size);
+                this.clusterSizes[31 - Integer.numberOfLeadingZeros(size)]++;
+            }
+
+            this.flush(c, user, ip, log, start, out, true);
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+
+        this.summary(start, out);
+    }
+
+    // Discrete power law: P(size >= k) = k^(1 - alpha)
+    private int clusterSize() {
+        double u = 1.0 - this.random.nextDouble();
+        double size = Math.floor(Math.pow(u, -1.0 / (this.alpha - 1.0)));
+
+        return (int) Math.min(size, this.maxCluster);
+    }
+
+    // Number of failures before the first success, with the given mean
+    private int geometric(double mean) {
+        if (mean <= 0) return 0;
+
+        double p = 1.0 / (mean + 1.0);
+        double u = 1.0 - this.random.nextDouble();
+
+        return (int) Math.min(Math.floor(Math.log(u) / Math.log(1.0 - p)),
+                64);
+    }
+
+    // A few gateways (carrier NAT, schools) carry most of the traffic
+    private int gateway() {
+        double u = this.random.nextDouble();
+        return (int) (u * u * u * this.gateways);
+    }
+
+    private String timestamp(long millis) {
+        return this.format.format(new Date(millis));
+    }
+
+    private void addIP(PreparedStatement ip, int address, long seen,
+                       boolean banned, boolean exempt) throws SQLException {
+        ip.setString(1, DatasetSeeder.address(address));
+        ip.setString(2, this.timestamp(seen));
+        ip.setBoolean(3, banned);
+        ip.setBoolean(4, exempt);
+        ip.setBoolean(5, false);
+        ip.addBatch();
+
+        this.ipRows++;
+        this.pending++;
+    }
+
+    private void addUser(PreparedStatement user, String name, long created,
+                         boolean banned) throws SQLException {
+        UUID uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name)
+                .getBytes(StandardCharsets.UTF_8));
+
+        user.setString(1, name);
+        user.setString(2, uuid.toString());
+        user.setString(3, this.timestamp(created));
+        user.setString(4, banned ? BAN_MESSAGE : null);
+        user.setBoolean(5, banned);
+        user.setBoolean(6, this.random.nextDouble() < this.exemptRatio);
+        user.setBoolean(7, this.random.nextDouble() < this.rejoinExemptRatio);
+        user.setBoolean(8, this.random.nextDouble() < this.protectedRatio);
+        user.addBatch();
+
+        this.userRows++;
+        this.pending++;
+    }
+
+    // The log timestamp is the last login from that address
+    private void addLog(PreparedStatement log, int address, String name,
+                        long created, long end) throws SQLException {
+        long last = created + (long) (this.random.nextDouble() *
+                (end - created));
+
+        log.setString(1, DatasetSeeder.address(address));
+        log.setString(2, name);
+        log.setString(3, this.timestamp(last));
+        log.addBatch();
+
+        this.logRows++;
+        this.pending++;
+    }
+
+    private void flush(Connection c, PreparedStatement user,
+                       PreparedStatement ip, PreparedStatement log,
+                       long start, PrintStream out, boolean last)
+            throws SQLException {
+        if (!last && this.pending < this.batchSize) return;
+
+        ip.executeBatch();
+        user.executeBatch();
+        log.executeBatch();
+
+        this.uncommitted += this.pending;
+        this.pending = 0;
+
+        if (!last && this.uncommitted < this.commitSize) return;
+
+        c.commit();
+        this.uncommitted = 0;
+
+        long rows = this.userRows + this.ipRows + this.logRows;
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.println(String.format("  %,d users, %,d rows (%,.0f rows/s)",
+                this.userRows, rows, rows / Math.max(seconds, 1e-9)));
+    }
+
+    private void summary(long start, PrintStream out) {
+        long rows = this.userRows + this.ipRows + this.logRows;
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        out.println();
+        out.println(String.format("Users: %,d  IPs: %,d  Log rows: %,d " +
+                        "(%.2f per user)", this.userRows, this.ipRows,
+                this.logRows, (double) this.logRows / Math.max(1,
+                        this.userRows)));
+        out.println(String.format("Loaded %,d rows in %.1f s (%,.0f rows/s)",
+                rows, seconds, rows / Math.max(seconds, 1e-9)));
+        out.println(String.format("Clusters: %,d, largest %d, seed %d",
+                this.clusters, this.largestCluster, this.seed));
+
+        for (int i = 0; i < this.clusterSizes.length; i++) {
+            if (this.clusterSizes[i] == 0) continue;
+
+            int from = 1 << i;
+            int to = Math.min((from << 1) - 1, this.maxCluster);
+            String range = (from == to) ? String.valueOf(from) :
+                    from + "-" + to;
+
+            out.println(String.format("  %-8s accounts: %,d clusters", range,
+                    this.clusterSizes[i]));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ToolOptions options = ToolOptions.parse(args, OPTIONS);
+        BenchmarkEnvironment env = options.createEnvironment(
+                "target/dataset");
+
+        try (Connection c = env.openConnection()) {
+            new DatasetGenerator(options).generate(c, env.isMySQL(),
+                    System.out);
+        } finally {
+            env.close();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/* Fills the IP-Check tables with a deterministic synthetic dataset: each
+ * player is logged from a handful of addresses, and roughly one address in
+ * four is shared between several players. Rows are inserted with batched
+ * prepared statements inside a single transaction. */
+public class DatasetSeeder {
+
+    public static final int BATCH_SIZE = 10000;
+
+    // Timestamps are spread over the year leading up to this instant
+    public static final long EPOCH = 1483228800000L; // 2017-01-01 00:00 UTC
+    public static final long SPREAD = 365L * 24 * 60 * 60 * 1000;
+
+    public static String playerName(int i) {
+        return "player" + i;
+    }
+
+    public static String address(int i) {
+        return (10 + (i >>> 24 & 0x3F)) + "." + (i >>> 16 & 0xFF) + "." +
+                (i >>> 8 & 0xFF) + "." + (i & 0xFF);
+    }
+
+    // Same address as address(i), without going through a textual look-up
+    public static InetAddress inetAddress(int i) {
+        byte[] raw = {(byte) (10 + (i >>> 24 & 0x3F)), (byte) (i >>> 16),
+                (byte) (i >>> 8), (byte) i};
+
+        try {
+            return InetAddress.getByAddress(raw);
+        } catch (UnknownHostException e) {
+            // Only thrown for addresses of illegal length
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static int playersFor(int logRows) {
+        return Math.max(1, logRows / 3);
+    }
+
+    public static int addressesFor(int logRows) {
+        return Math.max(1, logRows / 2);
+    }
+
+    // Formatted as SQLite's CURRENT_TIMESTAMP would be (UTC)
+    public static String formatTimestamp(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        return format.format(new Date(millis));
+    }
+
+    public static long timestampOf(int player, int players) {
+        return EPOCH - SPREAD + (long) ((double) player / players * SPREAD);
+    }
+
+    public static void seed(Connection c, int logRows) throws SQLException {
+        int players = playersFor(logRows);
+        int addresses = addressesFor(logRows);
+
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+
+        try (Statement s = c.createStatement()) {
+            s.executeUpdate("delete from ipcheck_log");
+            s.executeUpdate("delete from ipcheck_user");
+            s.executeUpdate("delete from ipcheck_ip");
+        }
+
+        try (PreparedStatement user = c.prepareStatement("insert into " +
+                "ipcheck_user (username, timestamp) values (?, ?)")) {
+            for (int i = 0; i < players; i++) {
+                user.setString(1, playerName(i));
+                user.setString(2, formatTimestamp(timestampOf(i, players)));
+                user.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) user.executeBatch();
+            }
+
+            user.executeBatch();
+        }
+
+        try (PreparedStatement ip = c.prepareStatement("insert into " +
+                "ipcheck_ip (ip) values (?)")) {
+            for (int i = 0; i < addresses; i++) {
+                ip.setString(1, address(i));
+                ip.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) ip.executeBatch();
+            }
+
+            ip.executeBatch();
+        }
+
+        try (PreparedStatement log = c.prepareStatement("insert or ignore " +
+                "into ipcheck_log (ip, username) values (?, ?)")) {
+            for (int i = 0; i < logRows; i++) {
+                int player = i % players;
+
+                // Every fourth row re-uses a low-numbered (shared) address
+                int addr = (i % 4 == 0) ? (i / 4) % Math.max(1, addresses / 8)
+                        : i % addresses;
+
+                log.setString(1, address(addr));
+                log.setString(2, playerName(player));
+                log.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) log.executeBatch();
+            }
+
+            log.executeBatch();
+        }
+
+        c.commit();
+        c.setAutoCommit(autoCommit);
+    }
+}
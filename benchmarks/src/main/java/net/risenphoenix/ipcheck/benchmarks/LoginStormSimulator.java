@@ -0,0 +1,420 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.database.QueryProfiler;
+import net.risenphoenix.ipcheck.events.AdmissionController;
+import net.risenphoenix.ipcheck.events.NotificationDigest;
+import net.risenphoenix.ipcheck.events.NotificationRegistry;
+import net.risenphoenix.ipcheck.events.PlayerLoginListener;
+import net.risenphoenix.ipcheck.events.RejoinCache;
+import net.risenphoenix.ipcheck.events.login.LoginStage;
+import net.risenphoenix.ipcheck.objects.StatsObject;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.when;
+
+/* Drives IPCheck.onPlayerLogin with synthetic PlayerLoginEvents, as a server
+ * ticking at 20 TPS would during a join storm. Everything below the event
+ * handler is real (login stages, rejoin cache, admission control, statistics
+ * and the database); Bukkit itself is the stub server. At the end the login
+ * latency percentiles, the main-thread time spent in logins per tick and the
+ * per-stage and per-statement breakdowns are printed, so that pipeline
+ * changes can be compared run against run.
+ *
+ * Plugin settings come from the shipped config.yml and can be overridden with
+ * --cfg.<key>=<value>. See the README for the other options. */
+public class LoginStormSimulator {
+
+    private static final int TICKS_PER_SECOND = 20;
+    private static final long TICK_NANOS = TimeUnit.SECONDS.toNanos(1) /
+            TICKS_PER_SECOND;
+    private static final int TOP_STATEMENTS = 8;
+
+    private static final String[] OPTIONS = {"profile", "rate", "duration",
+            "warmup", "players", "banned", "seed", "realtime", "preload",
+            "reset"};
+
+    // Options
+    private final TrafficProfile profile;
+    private final int rate;
+    private final int duration;
+    private final int warmup;
+    private final int population;
+    private final double bannedRatio;
+    private final long seed;
+    private final boolean realtime;
+
+    private final BenchmarkEnvironment env;
+    private final IPCheck plugin;
+    private final YamlConfiguration settings;
+
+    private final Random random;
+    private final Map<Integer, SimulatedPlayer> players = new HashMap<>();
+    private long sequence = 0;
+
+    // Results (measurement phase only)
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram tickTime = new LatencyHistogram();
+    private final Map<PlayerLoginEvent.Result, Long> results =
+            new EnumMap<>(PlayerLoginEvent.Result.class);
+    private long overruns = 0;
+    private long elapsed = 0;
+
+    public LoginStormSimulator(ToolOptions options) throws Exception {
+        this.profile = TrafficProfile.fromName(options.get("profile",
+                "organic"));
+        this.rate = options.getInt("rate", 100);
+        this.duration = options.getInt("duration", 60);
+        this.warmup = options.getInt("warmup", 10);
+        this.population = options.getInt("players", 10000);
+        this.bannedRatio = options.getDouble("banned", 0.02);
+        this.seed = options.getLong("seed", 42);
+        this.realtime = options.getBoolean("realtime", true);
+        this.random = new Random(this.seed);
+
+        this.env = options.createEnvironment("target/storm-data");
+        this.plugin = this.env.getPlugin();
+        this.settings = loadSettings(options.getOverrides());
+        this.prepareDatabase(options.getInt("preload", 0),
+                options.getBoolean("reset", true));
+        this.wirePlugin();
+    }
+
+    // Plugin defaults from the shipped config.yml, plus any overrides
+    private static YamlConfiguration loadSettings(Map<String, String>
+                                                          overrides)
+            throws Exception {
+        YamlConfiguration yaml;
+
+        try (Reader in = new InputStreamReader(IPCheck.class
+                .getResourceAsStream("/config.yml"), StandardCharsets.UTF_8)) {
+            yaml = YamlConfiguration.loadConfiguration(in);
+        }
+
+        for (Map.Entry<String, String> e : overrides.entrySet()) {
+            String value = e.getValue();
+
+            if (value.equalsIgnoreCase("true") ||
+                    value.equalsIgnoreCase("false")) {
+                yaml.set(e.getKey(), Boolean.parseBoolean(value));
+            } else if (value.matches("-?\\d+")) {
+                yaml.set(e.getKey(), Integer.parseInt(value));
+            } else {
+                yaml.set(e.getKey(), value);
+            }
+        }
+
+        // There is no GeoIP database outside of a server
+        yaml.set("use-geoip-services", false);
+        yaml.set("use-country-blacklist", false);
+
+        return yaml;
+    }
+
+    // Starts from empty tables, optionally pre-seeded (SQLite only), unless
+    // told to keep an existing (e.g. generated) dataset
+    private void prepareDatabase(int preload, boolean reset)
+            throws SQLException {
+        try (Connection c = env.openConnection()) {
+            if (preload > 0 && !env.isMySQL()) {
+                DatasetSeeder.seed(c, preload);
+            } else if (reset) {
+                try (Statement s = c.createStatement()) {
+                    s.executeUpdate("delete from ipcheck_log");
+                    s.executeUpdate("delete from ipcheck_user");
+                    s.executeUpdate("delete from ipcheck_ip");
+                }
+            }
+        }
+    }
+
+    // Answers configuration look-ups from the settings and builds the
+    // plugin's login-path components around the mocked IPCheck, the way
+    // IPCheck.onStartup does (minus the scheduled tasks).
+    private void wirePlugin() throws Exception {
+        ConfigurationManager config = env.getConfig();
+
+        when(config.getBoolean(anyString())).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock inv) {
+                return settings.getBoolean((String) inv.getArgument(0));
+            }
+        });
+
+        when(config.getInteger(anyString())).thenAnswer(new Answer<Integer>() {
+            @Override
+            public Integer answer(InvocationOnMock inv) {
+                return settings.getInt((String) inv.getArgument(0));
+            }
+        });
+
+        when(config.getString(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(InvocationOnMock inv) {
+                return settings.getString((String) inv.getArgument(0));
+            }
+        });
+
+        // The tables already exist; never let them be dropped
+        when(config.getBoolean("dbGenerated")).thenReturn(true);
+
+        DatabaseController db = env.getDatabase();
+
+        RejoinCache rejoinCache = new RejoinCache(plugin);
+        db.setRejoinCache(rejoinCache);
+        when(plugin.getRejoinCache()).thenReturn(rejoinCache);
+
+        AdmissionController admission = null;
+        if (settings.getBoolean("use-admission-control")) {
+            admission = new AdmissionController(plugin);
+        }
+        when(plugin.getAdmissionController()).thenReturn(admission);
+
+        StatsObject stats = new StatsObject(plugin);
+        when(plugin.getStatisticsObject()).thenReturn(stats);
+
+        NotificationRegistry registry = new NotificationRegistry(plugin);
+        when(plugin.getNotificationRegistry()).thenReturn(registry);
+
+        NotificationDigest digest = new NotificationDigest(plugin);
+        when(plugin.getNotificationDigest()).thenReturn(digest);
+
+        // The event handler itself is the real one
+        doCallRealMethod().when(plugin).onPlayerLogin(
+                any(PlayerLoginEvent.class));
+        this.installListener();
+    }
+
+    // A fresh listener also means fresh per-stage timings
+    private void installListener() throws Exception {
+        PlayerLoginListener listener = new PlayerLoginListener(plugin);
+
+        Field field = IPCheck.class.getDeclaredField("loginListener");
+        field.setAccessible(true);
+        field.set(plugin, listener);
+
+        when(plugin.getLoginListener()).thenReturn(listener);
+    }
+
+    public void run() throws Exception {
+        this.runPhase(this.warmup, false);
+
+        // Measurement starts from clean stage and statement timings
+        this.installListener();
+        env.getDatabase().getProfiler().reset();
+
+        this.runPhase(this.duration, true);
+    }
+
+    private void runPhase(int seconds, boolean measure)
+            throws InterruptedException {
+        long ticks = (long) seconds * TICKS_PER_SECOND;
+        double perTick = (double) this.rate / TICKS_PER_SECOND;
+        double carry = 0;
+
+        long phaseStart = System.nanoTime();
+
+        for (long tick = 0; tick < ticks; tick++) {
+            long tickStart = System.nanoTime();
+
+            carry += perTick;
+            int joins = (int) carry;
+            carry -= joins;
+
+            long busy = 0;
+
+            for (int i = 0; i < joins; i++) {
+                busy += this.login(measure);
+            }
+
+            if (measure) {
+                this.tickTime.record(busy);
+                if (busy > TICK_NANOS) this.overruns++;
+            }
+
+            // Hold the tick rate, unless the logins alone overran the tick
+            if (this.realtime) {
+                long sleep = tickStart + TICK_NANOS - System.nanoTime();
+                if (sleep > 0) TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+        }
+
+        if (measure) this.elapsed = System.nanoTime() - phaseStart;
+    }
+
+    // Returns the time spent in the event handler
+    private long login(boolean measure) {
+        TrafficProfile.Login next = this.profile.next(this.random,
+                this.population, this.sequence++);
+
+        SimulatedPlayer player = (next.getPlayer() >= 0) ?
+                this.players.get(next.getPlayer()) : null;
+
+        if (player == null) {
+            player = new SimulatedPlayer(next.getName(),
+                    this.random.nextDouble() < this.bannedRatio);
+
+            // Bots are not kept, they never come back under the same name
+            if (next.getPlayer() >= 0) {
+                this.players.put(next.getPlayer(), player);
+            }
+        }
+
+        PlayerLoginEvent event = new PlayerLoginEvent(player.getPlayer(),
+                "localhost", DatasetSeeder.inetAddress(next.getAddress()));
+
+        long start = System.nanoTime();
+        this.plugin.onPlayerLogin(event);
+        long nanos = System.nanoTime() - start;
+
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) {
+            player.markPlayed();
+        }
+
+        if (measure) {
+            this.latency.record(nanos);
+
+            Long count = this.results.get(event.getResult());
+            this.results.put(event.getResult(), (count == null) ? 1 :
+                    count + 1);
+        }
+
+        return nanos;
+    }
+
+    public void report(PrintStream out) {
+        out.println();
+        out.println(String.format("Profile %s, %d joins/s for %d s (%s%s), " +
+                        "%d players, seed %d", this.profile.getName(),
+                this.rate, this.duration, env.isMySQL() ? "mysql" : "sqlite",
+                this.realtime ? "" : ", not real-time", this.population,
+                this.seed));
+
+        long logins = this.latency.getCount();
+        double seconds = this.elapsed / 1e9;
+
+        out.println(String.format("Logins: %d in %.1f s (%.0f/s)", logins,
+                seconds, logins / Math.max(seconds, 1e-9)));
+
+        for (Map.Entry<PlayerLoginEvent.Result, Long> e :
+                this.results.entrySet()) {
+            out.println(String.format("  %-14s %d", e.getKey(),
+                    e.getValue()));
+        }
+
+        out.println();
+        out.println("Login latency:     " + percentiles(this.latency));
+        out.println("Main thread/tick:  " + percentiles(this.tickTime));
+        out.println(String.format("Overrun ticks (>%s): %d of %d",
+                LatencyHistogram.format(TICK_NANOS), this.overruns,
+                this.tickTime.getCount()));
+
+        out.println();
+        out.println("Login stages:");
+
+        PlayerLoginListener listener = plugin.getLoginListener();
+
+        for (LoginStage stage : listener.getStages()) {
+            LatencyHistogram timing = listener.getTiming(stage);
+            if (timing.getCount() == 0) continue;
+
+            out.println(String.format("  %-14s %s", stage.getName(),
+                    percentiles(timing)));
+        }
+
+        out.println();
+        out.println("Database statements (by total time):");
+
+        QueryProfiler profiler = env.getDatabase().getProfiler();
+        List<QueryProfiler.Template> templates = profiler.getTemplates();
+
+        for (int i = 0; i < templates.size() && i < TOP_STATEMENTS; i++) {
+            QueryProfiler.Template t = templates.get(i);
+
+            out.println(String.format("  %s total, %s", LatencyHistogram
+                    .format(t.getTiming().getSum()), percentiles(
+                    t.getTiming())));
+            out.println("      " + t.getSQL());
+        }
+    }
+
+    private static String percentiles(LatencyHistogram h) {
+        return String.format("n=%d p50=%s p90=%s p99=%s p99.9=%s max=%s",
+                h.getCount(),
+                LatencyHistogram.format(h.getPercentile(50)),
+                LatencyHistogram.format(h.getPercentile(90)),
+                LatencyHistogram.format(h.getPercentile(99)),
+                LatencyHistogram.format(h.getPercentile(99.9)),
+                LatencyHistogram.format(h.getMax()));
+    }
+
+    public void close() {
+        env.close();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoginStormSimulator simulator = new LoginStormSimulator(
+                ToolOptions.parse(args, OPTIONS));
+
+        try {
+            simulator.run();
+            simulator.report(System.out);
+        } finally {
+            simulator.close();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import org.bukkit.entity.Player;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/* Lightweight Player used by the login-storm simulator. It is a dynamic proxy
+ * rather than a Mockito mock, so that stubbing overhead does not show up in
+ * the measured login latency. Only the state read on the login path is kept;
+ * every other method returns null, false or zero. */
+public class SimulatedPlayer implements InvocationHandler {
+
+    private final String name;
+    private final UUID uuid;
+    private final Player proxy;
+
+    private volatile boolean banned;
+    private volatile boolean playedBefore = false;
+
+    public SimulatedPlayer(String name, boolean banned) {
+        this.name = name;
+        this.uuid = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name)
+                .getBytes(StandardCharsets.UTF_8));
+        this.banned = banned;
+        this.proxy = (Player) Proxy.newProxyInstance(
+                Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                this);
+    }
+
+    public Player getPlayer() {
+        return this.proxy;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public boolean isBanned() {
+        return this.banned;
+    }
+
+    // Called once the player has been let in, as the server would
+    public void markPlayed() {
+        this.playedBefore = true;
+    }
+
+    @Override
+    public Object invoke(Object self, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "getName":
+            case "getDisplayName":
+            case "getPlayerListName":
+                return this.name;
+            case "getUniqueId":
+                return this.uuid;
+            case "isBanned":
+                return this.banned;
+            case "setBanned":
+                this.banned = (Boolean) args[0];
+                return null;
+            case "hasPlayedBefore":
+                return this.playedBefore;
+            case "isOnline":
+                return true;
+            case "hashCode":
+                return System.identityHashCode(self);
+            case "equals":
+                return self == args[0];
+            case "toString":
+                return "SimulatedPlayer{" + this.name + "}";
+            default:
+                return defaultValue(method.getReturnType());
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        return 0D;
+    }
+}
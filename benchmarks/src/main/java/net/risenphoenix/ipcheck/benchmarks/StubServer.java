@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/* Minimal stand-in for a Bukkit server, so that code calling the static Bukkit
+ * accessors (getPlayer, getOfflinePlayer, banIP...) can run outside of a real
+ * Minecraft server. Nobody is ever online and offline players are mocks. */
+public class StubServer {
+
+    private static Server server = null;
+
+    public static synchronized Server install() {
+        if (server != null) return server;
+
+        server = mock(Server.class);
+
+        when(server.getName()).thenReturn("StubServer");
+        when(server.getVersion()).thenReturn("stub");
+        when(server.getBukkitVersion()).thenReturn("1.11.2-R0.1-SNAPSHOT");
+        when(server.getLogger()).thenReturn(Logger.getLogger("StubServer"));
+        when(server.getOnlineMode()).thenReturn(false);
+        when(server.getOfflinePlayer(anyString())).thenAnswer(
+                new Answer<OfflinePlayer>() {
+                    @Override
+                    public OfflinePlayer answer(InvocationOnMock inv) {
+                        OfflinePlayer p = mock(OfflinePlayer.class);
+                        when(p.getName()).thenReturn(
+                                (String) inv.getArgument(0));
+                        return p;
+                    }
+                });
+
+        Bukkit.setServer(server);
+        return server;
+    }
+}
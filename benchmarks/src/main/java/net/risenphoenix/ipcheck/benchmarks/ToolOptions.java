@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Command line options of the stand-alone tools (login-storm simulator,
+ * dataset generator), given as --<name>=<value>. Options starting with
+ * "cfg." are collected separately as plugin setting overrides. Also knows
+ * the database options that every tool shares. */
+public class ToolOptions {
+
+    public static final String[] BACKEND_OPTIONS = {"backend", "data",
+            "mysql-host", "mysql-port", "mysql-database", "mysql-user",
+            "mysql-password"};
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Map<String, String> overrides = new HashMap<>();
+
+    // Exits with a usage message on anything not in "known"
+    public static ToolOptions parse(String[] args, String... known) {
+        List<String> names = Arrays.asList(known);
+        ToolOptions options = new ToolOptions();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+
+            if (!arg.startsWith("--") || eq < 0) usage(arg, known);
+
+            String key = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+
+            if (key.startsWith("cfg.")) {
+                options.overrides.put(key.substring(4), value);
+            } else if (names.contains(key) ||
+                    Arrays.asList(BACKEND_OPTIONS).contains(key)) {
+                options.values.put(key, value);
+            } else {
+                usage(arg, known);
+            }
+        }
+
+        return options;
+    }
+
+    private static void usage(String arg, String[] known) {
+        System.err.println("Unrecognised argument: " + arg);
+        System.err.println("Options: --<option>=<value> with option one of " +
+                Arrays.toString(known) + " or " +
+                Arrays.toString(BACKEND_OPTIONS) +
+                ", or --cfg.<config-key>=<value>");
+        System.exit(2);
+    }
+
+    public String get(String key, String fallback) {
+        String value = this.values.get(key);
+        return (value != null) ? value : fallback;
+    }
+
+    public int getInt(String key, int fallback) {
+        String value = this.values.get(key);
+        return (value != null) ? Integer.parseInt(value) : fallback;
+    }
+
+    public long getLong(String key, long fallback) {
+        String value = this.values.get(key);
+        return (value != null) ? Long.parseLong(value) : fallback;
+    }
+
+    public double getDouble(String key, double fallback) {
+        String value = this.values.get(key);
+        return (value != null) ? Double.parseDouble(value) : fallback;
+    }
+
+    public boolean getBoolean(String key, boolean fallback) {
+        String value = this.values.get(key);
+        return (value != null) ? Boolean.parseBoolean(value) : fallback;
+    }
+
+    public Map<String, String> getOverrides() {
+        return this.overrides;
+    }
+
+    // SQLite in --data (or the given folder), or MySQL with --backend=mysql
+    public BenchmarkEnvironment createEnvironment(String defaultFolder) {
+        File folder = new File(get("data", defaultFolder));
+        String backend = get("backend", "sqlite");
+
+        if (backend.equalsIgnoreCase("mysql")) {
+            return new BenchmarkEnvironment(folder,
+                    get("mysql-host", "localhost"),
+                    getInt("mysql-port", 3306),
+                    get("mysql-database", "ipcheck_bench"),
+                    get("mysql-user", "root"),
+                    get("mysql-password", ""));
+        } else if (backend.equalsIgnoreCase("sqlite")) {
+            return new BenchmarkEnvironment(folder);
+        }
+
+        throw new IllegalArgumentException("Unknown backend: " + backend);
+    }
+}
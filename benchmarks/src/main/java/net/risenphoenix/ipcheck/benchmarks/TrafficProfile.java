@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.benchmarks;
+
+import java.util.Random;
+
+/* How simulated logins are spread over players and addresses. Players are
+ * numbered 0 to population - 1 and addresses are numbered as in
+ * DatasetSeeder, so a storm can be run against a pre-seeded database. */
+public enum TrafficProfile {
+
+    // Each player has a home address, with the occasional login from
+    // elsewhere (mobile, travelling).
+    ORGANIC("organic") {
+        @Override
+        public Login next(Random random, int population, long sequence) {
+            int player = random.nextInt(population);
+            int address = (random.nextInt(10) == 0) ?
+                    population + random.nextInt(population) : player;
+
+            return new Login(player, address);
+        }
+    },
+
+    // Players sit behind shared gateways (schools, carrier-grade NAT), so
+    // every address carries dozens of accounts.
+    NAT_HEAVY("nat") {
+        @Override
+        public Login next(Random random, int population, long sequence) {
+            int player = random.nextInt(population);
+            int gateways = Math.max(1, population / PLAYERS_PER_GATEWAY);
+            int address = (random.nextInt(4) == 0) ?
+                    random.nextInt(gateways) : player / PLAYERS_PER_GATEWAY;
+
+            return new Login(player, address);
+        }
+    },
+
+    // A flood of throw-away accounts from a handful of /24 networks, on top
+    // of a trickle of organic logins.
+    BOT_FLOOD("bot") {
+        @Override
+        public Login next(Random random, int population, long sequence) {
+            if (random.nextInt(10) == 0) {
+                return ORGANIC.next(random, population, sequence);
+            }
+
+            return new Login("bot" + sequence,
+                    BOT_NETWORK + random.nextInt(BOT_ADDRESSES));
+        }
+    };
+
+    private static final int PLAYERS_PER_GATEWAY = 50;
+
+    // Four /24 networks (73.0.0.0 - 73.0.3.255) well clear of the players
+    private static final int BOT_NETWORK = 0x3F000000;
+    private static final int BOT_ADDRESSES = 1024;
+
+    private final String name;
+
+    TrafficProfile(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public abstract Login next(Random random, int population, long sequence);
+
+    public static TrafficProfile fromName(String name) {
+        for (TrafficProfile profile : values()) {
+            if (profile.name.equalsIgnoreCase(name)) return profile;
+        }
+
+        throw new IllegalArgumentException("Unknown profile: " + name);
+    }
+
+    public static class Login {
+        private final int player;
+        private final String name;
+        private final int address;
+
+        // A member of the player population
+        Login(int player, int address) {
+            this.player = player;
+            this.name = DatasetSeeder.playerName(player);
+            this.address = address;
+        }
+
+        // A one-off account outside of the population
+        Login(String name, int address) {
+            this.player = -1;
+            this.name = name;
+            this.address = address;
+        }
+
+        public int getPlayer() {
+            return this.player;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public int getAddress() {
+            return this.address;
+        }
+    }
+}
@@ -33,8 +33,17 @@ package net.risenphoenix.ipcheck;
 import net.risenphoenix.commons.Plugin;
 import net.risenphoenix.ipcheck.commands.block.BlockManager;
 import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.database.RecordPager;
+import net.risenphoenix.ipcheck.database.transfer.MaintenanceManager;
+import net.risenphoenix.ipcheck.events.AdmissionController;
+import net.risenphoenix.ipcheck.events.NotificationDigest;
+import net.risenphoenix.ipcheck.events.NotificationRegistry;
+import net.risenphoenix.ipcheck.events.OnlineAlts;
 import net.risenphoenix.ipcheck.events.PlayerLoginListener;
+import net.risenphoenix.ipcheck.events.RejoinCache;
+import net.risenphoenix.ipcheck.objects.ClusterRanking;
 import net.risenphoenix.ipcheck.objects.GeoIPObject;
+import net.risenphoenix.ipcheck.objects.ReportCache;
 import net.risenphoenix.ipcheck.objects.StatsObject;
 import net.risenphoenix.ipcheck.stores.CmdStore;
 import net.risenphoenix.ipcheck.stores.ConfigStore;
@@ -42,6 +51,7 @@ import net.risenphoenix.ipcheck.stores.LocaleStore;
 import net.risenphoenix.ipcheck.util.DateStamp;
 import net.risenphoenix.ipcheck.util.Messages;
 import net.risenphoenix.ipcheck.util.Metrics;
+import net.risenphoenix.ipcheck.util.PrometheusExporter;
 
 import net.risenphoenix.ipcheck.util.Updater;
 import org.bukkit.Bukkit;
@@ -50,7 +60,10 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -62,6 +75,7 @@ public class IPCheck extends Plugin implements Listener {
     private static IPCheck instance;
     private DatabaseController dbController;
     private ConfigStore config;
+    private LocaleStore locale;
 
     // Updater and Metrics Objects
     private Updater updater;
@@ -74,6 +88,37 @@ public class IPCheck extends Plugin implements Listener {
     private GeoIPObject geoIPOBject = null;
     private BlockManager blockManager = null;
 
+    // Staff Notification Recipients
+    private NotificationRegistry notifyRegistry = null;
+    private NotificationDigest notifyDigest = null;
+
+    // Linked Accounts of Online Players
+    private OnlineAlts onlineAlts = null;
+
+    // Join-Flood Admission Control
+    private AdmissionController admission = null;
+
+    // Recently Rejected (Banned) Logins
+    private RejoinCache rejoinCache = null;
+
+    // Login Check Chain
+    private PlayerLoginListener loginListener = null;
+
+    // Local Prometheus Endpoint
+    private PrometheusExporter prometheus = null;
+
+    // Scheduled Backups and Log Retention
+    private MaintenanceManager maintenance = null;
+
+    // Paged Record Listings
+    private RecordPager recordPager = null;
+
+    // Recently Shown Reports
+    private ReportCache reportCache = null;
+
+    // Largest Clusters of Linked Accounts, from the last audit or /ipc top
+    private volatile ClusterRanking clusterRanking = null;
+
     // Control used mainly in the event of an in-plugin Reload.
     private boolean hasRegistered = false;
 
@@ -81,11 +126,29 @@ public class IPCheck extends Plugin implements Listener {
     private boolean isDevBuild = false;
 
     // Configuration Version Check
-    private int configVersion = 5;
+    private int configVersion = 6;
 
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerLogin(PlayerLoginEvent e) {
-        new PlayerLoginListener(this, e);
+        if (loginListener != null) loginListener.execute(e);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent e) {
+        if (notifyRegistry != null) notifyRegistry.track(e.getPlayer());
+        if (onlineAlts != null) onlineAlts.track(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent e) {
+        if (notifyRegistry != null) notifyRegistry.untrack(e.getPlayer());
+        if (onlineAlts != null) onlineAlts.untrack(e.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent e) {
+        // Most permission plugins re-calculate permissions on world change
+        if (notifyRegistry != null) notifyRegistry.track(e.getPlayer());
     }
 
     @Override
@@ -107,8 +170,8 @@ public class IPCheck extends Plugin implements Listener {
         this.getConfigurationManager().initializeConfigurationStore(config);
 
         // Initialize Default Localization
-        LocaleStore locStore = new LocaleStore(this);
-        this.getLocalizationManager().appendLocalizationStore(locStore);
+        this.locale = new LocaleStore(this);
+        this.getLocalizationManager().appendLocalizationStore(this.locale);
 
         // Check Configuration Version, warn if Mismatch
         if (this.getConfigurationManager()
@@ -139,12 +202,60 @@ public class IPCheck extends Plugin implements Listener {
             dbController = new DatabaseController(this);
         }
 
+        // Initialize Backups and Log Retention
+        this.maintenance = new MaintenanceManager(this);
+        this.maintenance.start();
+
+        // Initialize Rejoin Verdict Cache
+        this.rejoinCache = new RejoinCache(this);
+        dbController.setRejoinCache(this.rejoinCache);
+
+        // Initialize Report Cache
+        this.reportCache = new ReportCache();
+        dbController.setReportCache(this.reportCache);
+
+        // Initialize Paged Record Listings
+        this.recordPager = new RecordPager(dbController);
+
+        // Initialize Admission Control
+        if (this.getConfigurationManager()
+                .getBoolean("use-admission-control")) {
+            this.admission = new AdmissionController(this);
+            this.admission.start();
+        } else {
+            this.admission = null;
+        }
+
+        // Initialize Login Check Chain
+        this.loginListener = new PlayerLoginListener(this);
+
         // Initialize Commands
         CmdStore cmdStore = new CmdStore(this);
         this.getCommandManager().registerStore(cmdStore);
 
         // Initialize Statistics
         this.statsObject = new StatsObject(this);
+        this.statsObject.start();
+
+        // Initialize Notification Recipient Registry
+        this.notifyRegistry = new NotificationRegistry(this);
+        this.notifyRegistry.start();
+
+        // Initialize Notification Digest (join-flood coalescing)
+        this.notifyDigest = new NotificationDigest(this);
+        this.notifyDigest.start();
+
+        // Initialize Online Alt Index
+        this.onlineAlts = new OnlineAlts(this);
+        this.onlineAlts.start();
+
+        // Initialize Prometheus Endpoint
+        if (getConfigurationManager().getBoolean("use-prometheus-endpoint")) {
+            this.prometheus = new PrometheusExporter(this);
+            this.prometheus.start();
+        } else {
+            this.prometheus = null;
+        }
 
         // Development Build Hook
         if (!this.isDevBuild) {
@@ -177,6 +288,16 @@ public class IPCheck extends Plugin implements Listener {
 
     @Override
     public void onShutdown() {
+        if (notifyRegistry != null) notifyRegistry.stop();
+        if (notifyDigest != null) notifyDigest.stop();
+        if (onlineAlts != null) onlineAlts.stop();
+        if (admission != null) admission.stop();
+        if (prometheus != null) prometheus.stop();
+        if (maintenance != null) maintenance.stop();
+
+        // Checkpoint Statistics before the database goes away
+        if (statsObject != null) statsObject.stop();
+
         dbController.getDatabaseConnection().closeConnection();
     }
 
@@ -188,6 +309,10 @@ public class IPCheck extends Plugin implements Listener {
         return this.dbController;
     }
 
+    public LocaleStore getLocaleStore() {
+        return this.locale;
+    }
+
     public StatsObject getStatisticsObject() {
         return this.statsObject;
     }
@@ -200,6 +325,50 @@ public class IPCheck extends Plugin implements Listener {
         return this.blockManager;
     }
 
+    public NotificationRegistry getNotificationRegistry() {
+        return this.notifyRegistry;
+    }
+
+    public NotificationDigest getNotificationDigest() {
+        return this.notifyDigest;
+    }
+
+    public OnlineAlts getOnlineAlts() {
+        return this.onlineAlts;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return this.admission;
+    }
+
+    public MaintenanceManager getMaintenanceManager() {
+        return this.maintenance;
+    }
+
+    public RecordPager getRecordPager() {
+        return this.recordPager;
+    }
+
+    public ReportCache getReportCache() {
+        return this.reportCache;
+    }
+
+    public ClusterRanking getClusterRanking() {
+        return this.clusterRanking;
+    }
+
+    public void setClusterRanking(ClusterRanking ranking) {
+        this.clusterRanking = ranking;
+    }
+
+    public RejoinCache getRejoinCache() {
+        return this.rejoinCache;
+    }
+
+    public PlayerLoginListener getLoginListener() {
+        return this.loginListener;
+    }
+
     public String getVersion() {
         return "2.0.7";
     }
@@ -35,6 +35,7 @@ import net.risenphoenix.commons.localization.LocalizationManager;
 import net.risenphoenix.ipcheck.IPCheck;
 import net.risenphoenix.ipcheck.database.DatabaseController;
 import net.risenphoenix.ipcheck.objects.IPObject;
+import net.risenphoenix.ipcheck.util.FlightEvents;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
@@ -66,6 +67,19 @@ public class ActionBan {
     }
 
     public Object[] execute() {
+        Object event = FlightEvents.get().beginBan("ban", banning);
+        Object[] result = null;
+
+        try {
+            result = this.executeBan();
+            return result;
+        } finally {
+            FlightEvents.get().endBan(event, (result == null) ? 0 :
+                    (Integer) result[0]);
+        }
+    }
+
+    private Object[] executeBan() {
         // Variable Storage
         IPObject ipo;
         int accounts = 0;
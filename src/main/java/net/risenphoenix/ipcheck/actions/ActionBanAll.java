@@ -34,6 +34,7 @@ import net.risenphoenix.commons.configuration.ConfigurationManager;
 import net.risenphoenix.ipcheck.IPCheck;
 import net.risenphoenix.ipcheck.database.DatabaseController;
 import net.risenphoenix.ipcheck.objects.UserObject;
+import net.risenphoenix.ipcheck.util.FlightEvents;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
@@ -63,6 +64,19 @@ public class ActionBanAll {
     }
 
     public Object[] execute() {
+        Object event = FlightEvents.get().beginBan("banall", banning);
+        Object[] result = null;
+
+        try {
+            result = this.executeBan();
+            return result;
+        } finally {
+            FlightEvents.get().endBan(event, (result == null) ? 0 :
+                    (Integer) result[0]);
+        }
+    }
+
+    private Object[] executeBan() {
         // Fetch ArrayList of User Objects created between the two timestamps
         ArrayList<UserObject> pResults = db.getPlayersByDate(tsOne, tsTwo);
         int validAccounts = 0; // Number of banned/unbanned accounts
@@ -31,10 +31,13 @@
 package net.risenphoenix.ipcheck.actions;
 
 import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.events.NotificationRegistry;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.permissions.Permission;
 
+import java.util.Collection;
+
 public class ActionBroadcast {
 
     private IPCheck ipc;
@@ -74,12 +77,28 @@ public class ActionBroadcast {
     }
 
     public void execute() {
-        // Fetch Online Players
-        Player[] players = ipc.getOnlinePlayers();
-
         // Get Final Message
         String finalMsg = this.formatMessage();
 
+        // Fetch pre-filtered recipients from the Notification Registry when
+        // every required permission is tracked by it.
+        NotificationRegistry registry = ipc.getNotificationRegistry();
+        Collection<Player> staff = (registry != null) ?
+                registry.getRecipients(this.requiredPerms) : null;
+
+        if (staff != null) {
+            for (Player p : staff) {
+                this.ipc.sendPlayerMessage(p, finalMsg, this.useName);
+            }
+
+            // Send Message to Console
+            Bukkit.getConsoleSender().sendMessage(finalMsg);
+            return;
+        }
+
+        // Fetch Online Players
+        Player[] players = ipc.getOnlinePlayers();
+
         // Broadcast
         for (Player p : players) {
             // Check if Permissions are required, and if so check for them
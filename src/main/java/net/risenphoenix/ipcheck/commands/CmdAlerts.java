@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.commands;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.commands.Command;
+import net.risenphoenix.commons.commands.CommandType;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.events.NotificationDigest;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+public class CmdAlerts extends Command {
+
+    private static final int PAGE_SIZE = 8;
+
+    public CmdAlerts(final Plugin plugin, String[] callArgs, CommandType type) {
+        super(plugin, callArgs, type);
+
+        setName(getLocalString("CMD_ALERTS"));
+        setHelp(getLocalString("HELP_ALERTS"));
+        setSyntax("ipc alerts [PAGE]");
+        setPermissions(new Permission[]{new Permission("ipcheck.use"),
+                new Permission("ipcheck.getnotify")});
+    }
+
+    @Override
+    public void onExecute(CommandSender sender, String[] args) {
+        List<NotificationDigest.Alert> alerts = IPCheck.getInstance()
+                .getNotificationDigest().getRecentAlerts();
+
+        if (alerts.size() == 0) {
+            sendPlayerMessage(sender, getLocalString("ALERTS_EMPTY"));
+            return;
+        }
+
+        int pages = (alerts.size() / PAGE_SIZE);
+        if (alerts.size() % PAGE_SIZE != 0) pages++;
+
+        // Attempt Page Number Parse
+        int pageNumber = 1;
+
+        if (args.length == 2) {
+            try {
+                pageNumber = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                sendPlayerMessage(sender, getLocalString("ILL_ARGS_ERR"));
+            }
+        }
+
+        // Confirm page-number is within bounds.
+        if (pageNumber > pages) {
+            pageNumber = pages;
+        } else if (pageNumber < 1) {
+            pageNumber = 1;
+        }
+
+        boolean showIP = sender.hasPermission("ipcheck.showip") ||
+                sender.isOp();
+        SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss");
+
+        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
+                "------------------------------------------------", false);
+        sendPlayerMessage(sender, ChatColor.GOLD + String.format(
+                getLocalString("ALERTS_HEAD"), pageNumber, pages), false);
+        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
+                "------------------------------------------------", false);
+
+        int start = (pageNumber - 1) * PAGE_SIZE;
+        int end = Math.min(start + PAGE_SIZE, alerts.size());
+
+        for (int i = start; i < end; i++) {
+            NotificationDigest.Alert a = alerts.get(i);
+            StringBuilder sb = new StringBuilder();
+
+            sb.append(ChatColor.DARK_GRAY).append("[")
+                    .append(format.format(new Date(a.getTime()))).append("] ")
+                    .append(ChatColor.LIGHT_PURPLE).append(a.getPlayer());
+
+            if (showIP) {
+                sb.append(ChatColor.GRAY).append(" (").append(a.getIP())
+                        .append(")");
+            }
+
+            if (a.getType() == NotificationDigest.AlertType.LOGIN) {
+                sb.append(ChatColor.RED).append(" ")
+                        .append(getLocalString("ALERTS_LOGIN")).append(" ")
+                        .append(ChatColor.YELLOW).append(a.getAccounts());
+            } else {
+                sb.append(ChatColor.RED).append(" ")
+                        .append(getLocalString("ALERTS_REJOIN"));
+            }
+
+            sendPlayerMessage(sender, sb.toString(), false);
+        }
+
+        // Display Information at Bottom of Page w/ Command
+        if (pageNumber < pages) {
+            sendPlayerMessage(sender, ChatColor.RED + "Type " +
+                    ChatColor.YELLOW + "/ipc alerts " + (pageNumber + 1) +
+                    ChatColor.RED + " for more.", false);
+        }
+
+        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
+                "------------------------------------------------", false);
+    }
+}
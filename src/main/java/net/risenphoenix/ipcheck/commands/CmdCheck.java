@@ -40,18 +40,47 @@ import org.bukkit.permissions.Permission;
 
 public class CmdCheck extends Command {
 
-    public CmdCheck(Plugin plugin, String[] callArgs, CommandType type) {
+    private final boolean paged;
+
+    public CmdCheck(Plugin plugin, String[] callArgs, CommandType type,
+                    boolean paged) {
         super(plugin, callArgs, type);
 
-        setName("Check");
-        setHelp(this.getLocalString("HELP_CHECK"));
-        this.setSyntax("ipc <PLAYER | IP>");
+        this.paged = paged;
+
+        if (paged) {
+            setName(this.getLocalString("CMD_CHECK_PAGE"));
+            setHelp(this.getLocalString("HELP_CHECK_PAGE"));
+            this.setSyntax("ipc <PLAYER | IP> page <PAGE>");
+        } else {
+            setName("Check");
+            setHelp(this.getLocalString("HELP_CHECK"));
+            this.setSyntax("ipc <PLAYER | IP>");
+        }
+
         this.setPermissions(new Permission[]{new Permission("ipcheck.use")});
     }
 
     @Override
     public void onExecute(CommandSender sender, String[] args) {
-        new ReportObject(IPCheck.getInstance()).onExecute(sender, args[0]);
+        int page = 1;
+
+        if (this.paged) {
+            try {
+                page = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                page = 0;
+            }
+
+            if (page < 1) {
+                sendPlayerMessage(sender, String.format(
+                        getLocalString("LIST_BAD_PAGE"), args[2]));
+                return;
+            }
+        }
+
+        new ReportObject(IPCheck.getInstance()).onExecute(sender, args[0],
+                page);
     }
 
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.commands;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.commands.Command;
+import net.risenphoenix.commons.commands.CommandType;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.transfer.Snapshot;
+import net.risenphoenix.ipcheck.database.transfer.SnapshotExporter;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+
+public class CmdExport extends Command {
+
+    public CmdExport(final Plugin plugin, String[] callArgs,
+                     CommandType type) {
+        super(plugin, callArgs, type);
+
+        setName(getLocalString("CMD_EXPORT"));
+        setHelp(getLocalString("HELP_EXPORT"));
+        setSyntax("ipc export [binary | csv | ndjson]");
+        setPermissions(new Permission[]{new Permission("ipcheck.use"),
+                new Permission("ipcheck.export")});
+    }
+
+    @Override
+    public void onExecute(CommandSender sender, String[] args) {
+        Snapshot.Format format = Snapshot.Format.BINARY;
+
+        if (args.length > 1) {
+            format = Snapshot.Format.fromName(args[1]);
+
+            if (format == null) {
+                sendPlayerMessage(sender, String.format(
+                        getLocalString("EXPORT_BAD_FORMAT"), args[1]));
+                return;
+            }
+        }
+
+        if (!new SnapshotExporter(IPCheck.getInstance(), sender, format)
+                .start()) {
+            sendPlayerMessage(sender, getLocalString("TRANSFER_RUNNING"));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.commands;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.commands.Command;
+import net.risenphoenix.commons.commands.CommandType;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.transfer.BanImporter;
+import net.risenphoenix.ipcheck.database.transfer.TransferTask;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CmdImportBans extends Command {
+
+    // Vanilla ban lists, and their pre-1.7.6 predecessors
+    private static final String[][] SERVER_LISTS = {
+            {"banned-players.json", "banned-players.txt"},
+            {"banned-ips.json", "banned-ips.txt"}};
+
+    public CmdImportBans(final Plugin plugin, String[] callArgs,
+                         CommandType type) {
+        super(plugin, callArgs, type);
+
+        setName(getLocalString("CMD_IMPORT_BANS"));
+        setHelp(getLocalString("HELP_IMPORT_BANS"));
+        setSyntax("ipc import bans [FILE]");
+        setPermissions(new Permission[]{new Permission("ipcheck.use"),
+                new Permission("ipcheck.import")});
+    }
+
+    @Override
+    public void onExecute(CommandSender sender, String[] args) {
+        IPCheck ipc = IPCheck.getInstance();
+        List<File> files = new ArrayList<>();
+
+        if (args.length > 2) {
+            // Other lists must be placed in the IP-Check folder
+            File file = TransferTask.resolve(ipc.getDataFolder(), args[2]);
+
+            if (file == null) {
+                sendPlayerMessage(sender, getLocalString("IMPORT_BAD_PATH"));
+                return;
+            }
+
+            if (!file.isFile()) {
+                sendPlayerMessage(sender, String.format(
+                        getLocalString("IMPORT_NOT_FOUND"), args[2]));
+                return;
+            }
+
+            files.add(file);
+
+            // Bukkit remains the authority on who is banned
+            sendPlayerMessage(sender, ChatColor.GOLD +
+                    getLocalString("IMPORT_SYNC_NOTE"));
+        } else {
+            // The server's own lists live in its working directory
+            for (String[] names : SERVER_LISTS) {
+                for (String name : names) {
+                    File file = new File(name);
+
+                    if (file.isFile()) {
+                        files.add(file);
+                        break;
+                    }
+                }
+            }
+
+            if (files.isEmpty()) {
+                sendPlayerMessage(sender, String.format(
+                        getLocalString("IMPORT_NOT_FOUND"),
+                        SERVER_LISTS[0][0]));
+                return;
+            }
+        }
+
+        if (!new BanImporter(ipc, sender, files, args.length > 2)
+                .start()) {
+            sendPlayerMessage(sender, getLocalString("TRANSFER_RUNNING"));
+        }
+    }
+}
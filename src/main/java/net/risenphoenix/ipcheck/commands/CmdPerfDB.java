@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.commands;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.commands.Command;
+import net.risenphoenix.commons.commands.CommandType;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.QueryProfiler;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+
+import java.util.List;
+
+public class CmdPerfDB extends Command {
+
+    private static final int MAX_ENTRIES = 10;
+    private static final int MAX_SQL_LENGTH = 60;
+
+    public CmdPerfDB(final Plugin plugin, String[] callArgs, CommandType type) {
+        super(plugin, callArgs, type);
+
+        setName(getLocalString("CMD_PERF_DB"));
+        setHelp(getLocalString("HELP_PERF_DB"));
+        setSyntax("ipc perf db");
+        setPermissions(new Permission[]{new Permission("ipcheck.use"),
+                new Permission("ipcheck.perf")});
+    }
+
+    @Override
+    public void onExecute(CommandSender sender, String[] args) {
+        List<QueryProfiler.Template> templates = IPCheck.getInstance()
+                .getDatabaseController().getProfiler().getTemplates();
+
+        if (templates.size() == 0) {
+            sendPlayerMessage(sender, getLocalString("PERF_DB_EMPTY"));
+            return;
+        }
+
+        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
+                "------------------------------------------------", false);
+        sendPlayerMessage(sender, ChatColor.GOLD +
+                getLocalString("PERF_DB_HEAD"), false);
+        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
+                "------------------------------------------------", false);
+
+        for (int i = 0; i < templates.size() && i < MAX_ENTRIES; i++) {
+            QueryProfiler.Template t = templates.get(i);
+            LatencyHistogram timing = t.getTiming();
+
+            String sql = t.getSQL();
+            if (sql.length() > MAX_SQL_LENGTH) {
+                sql = sql.substring(0, MAX_SQL_LENGTH - 3) + "...";
+            }
+
+            sendPlayerMessage(sender, ChatColor.YELLOW + "" +
+                    timing.getCount() + ChatColor.GRAY + " x, " +
+                    ChatColor.YELLOW +
+                    LatencyHistogram.format(timing.getPercentile(50)) +
+                    ChatColor.GRAY + " / " + ChatColor.YELLOW +
+                    LatencyHistogram.format(timing.getPercentile(99)) +
+                    ChatColor.GRAY + " / " + ChatColor.YELLOW +
+                    LatencyHistogram.format(timing.getMax()) +
+                    ChatColor.GRAY + " (" +
+                    LatencyHistogram.format(timing.getSum()) + ")", false);
+
+            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE + "  " + sql,
+                    false);
+        }
+
+        if (templates.size() > MAX_ENTRIES) {
+            sendPlayerMessage(sender, ChatColor.GRAY + String.format(
+                    getLocalString("PERF_DB_MORE"),
+                    templates.size() - MAX_ENTRIES), false);
+        }
+
+        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
+                "------------------------------------------------", false);
+    }
+}
@@ -35,9 +35,13 @@ import net.risenphoenix.commons.commands.Command;
 import net.risenphoenix.commons.commands.CommandType;
 import net.risenphoenix.ipcheck.IPCheck;
 import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.database.transfer.PurgeSelector;
+import net.risenphoenix.ipcheck.database.transfer.PurgeTask;
 import org.bukkit.command.CommandSender;
 import org.bukkit.permissions.Permission;
 
+import java.util.Arrays;
+
 public class CmdPurge extends Command {
 
     private DatabaseController db;
@@ -49,7 +53,8 @@ public class CmdPurge extends Command {
 
         setName(getLocalString("CMD_PURGE"));
         setHelp(getLocalString("HELP_PURGE"));
-        setSyntax("ipc purge <PLAYER | IP>");
+        setSyntax("ipc purge <PLAYER | IP | CIDR | NAME* | inactive AGE | " +
+                "single> [confirm]");
         setPermissions(new Permission[]{
                 new Permission("ipcheck.use"),
                 new Permission("ipcheck.purge")
@@ -58,6 +63,32 @@ public class CmdPurge extends Command {
 
     @Override
     public void onExecute(CommandSender sender, String[] args) {
+        IPCheck ipc = IPCheck.getInstance();
+
+        // Bulk selectors are counted first, and only purged once confirmed
+        boolean confirmed = args.length > 2 &&
+                args[args.length - 1].equalsIgnoreCase("confirm");
+        String[] selection = Arrays.copyOfRange(args, 1,
+                confirmed ? args.length - 1 : args.length);
+        PurgeSelector selector;
+
+        try {
+            selector = PurgeSelector.parse(selection, ipc
+                    .getConfigurationManager().getBoolean("use-mysql"));
+        } catch (IllegalArgumentException e) {
+            sendPlayerMessage(sender, String.format(
+                    getLocalString("PURGE_BAD_SELECTOR"), e.getMessage()));
+            return;
+        }
+
+        if (selector != null) {
+            if (!new PurgeTask(ipc, sender, selector, confirmed).start()) {
+                sendPlayerMessage(sender, getLocalString("TRANSFER_RUNNING"));
+            }
+
+            return;
+        }
+
         // Regex for differentiating between IP and username
         String ip_filter = "\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}";
 
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.commands;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.commands.Command;
+import net.risenphoenix.commons.commands.CommandType;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.RecordList;
+import net.risenphoenix.ipcheck.database.RecordPager;
+import net.risenphoenix.ipcheck.util.ChatBuffer;
+import net.risenphoenix.ipcheck.util.ListFormatter;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+/* Base of the commands listing flagged records (exemptions, bans,
+ * protections), which send them a page at a time. */
+public abstract class CmdRecordList extends Command {
+
+    public static final String SEPARATOR = ChatBuffer.SEPARATOR;
+
+    public CmdRecordList(final Plugin plugin, String[] callArgs,
+                         CommandType type) {
+        super(plugin, callArgs, type);
+    }
+
+    /* Sends the given page of the list. The command is that which lists
+     * it, for the hint leading to the next page. */
+    public final void showPage(CommandSender sender, RecordList list,
+                               int page, String command) {
+        RecordPager.Page result = IPCheck.getInstance().getRecordPager()
+                .getPage(sender, list, page);
+
+        StringBuilder heading = new StringBuilder()
+                .append(ChatColor.GOLD).append(getLocalString(list.getTitle()))
+                .append(' ').append(ChatColor.RED).append(result.getTotal());
+
+        if (result.getPages() > 1) {
+            heading.append(ChatColor.GRAY).append(' ').append(String.format(
+                    getLocalString("LIST_PAGE"), result.getNumber(),
+                    result.getPages()));
+        }
+
+        sendPlayerMessage(sender, heading.toString(), false);
+        sendPlayerMessage(sender, new ListFormatter(result.getEntries())
+                .getFormattedList().toString(), false);
+
+        if (result.getNumber() < result.getPages()) {
+            sendPlayerMessage(sender, ChatColor.GRAY + String.format(
+                    getLocalString("LIST_NEXT_PAGE"), command,
+                    result.getNumber() + 1), false);
+        }
+    }
+
+    /* Returns the page number given at the index of the arguments, 1 if
+     * there is none, or -1 after telling the sender it is invalid. */
+    public final int getPage(CommandSender sender, String[] args, int index) {
+        if (args.length <= index) return 1;
+
+        try {
+            int page = Integer.parseInt(args[index]);
+            if (page > 0) return page;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+
+        sendPlayerMessage(sender, String.format(getLocalString("LIST_BAD_PAGE"),
+                args[index]));
+        return -1;
+    }
+}
@@ -34,8 +34,8 @@ import net.risenphoenix.commons.Plugin;
 import net.risenphoenix.commons.commands.Command;
 import net.risenphoenix.commons.commands.CommandType;
 import net.risenphoenix.ipcheck.IPCheck;
-import net.risenphoenix.ipcheck.objects.IPObject;
-import net.risenphoenix.ipcheck.objects.UserObject;
+import net.risenphoenix.ipcheck.events.OnlineAlts;
+import net.risenphoenix.ipcheck.util.ChatBuffer;
 import net.risenphoenix.ipcheck.util.ListFormatter;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
@@ -56,84 +56,62 @@ public class CmdScan extends Command {
 
         setName(this.getLocalString("CMD_SCAN"));
         setHelp(this.getLocalString("HELP_SCAN"));
-        setSyntax("ipc scan");
+        setSyntax("ipc scan [online]");
         setPermissions(new Permission[]{new Permission("ipcheck.use"),
                 new Permission("ipcheck.scan")});
     }
 
     @Override
     public void onExecute(CommandSender sender, String[] args) {
-        // Method Variables
-        Player[] online = ipc.getOnlinePlayers();
-        ArrayList<Player> detected = new ArrayList<Player>();
-
-        // Loop through online players
-        for (Player p : online) {
-            // Create Store for Unique Accounts linked to this player
-            ArrayList<String> unique_names = new ArrayList<String>();
-
-            // Fetch User Object for this player
-            UserObject user = ipc.getDatabaseController()
-                    .getUserObject(p.getName());
-
-            // If no IPs were found for this user, skip them and continue
-            if (user.getNumberOfIPs() == 0) continue;
-
-            // Fetch IP Objects from User Object
-            ArrayList<IPObject> ipos = new ArrayList<IPObject>();
+        OnlineAlts index = ipc.getOnlineAlts();
+        ArrayList<String> detected = new ArrayList<String>();
+        String title;
+
+        if (args.length > 1) {
+            if (!args[1].equalsIgnoreCase("online")) {
+                this.sendPlayerMessage(sender, String.format(
+                        this.getLocalString("SCAN_BAD_MODE"), args[1]));
+                return;
+            }
 
-            for (String ip : user.getIPs()) {
-                ipos.add(ipc.getDatabaseController().getIPObject(ip));
+            // Linked accounts that are online at the same time
+            for (Player[] pair : index.getPairsOnline()) {
+                detected.add(pair[0].getName() + " & " + pair[1].getName());
             }
 
-            // Get Unique Accounts from IP Objects
-            for (IPObject ipo : ipos) {
-
-                /* If IP only has one linked user and that user is the name of
-                 * the player we're currently checking, skip it. */
-                if (ipo.getNumberOfUsers() == 1) {
-                    if (ipo.getUsers().contains(p.getName()
-                            .toLowerCase())) continue;
-                }
-
-                // Log Unique Account Names to the Storage ArrayList
-                for (String s : ipo.getUsers()) {
-                    if (!s.equalsIgnoreCase(p.getName())) {
-                        if (!unique_names.contains(s.toLowerCase())) {
-                            unique_names.add(s.toLowerCase());
-                        }
-                    }
-                }
+            title = "SCAN_TOGETHER_TITLE";
+        } else {
+            // Online players with any linked accounts
+            for (Player p : index.getPlayersWithAlts()) {
+                detected.add(p.getName());
             }
 
-            /* If multiple accounts were found for the user, add them to the
-             * detection queue */
-            if (unique_names.size() > 0) detected.add(p);
+            title = "SCAN_TITLE";
         }
 
         // Output Results to Sender
         if (detected.size() > 0) {
-            // Convert ArrayList to type String for use with ListFormatter
-            ArrayList<String> convert = new ArrayList<String>();
-            for (Player p : detected) convert.add(p.getName());
-
             // Output Header
-            this.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
+            this.sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
             this.sendPlayerMessage(sender, ChatColor.RED +
-                    this.getLocalString("SCAN_TITLE"));
-            this.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
-
-            // Fetch Formatted List
-            StringBuilder list = new ListFormatter(convert).getFormattedList();
+                    this.getLocalString(title));
+            this.sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
 
             // Display Results
-            this.sendPlayerMessage(sender, list.toString(), false);
-            this.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
+            this.sendPlayerMessage(sender, new ListFormatter(detected)
+                    .getFormattedList().toString(), false);
+            this.sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
         } else {
-            this.sendPlayerMessage(sender, this.getLocalString("SCAN_CLEAN"));
+            this.sendPlayerMessage(sender, this.getLocalString(
+                    (args.length > 1) ? "SCAN_TOGETHER_CLEAN" : "SCAN_CLEAN"));
+        }
+
+        // Players who joined a moment ago may not be indexed yet
+        int pending = index.getPending();
+
+        if (pending > 0) {
+            this.sendPlayerMessage(sender, String.format(
+                    this.getLocalString("SCAN_PENDING"), pending));
         }
     }
 }
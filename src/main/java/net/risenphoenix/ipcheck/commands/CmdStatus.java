@@ -34,13 +34,21 @@ import net.risenphoenix.commons.Plugin;
 import net.risenphoenix.commons.commands.Command;
 import net.risenphoenix.commons.commands.CommandType;
 import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.events.AdmissionController;
+import net.risenphoenix.ipcheck.events.PlayerLoginListener;
+import net.risenphoenix.ipcheck.events.login.LoginStage;
 import net.risenphoenix.ipcheck.objects.StatsObject;
+import net.risenphoenix.ipcheck.util.ChatBuffer;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.permissions.Permission;
 
 public class CmdStatus extends Command {
 
+    private static final String IS_TRUE = ChatColor.GREEN + "True";
+    private static final String IS_FALSE = ChatColor.RED + "False";
+
     public CmdStatus(final Plugin plugin, String[] callArgs, CommandType type) {
         super(plugin, callArgs, type);
 
@@ -56,123 +64,158 @@ public class CmdStatus extends Command {
         StatsObject stats = IPCheck.getInstance().getStatisticsObject();
 
         // Border
-        getPlugin().sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+        sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
 
         sendPlayerMessage(sender, getLocalString("STATS_HEADER"));
 
         // Border
-        getPlugin().sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+        sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
 
         // IPC Ver.
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_PVER") + ChatColor.YELLOW +
-                stats.getPluginVersion(), false);
-
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_LVER") + ChatColor.YELLOW +
-                stats.getLibraryVersion().get("VERSION"), false);
-
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_DB_TYPE") + ChatColor.YELLOW +
-                stats.getDatabaseType(), false);
-
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_JVER") + ChatColor.YELLOW +
-                stats.getJavaVersion(), false);
-
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_OS") + ChatColor.YELLOW +
-                stats.getOperatingSystem(), false);
-
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_OS_ARCH") + ChatColor.YELLOW +
-                stats.getOperatingSystemArch(), false);
+        send(sender, stat("STATS_PVER").append(stats.getPluginVersion()));
+        send(sender, stat("STATS_LVER").append(stats.getLibraryVersion()
+                .get("VERSION")));
+        send(sender, stat("STATS_DB_TYPE").append(stats.getDatabaseType()));
+        send(sender, stat("STATS_JVER").append(stats.getJavaVersion()));
+        send(sender, stat("STATS_OS").append(stats.getOperatingSystem()));
+        send(sender, stat("STATS_OS_ARCH").append(
+                stats.getOperatingSystemArch()));
 
         // Border
-        getPlugin().sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+        sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
 
         if (args.length == 2) {
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_PLOG") + ChatColor.YELLOW +
-                    stats.getPlayersLogged(), false);
-
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_ILOG") + ChatColor.YELLOW +
-                    stats.getIPsLogged(), false);
+            send(sender, stat("STATS_PLOG").append(stats.getPlayersLogged()));
+            send(sender, stat("STATS_ILOG").append(stats.getIPsLogged()));
+            send(sender, stat("STATS_PEXM").append(stats.getPlayersExempt()));
+            send(sender, stat("STATS_IEXM").append(stats.getIPsExempt()));
+            send(sender, stat("STATS_RPEXM").append(
+                    stats.getPlayersRejoinExempt()));
+            send(sender, stat("STATS_RIEXM").append(
+                    stats.getIPsRejoinExempt()));
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_PEXM") + ChatColor.YELLOW +
-                    stats.getPlayersExempt(), false);
+            // Border
+            sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
+
+            send(sender, stat("STATS_PBAN").append(stats.getPlayersBanned()));
+            send(sender, stat("STATS_IBAN").append(stats.getIPsBanned()));
+            send(sender, stat("STATS_PLOGS").append(
+                    stats.getLogPlayerSession()));
+            send(sender, stat("STATS_PBANS").append(
+                    stats.getBannedPlayerSession()));
+            send(sender, stat("STATS_PUNBANS").append(
+                    stats.getUnbannedPlayerSession()));
+            send(sender, stat("STATS_WARNS").append(
+                    stats.getWarningIssuedSession()));
+            send(sender, stat("STATS_KICKS").append(
+                    stats.getKickIssuedSession()));
+
+            // All-Time Counters (persisted across restarts)
+            send(sender, stat("STATS_ALLTIME")
+                    .append(stats.getAllTime(StatsObject.JOINS)).append(" / ")
+                    .append(stats.getAllTime(StatsObject.WARNINGS))
+                    .append(" / ").append(stats.getAllTime(StatsObject.KICKS))
+                    .append(" / ").append(stats.getAllTime(StatsObject.BANS)));
+
+            // Admission Control Counters
+            AdmissionController admission = IPCheck.getInstance()
+                    .getAdmissionController();
+
+            if (admission != null) {
+                send(sender, stat("STATS_SHED").append(admission.getShedIP())
+                        .append(" / ").append(admission.getShedSubnet())
+                        .append(" / ").append(admission.getShedGlobal()));
+            }
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_IEXM") + ChatColor.YELLOW +
-                    stats.getIPsExempt(), false);
+            // Border
+            sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_RPEXM") + ChatColor.YELLOW +
-                    stats.getPlayersRejoinExempt(), false);
+            // Rolling Activity Windows
+            sendPlayerMessage(sender, label("STATS_RATES"), false);
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_RIEXM") + ChatColor.YELLOW +
-                    stats.getIPsRejoinExempt(), false);
+            sendRates(sender, getLocalString("STATS_RATE_JOINS"), stats,
+                    StatsObject.JOINS);
+            sendRates(sender, getLocalString("STATS_RATE_WARNS"), stats,
+                    StatsObject.WARNINGS);
+            sendRates(sender, getLocalString("STATS_RATE_KICKS"), stats,
+                    StatsObject.KICKS);
+            sendRates(sender, getLocalString("STATS_RATE_BANS"), stats,
+                    StatsObject.BANS);
 
             // Border
-            getPlugin().sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
-
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_PBAN") + ChatColor.YELLOW +
-                    stats.getPlayersBanned(), false);
+            sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_IBAN") + ChatColor.YELLOW +
-                    stats.getIPsBanned(), false);
+            // Login Check Stage Timings
+            PlayerLoginListener logins = IPCheck.getInstance()
+                    .getLoginListener();
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_PLOGS") + ChatColor.YELLOW +
-                    stats.getLogPlayerSession(), false);
+            if (logins != null && logins.getTotalTiming().getCount() > 0) {
+                sendPlayerMessage(sender, label("STATS_STAGES"), false);
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_PBANS") + ChatColor.YELLOW +
-                    stats.getBannedPlayerSession(), false);
+                for (LoginStage stage : logins.getStages()) {
+                    sendTiming(sender, stage.getName(),
+                            logins.getTiming(stage));
+                }
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_PUNBANS") + ChatColor.YELLOW +
-                    stats.getUnbannedPlayerSession(), false);
+                sendTiming(sender, getLocalString("STATS_STAGES_TOTAL"),
+                        logins.getTotalTiming());
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_WARNS") + ChatColor.YELLOW +
-                    stats.getWarningIssuedSession(), false);
+                // Border
+                sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
+            }
+        }
 
-            sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    getLocalString("STATS_KICKS") + ChatColor.YELLOW +
-                    stats.getKickIssuedSession(), false);
+        send(sender, stat("STATS_SECURE").append(
+                (stats.getSecureStatus()) ? IS_TRUE : IS_FALSE));
+        send(sender, stat("STATS_ACTIVE").append(
+                (stats.getActiveStatus()) ? IS_TRUE : IS_FALSE));
+        send(sender, stat("STATS_BLACKLIST").append(
+                (stats.getBlackListStatus()) ? IS_TRUE : IS_FALSE));
 
-            // Border
-            getPlugin().sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
-        }
+        // Border
+        sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
+    }
 
-        String isTrue = ChatColor.GREEN + "True",
-               isFalse = ChatColor.RED + "False";
+    // Pre-rendered label of a statistic
+    private String label(String key) {
+        return IPCheck.getInstance().getLocaleStore()
+                .getColored(ChatColor.LIGHT_PURPLE, key);
+    }
 
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_SECURE") + ChatColor.YELLOW +
-                ((stats.getSecureStatus()) ? isTrue : isFalse), false);
+    // Starts a statistic's line, ready for its value
+    private StringBuilder stat(String key) {
+        return ChatBuffer.get().append(label(key)).append(ChatColor.YELLOW);
+    }
 
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_ACTIVE") + ChatColor.YELLOW +
-                ((stats.getActiveStatus()) ? isTrue : isFalse), false);
+    private void send(CommandSender sender, StringBuilder line) {
+        sendPlayerMessage(sender, line.toString(), false);
+    }
 
-        sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                getLocalString("STATS_BLACKLIST") + ChatColor.YELLOW +
-                ((stats.getBlackListStatus()) ? isTrue : isFalse), false);
+    private void sendRates(CommandSender sender, String name,
+                           StatsObject stats, String counter) {
+        send(sender, ChatBuffer.get().append(ChatColor.GRAY).append("  ")
+                .append(name).append(": ").append(ChatColor.YELLOW)
+                .append(stats.getWindow(counter, 1))
+                .append(ChatColor.GRAY).append(" / ").append(ChatColor.YELLOW)
+                .append(stats.getWindow(counter, 5))
+                .append(ChatColor.GRAY).append(" / ").append(ChatColor.YELLOW)
+                .append(stats.getWindow(counter, 60))
+                .append(ChatColor.GRAY).append(" / ").append(ChatColor.YELLOW)
+                .append(stats.getWindow(counter, 1440)));
+    }
 
-        // Border
-        getPlugin().sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+    private void sendTiming(CommandSender sender, String name,
+                            LatencyHistogram timing) {
+        if (timing.getCount() == 0) return;
+
+        send(sender, ChatBuffer.get().append(ChatColor.GRAY).append("  ")
+                .append(name).append(": ").append(ChatColor.YELLOW)
+                .append(timing.getCount()).append(ChatColor.GRAY)
+                .append(" x, ").append(ChatColor.YELLOW)
+                .append(LatencyHistogram.format(timing.getPercentile(50)))
+                .append(ChatColor.GRAY).append(" / ").append(ChatColor.YELLOW)
+                .append(LatencyHistogram.format(timing.getPercentile(99)))
+                .append(ChatColor.GRAY).append(" / ").append(ChatColor.YELLOW)
+                .append(LatencyHistogram.format(timing.getMax())));
     }
 }
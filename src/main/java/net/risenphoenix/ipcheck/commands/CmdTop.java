@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.commands;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.commands.Command;
+import net.risenphoenix.commons.commands.CommandType;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.transfer.TopTask;
+import net.risenphoenix.ipcheck.objects.ClusterRanking;
+import org.bukkit.command.CommandSender;
+import org.bukkit.permissions.Permission;
+
+public class CmdTop extends Command {
+
+    private final boolean counted;
+
+    public CmdTop(final Plugin plugin, String[] callArgs, CommandType type,
+                  boolean counted) {
+        super(plugin, callArgs, type);
+
+        this.counted = counted;
+
+        if (counted) {
+            setName(getLocalString("CMD_TOP_COUNT"));
+            setHelp(getLocalString("HELP_TOP_COUNT"));
+            setSyntax("ipc top <clusters | ips | countries> <COUNT>");
+        } else {
+            setName(getLocalString("CMD_TOP"));
+            setHelp(getLocalString("HELP_TOP"));
+            setSyntax("ipc top [clusters | ips | countries]");
+        }
+
+        setPermissions(new Permission[]{new Permission("ipcheck.use"),
+                new Permission("ipcheck.top")});
+    }
+
+    @Override
+    public void onExecute(CommandSender sender, String[] args) {
+        IPCheck ipc = IPCheck.getInstance();
+        TopTask.Mode mode = TopTask.Mode.CLUSTERS;
+        int k = TopTask.DEFAULT_K;
+
+        if (args.length > 1) {
+            mode = TopTask.Mode.fromName(args[1]);
+
+            if (mode == null) {
+                sendPlayerMessage(sender, String.format(
+                        getLocalString("TOP_BAD_MODE"), args[1]));
+                return;
+            }
+        }
+
+        if (this.counted) {
+            try {
+                k = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                k = 0;
+            }
+
+            if (k < 1 || k > TopTask.MAX_K) {
+                sendPlayerMessage(sender, String.format(
+                        getLocalString("TOP_BAD_COUNT"), args[2],
+                        TopTask.MAX_K));
+                return;
+            }
+        }
+
+        if (mode == TopTask.Mode.CLUSTERS) {
+            ClusterRanking ranking = ipc.getClusterRanking();
+            long maxAge = ipc.getConfigurationManager().getInteger(
+                    "top-cache-minutes") * 60000L;
+
+            // A recent ranking is shown again without reading the log
+            if (ranking != null && ranking.getAge() < maxAge) {
+                for (String line : TopTask.renderClusters(ipc, ranking, k)) {
+                    sendPlayerMessage(sender, line, false);
+                }
+
+                return;
+            }
+        } else if (mode == TopTask.Mode.COUNTRIES &&
+                !ipc.getBlockManager().getStatus()) {
+            sendPlayerMessage(sender, getLocalString("TOP_NO_GEOIP"));
+            return;
+        }
+
+        if (!new TopTask(ipc, sender, mode, k).start()) {
+            sendPlayerMessage(sender, getLocalString("TRANSFER_RUNNING"));
+        }
+    }
+}
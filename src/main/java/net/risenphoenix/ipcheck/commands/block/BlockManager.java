@@ -32,11 +32,15 @@ package net.risenphoenix.ipcheck.commands.block;
 
 import com.maxmind.geoip.LookupService;
 import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.FlightEvents;
 
 import java.util.List;
 
 public class BlockManager {
 
+    // Name GeoIP gives private, LAN and unmapped addresses
+    public static final String UNKNOWN_COUNTRY = "N/A";
+
     private boolean isEnabled = false;
 
     private IPCheck ipc;
@@ -58,14 +62,22 @@ public class BlockManager {
     public String getCountry(String ip) {
         if (!isEnabled) return null;
         if (ls != null) {
-            return ls.getCountry(ip).getName();
+            Object event = FlightEvents.get().beginGeoIPLookup(ip);
+            String name = ls.getCountry(ip).getName();
+            FlightEvents.get().endGeoIPLookup(event, name);
+
+            return name;
         } else { return null; }
     }
 
     public String getCountryID(String ip) {
         if (!isEnabled) return null;
         if (ls != null) {
-            return ls.getCountry(ip).getCode();
+            Object event = FlightEvents.get().beginGeoIPLookup(ip);
+            String code = ls.getCountry(ip).getCode();
+            FlightEvents.get().endGeoIPLookup(event, code);
+
+            return code;
         } else { return null; }
     }
 
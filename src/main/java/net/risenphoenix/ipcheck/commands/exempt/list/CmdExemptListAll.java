@@ -31,18 +31,16 @@
 package net.risenphoenix.ipcheck.commands.exempt.list;
 
 import net.risenphoenix.commons.Plugin;
-import net.risenphoenix.commons.commands.Command;
 import net.risenphoenix.commons.commands.CommandType;
 import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.commands.CmdRecordList;
 import net.risenphoenix.ipcheck.database.DatabaseController;
-import net.risenphoenix.ipcheck.util.ListFormatter;
+import net.risenphoenix.ipcheck.database.RecordList;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.permissions.Permission;
 
-import java.util.ArrayList;
-
-public class CmdExemptListAll extends Command {
+public class CmdExemptListAll extends CmdRecordList {
 
     public CmdExemptListAll(final Plugin plugin, String[] callArgs,
                             CommandType type) {
@@ -64,61 +62,46 @@ public class CmdExemptListAll extends Command {
     }
 
     /* Command Instructions moved from onExecute to allow access by the other
-     * exempt-list commands, so as to minimize the size of the code base. */
+     * exempt-list commands, so as to minimize the size of the code base.
+     * The lists of IPs and players are sent a page at a time; without a
+     * list type, the first page of each is shown. */
     public void executeList(CommandSender sender, String[] args,
                             ListType type) {
-        // Fetch Database Controller from IPCheck Instance
-        DatabaseController db = IPCheck.getInstance().getDatabaseController();
-
-        // Fetch ArrayList of Exemptions
-        ArrayList<String> ipExempt = db.getIPExemptList();
-        ArrayList<String> userExempt = db.getPlayerExemptList();
-
-        // Fetch Formatted List for IP Exemptions
-        StringBuilder ip_list = new ListFormatter(ipExempt).getFormattedList();
-
-        // Fetch Formatted List for Player Exemptions
-        StringBuilder user_list = new ListFormatter(userExempt)
-                .getFormattedList();
+        // Page Number, following the list type
+        int page = (type.equals(ListType.ALL)) ? 1 : getPage(sender, args, 2);
+        if (page < 0) return;
 
         // Output List
-        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+        sendPlayerMessage(sender, SEPARATOR, false);
 
-        // IP Exemptions Tally
+        // IP Exemptions
         if (type.equals(ListType.ALL) || type.equals(ListType.IP)) {
-            sendPlayerMessage(sender, ChatColor.GOLD +
-                    getLocalString("EXEMPT_LIST_IP") + " " + ChatColor.RED +
-                    ipExempt.size(), false);
-
-            sendPlayerMessage(sender, ip_list.toString(), false);
+            showPage(sender, RecordList.EXEMPT_IP, page, "ipc exempt-list ip");
         }
 
         if (type.equals(ListType.ALL)) {
-            sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
+            sendPlayerMessage(sender, SEPARATOR, false);
         }
 
-        // Player Exemptions Tally
+        // Player Exemptions
         if (type.equals(ListType.ALL) || type.equals(ListType.PLAYER)) {
-            sendPlayerMessage(sender, ChatColor.GOLD +
-                    getLocalString("EXEMPT_LIST_PLAYER") + " " + ChatColor.RED +
-                    userExempt.size(), false);
-
-            sendPlayerMessage(sender, user_list.toString(), false);
+            showPage(sender, RecordList.EXEMPT_PLAYER, page,
+                    "ipc exempt-list player");
         }
 
-        sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+        sendPlayerMessage(sender, SEPARATOR, false);
 
         if (type.equals(ListType.ALL)) {
+            DatabaseController db = IPCheck.getInstance()
+                    .getDatabaseController();
+
             // Total Exemptions Tally
             sendPlayerMessage(sender, ChatColor.GOLD +
                     getLocalString("EXEMPT_LIST_TALLY") + " " + ChatColor.RED +
-                    (ipExempt.size() + userExempt.size()), false);
+                    (db.countRecords(RecordList.EXEMPT_IP) +
+                            db.countRecords(RecordList.EXEMPT_PLAYER)), false);
 
-            sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
+            sendPlayerMessage(sender, SEPARATOR, false);
         }
     }
 
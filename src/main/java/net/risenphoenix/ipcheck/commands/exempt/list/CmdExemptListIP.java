@@ -44,7 +44,7 @@ public class CmdExemptListIP extends Command {
 
         setName(getLocalString("CMD_EXEMPT_LIST_IP"));
         setHelp(getLocalString("HELP_EXEMPT_LIST_IP"));
-        setSyntax("ipc exempt-list ip");
+        setSyntax("ipc exempt-list ip [PAGE]");
         setPermissions(new Permission[]{
                 new Permission("ipcheck.use"),
                 new Permission("ipcheck.list"),
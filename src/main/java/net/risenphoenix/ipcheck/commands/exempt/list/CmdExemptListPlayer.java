@@ -44,7 +44,7 @@ public class CmdExemptListPlayer extends Command {
 
         setName(getLocalString("CMD_EXEMPT_LIST_PLAYER"));
         setHelp(getLocalString("HELP_EXEMPT_LIST_PLAYER"));
-        setSyntax("ipc exempt-list player");
+        setSyntax("ipc exempt-list player [PAGE]");
         setPermissions(new Permission[]{
                 new Permission("ipcheck.use"),
                 new Permission("ipcheck.list"),
@@ -31,20 +31,44 @@
 package net.risenphoenix.ipcheck.database;
 
 import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.commons.configuration.ConfigurationManager;
 import net.risenphoenix.commons.database.DatabaseManager;
 import net.risenphoenix.commons.database.QueryFilter;
 import net.risenphoenix.commons.database.StatementObject;
+import net.risenphoenix.ipcheck.events.RejoinCache;
 import net.risenphoenix.ipcheck.objects.IPObject;
+import net.risenphoenix.ipcheck.objects.ReportCache;
+import net.risenphoenix.ipcheck.objects.ReportModel;
 import net.risenphoenix.ipcheck.objects.UserObject;
+import net.risenphoenix.ipcheck.util.FlightEvents;
+import net.risenphoenix.ipcheck.util.TimeCalculator;
 import org.bukkit.Bukkit;
 
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.UUID;
 
 public class DatabaseController extends DatabaseManager {
 
+    // Cached rejoin verdicts, invalidated whenever ban state changes
+    private RejoinCache rejoinCache = null;
+
+    // Cached reports, invalidated whenever the records they show change
+    private ReportCache reportCache = null;
+
+    // Per-statement latency tracking
+    private final QueryProfiler profiler = new QueryProfiler(this.getPlugin());
+
     // SQ-Lite Initializer
     public DatabaseController(final Plugin plugin) {
         super(plugin, "ip-check");
@@ -52,7 +76,13 @@ public class DatabaseController extends DatabaseManager {
         // Enable Debugging to allow us to view the dynamic SQL queries
         //this.enableDebug(true);
         this.dropTables(); // Attempt Table Drop
+
+        // Lets the log retention job release freed pages a few at a time;
+        // only takes effect on databases created from here on
+        this.update("PRAGMA auto_vacuum = INCREMENTAL");
+
         this.initializeSQLiteTables();
+        this.enableWriteAheadLog();
     }
 
     // MySQL Initializer
@@ -73,11 +103,13 @@ public class DatabaseController extends DatabaseManager {
             String SQL_0 = "DROP TABLE IF EXISTS ipcheck_log;";
             String SQL_1 = "DROP TABLE IF EXISTS ipcheck_user;";
             String SQL_2 = "DROP TABLE IF EXISTS ipcheck_ip;";
+            String SQL_3 = "DROP TABLE IF EXISTS ipcheck_stats;";
 
             // Execute SQL
-            executeStatement(new StatementObject(getPlugin(), SQL_0));
-            executeStatement(new StatementObject(getPlugin(), SQL_1));
-            executeStatement(new StatementObject(getPlugin(), SQL_2));
+            this.update(SQL_0);
+            this.update(SQL_1);
+            this.update(SQL_2);
+            this.update(SQL_3);
 
             // Save Configuration Option
             getPlugin().getConfigurationManager()
@@ -112,14 +144,48 @@ public class DatabaseController extends DatabaseManager {
                 "rejoinexempt INTEGER DEFAULT 0," +
                 "PRIMARY KEY(ip));";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                TABLE_IPC_IP));
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                TABLE_IPC_LOG));
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                TABLE_IPC_USER));
+        String TABLE_IPC_STATS = "CREATE TABLE IF NOT EXISTS ipcheck_stats ( " +
+                "stat TEXT," +
+                "value INTEGER DEFAULT 0," +
+                "PRIMARY KEY(stat));";
+
+        this.update(TABLE_IPC_IP);
+        this.update(TABLE_IPC_LOG);
+        this.update(TABLE_IPC_USER);
+        this.update(TABLE_IPC_STATS);
+
+        // Lets reports find the other accounts seen on an IP without
+        // scanning the log, whose primary key leads with the username
+        this.update("CREATE INDEX IF NOT EXISTS ipcheck_log_ip ON " +
+                "ipcheck_log (ip);");
 
         executeColumnUpdate();
+
+        // Partial indexes holding only the flagged records, so that record
+        // lists are counted and paged without scanning their tables
+        for (RecordList list : RecordList.values()) {
+            this.update("CREATE INDEX IF NOT EXISTS " + list.getIndex() +
+                    " ON " + list.getTable() + " (" + list.getKey() +
+                    ") WHERE " + list.getFlag() + " = 1;");
+        }
+    }
+
+    // In WAL mode, readers on other connections (backups, exports) no longer
+    // block the server's writes. The mode is stored in the database file.
+    private void enableWriteAheadLog() {
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                try {
+                    return res.next() ? res.getString(1) : null;
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                    return null;
+                }
+            }
+        };
+
+        this.query("PRAGMA journal_mode = WAL", filter);
     }
 
     // Initialize Tables for MySQL
@@ -152,14 +218,60 @@ public class DatabaseController extends DatabaseManager {
                 "PRIMARY KEY (ip)" +
                 ");";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                TABLE_IPC_IP));
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                TABLE_IPC_LOG));
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                TABLE_IPC_USER));
+        String TABLE_IPC_STATS = "CREATE TABLE IF NOT EXISTS ipcheck_stats ( " +
+                "stat varchar(64) NOT NULL," +
+                "value bigint NOT NULL DEFAULT 0," +
+                "PRIMARY KEY (stat)" +
+                ");";
+
+        this.update(TABLE_IPC_IP);
+        this.update(TABLE_IPC_LOG);
+        this.update(TABLE_IPC_USER);
+        this.update(TABLE_IPC_STATS);
+
+        // Lets reports and the online alt index find a player's log records
+        // without scanning the log, whose primary key leads with the IP.
+        // MySQL has no CREATE INDEX IF NOT EXISTS.
+        if (!this.hasMySQLIndex("ipcheck_log", "ipcheck_log_username")) {
+            this.update("CREATE INDEX ipcheck_log_username ON " +
+                    "ipcheck_log (username);");
+        }
 
         executeColumnUpdate();
+
+        // Lets record lists be counted and paged without scanning their
+        // tables (MySQL has no partial indexes)
+        for (RecordList list : RecordList.values()) {
+            if (this.hasMySQLIndex(list.getTable(), list.getIndex())) {
+                continue;
+            }
+
+            this.update("CREATE INDEX " + list.getIndex() + " ON " +
+                    list.getTable() + " (" + list.getFlag() + ", " +
+                    list.getKey() + ");");
+        }
+    }
+
+    private boolean hasMySQLIndex(String table, String index) {
+        String SQL = "select count(*) from information_schema.statistics " +
+                "where table_schema = database() and table_name = ? and " +
+                "index_name = ?";
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                try {
+                    if (res.next()) return res.getInt(1);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return 0;
+            }
+        };
+
+        Object count = this.query(SQL, filter, table, index);
+        return count != null && (Integer) count > 0;
     }
 
     public final void log(String player, String ip) {
@@ -167,8 +279,11 @@ public class DatabaseController extends DatabaseManager {
         this.addPlayer(player);
 
         String SQL = "replace into ipcheck_log (ip,username) VALUES (?, ?)";
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip, player.toLowerCase()}));
+        this.update(SQL, ip, player.toLowerCase());
+
+        // The player now shows up in every report listing the IP's accounts
+        this.invalidateReport(player.toLowerCase());
+        if (this.reportCache != null) this.reportCache.invalidateLinks(ip);
     }
 
     public final void log(UUID uuid, String player, String ip) {
@@ -178,21 +293,16 @@ public class DatabaseController extends DatabaseManager {
     }
 
     public final void addIP(String ip) {
-        String SQL = "insert " + ((this.getPlugin().getConfigurationManager()
-                .getBoolean("use-mysql")) ? "" : "or ") + "ignore into " +
-                "ipcheck_ip (ip) values (?)";
+        String SQL = this.insertIgnore() + " into ipcheck_ip (ip) values (?)";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}));
+        this.update(SQL, ip);
     }
 
     public final void addPlayer(String player) {
-        String SQL = "insert " + ((this.getPlugin().getConfigurationManager()
-                .getBoolean("use-mysql")) ? "" : "or ") + "ignore into " +
-                "ipcheck_user (username) values (?)";
+        String SQL = this.insertIgnore() + " into ipcheck_user (username) " +
+                "values (?)";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}));
+        this.update(SQL, player.toLowerCase());
     }
 
     public final void addUUID(UUID uuid) {
@@ -201,8 +311,12 @@ public class DatabaseController extends DatabaseManager {
         String SQL = "update ipcheck_user set uuid=? " +
                 "where lower(username) = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{uuid.toString(), player.toLowerCase()}));
+        this.update(SQL, uuid.toString(), player.toLowerCase());
+
+        this.invalidateReport(player.toLowerCase());
+        if (this.reportCache != null) {
+            this.reportCache.invalidateUUID(uuid.toString());
+        }
     }
 
     public final UUID getUUID(String player) {
@@ -229,21 +343,179 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (UUID) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (UUID) this.query(SQL, filter, player.toLowerCase());
+    }
+
+    /* Instrumented Statement Execution */
+
+    private void update(String sql, Object... values) {
+        StatementObject stmt = (values.length == 0) ?
+                new StatementObject(this.getPlugin(), sql) :
+                new StatementObject(this.getPlugin(), sql, values);
+
+        Object event = FlightEvents.get().beginDatabaseCall(sql,
+                values.length);
+        long start = System.nanoTime();
+
+        try {
+            this.executeStatement(stmt);
+        } finally {
+            this.profiler.record(sql, values.length, System.nanoTime() - start);
+            FlightEvents.get().endDatabaseCall(event, -1);
+        }
+    }
+
+    private Object query(String sql, QueryFilter filter, Object... values) {
+        StatementObject stmt = (values.length == 0) ?
+                new StatementObject(this.getPlugin(), sql) :
+                new StatementObject(this.getPlugin(), sql, values);
+
+        Object event = FlightEvents.get().beginDatabaseCall(sql,
+                values.length);
+        long start = System.nanoTime();
+        Object result = null;
+
+        try {
+            result = this.executeQuery(stmt, filter);
+            return result;
+        } finally {
+            this.profiler.record(sql, values.length, System.nanoTime() - start);
+
+            int rows = (result instanceof Collection) ?
+                    ((Collection<?>) result).size() : (result != null) ? 1 : 0;
+            FlightEvents.get().endDatabaseCall(event, rows);
+        }
+    }
+
+    public final QueryProfiler getProfiler() {
+        return this.profiler;
+    }
+
+    /* Dedicated Connections */
+
+    // Opens a separate JDBC connection to the same database, for bulk work
+    // done off the main thread (imports, exports). The caller must close it.
+    public final Connection openConnection() throws SQLException {
+        ConfigurationManager config = getPlugin().getConfigurationManager();
+        boolean mysql = config.getBoolean("use-mysql");
+
+        try {
+            Class.forName(mysql ? "com.mysql.jdbc.Driver" : "org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver not available", e);
+        }
+
+        if (mysql) {
+            return DriverManager.getConnection("jdbc:mysql://" +
+                    config.getString("dbHostname") + ":" +
+                    config.getInteger("dbPort") + "/" +
+                    config.getString("dbName") +
+                    "?rewriteBatchedStatements=true",
+                    config.getString("dbUsername"),
+                    config.getString("dbPassword"));
+        }
+
+        Connection c = DriverManager.getConnection("jdbc:sqlite:" +
+                new File(getPlugin().getDataFolder(), "ip-check.db")
+                        .getAbsolutePath());
+
+        // Wait for the main connection rather than failing outright
+        try (Statement s = c.createStatement()) {
+            s.execute("PRAGMA busy_timeout = 10000");
+        }
+
+        return c;
+    }
+
+    // "insert or ignore" (SQLite) or "insert ignore" (MySQL)
+    public final String insertIgnore() {
+        return "insert " + ((this.getPlugin().getConfigurationManager()
+                .getBoolean("use-mysql")) ? "" : "or ") + "ignore";
+    }
+
+    /* Statistics Methods */
+
+    public final Map<String, Long> getStatistics() {
+        String SQL = "select stat, value from ipcheck_stats";
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                Map<String, Long> stats = new HashMap<>();
+
+                try {
+                    while (res.next()) {
+                        stats.put(res.getString("stat"), res.getLong("value"));
+                    }
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return stats;
+            }
+        };
+
+        Map<String, Long> stats = (Map<String, Long>) this.query(SQL, filter);
+
+        return (stats == null) ? new HashMap<String, Long>() : stats;
+    }
+
+    public final void saveStatistic(String stat, long value) {
+        String SQL = "replace into ipcheck_stats (stat, value) values (?, ?)";
+
+        this.update(SQL, stat, value);
+    }
+
+    /* Rejoin Cache Invalidation */
+
+    public final void setRejoinCache(RejoinCache cache) {
+        this.rejoinCache = cache;
+    }
+
+    public final void setReportCache(ReportCache cache) {
+        this.reportCache = cache;
+    }
+
+    private void invalidatePlayer(String player) {
+        if (this.rejoinCache != null) {
+            this.rejoinCache.invalidatePlayer(player);
+        }
+
+        this.invalidateReport(player.toLowerCase());
+    }
+
+    private void invalidateIP(String ip) {
+        if (this.rejoinCache != null) this.rejoinCache.invalidateIP(ip);
+
+        this.invalidateReport(ip);
+    }
+
+    private void invalidateReport(String subject) {
+        if (this.reportCache != null) this.reportCache.invalidate(subject);
+    }
+
+    private void invalidateAll() {
+        if (this.rejoinCache != null) this.rejoinCache.clear();
+        if (this.reportCache != null) this.reportCache.clear();
     }
 
     /* Player Methods */
 
     public final void purgePlayer(String player) {
-        String STMT_1 = "delete from ipcheck_user where lower(username) = ?";
-        String STMT_2 = "delete from ipcheck_log where lower(username) = ?";
+        // Names are stored lower case; matching them as they are lets the
+        // primary key find the rows
+        String STMT_1 = "delete from ipcheck_user where username = ?";
+        String STMT_2 = "delete from ipcheck_log where username = ?";
+
+        this.update(STMT_1, player.toLowerCase());
+
+        this.update(STMT_2, player.toLowerCase());
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                STMT_1, new Object[]{player.toLowerCase()}));
+        this.invalidatePlayer(player);
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                STMT_2, new Object[]{player.toLowerCase()}));
+        // Reports listing the player are found through its IPs, which are
+        // gone now
+        if (this.reportCache != null) this.reportCache.clear();
     }
 
     // Exemption Methods
@@ -252,16 +524,18 @@ public class DatabaseController extends DatabaseManager {
         String SQL = "update ipcheck_user set exempted=1 where " +
                 "lower(username) = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}));
+        this.update(SQL, player.toLowerCase());
+
+        this.invalidateReport(player.toLowerCase());
     }
 
     public final void unexemptPlayer(String player) {
         String SQL = "update ipcheck_user set exempted=0 where " +
                 "lower(username) = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}));
+        this.update(SQL, player.toLowerCase());
+
+        this.invalidateReport(player.toLowerCase());
     }
 
     public final boolean isExemptPlayer(String player) {
@@ -286,8 +560,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (Boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (Boolean) this.query(SQL, filter, player.toLowerCase());
     }
 
     public ArrayList<String> getPlayerExemptList() {
@@ -310,8 +583,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<String>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<String>) this.query(SQL, filter);
     }
 
     // Ban Methods
@@ -320,8 +592,9 @@ public class DatabaseController extends DatabaseManager {
         String SQL = "update ipcheck_user set banned=1, banmessage = ? where " +
                 "lower(username) = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{message, player.toLowerCase()}));
+        this.update(SQL, message, player.toLowerCase());
+
+        this.invalidatePlayer(player);
     }
 
     public final void batchBanPlayers(String list, String msg, Boolean ban) {
@@ -330,16 +603,18 @@ public class DatabaseController extends DatabaseManager {
 
         int bit = (ban) ? 1 : 0;
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{bit, msg}));
+        this.update(SQL, bit, msg);
+
+        this.invalidateAll();
     }
 
     public final void unbanPlayer(String player) {
         String SQL = "update ipcheck_user set banned = 0 where " +
                 "lower(username) = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}));
+        this.update(SQL, player.toLowerCase());
+
+        this.invalidatePlayer(player);
     }
 
     public final boolean isBannedPlayer(String player) {
@@ -365,8 +640,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (Boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (Boolean) this.query(SQL, filter, player.toLowerCase());
     }
 
     public final boolean isValidPlayer(String player) {
@@ -386,8 +660,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (Boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (Boolean) this.query(SQL, filter, player.toLowerCase());
     }
 
     public final String getBanMessage(String player) {
@@ -412,8 +685,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (String) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (String) this.query(SQL, filter, player.toLowerCase());
     }
 
     /* IP Methods */
@@ -422,25 +694,28 @@ public class DatabaseController extends DatabaseManager {
         String STMT_1 = "delete from ipcheck_ip where ip = ?";
         String STMT_2 = "delete from ipcheck_log where ip = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                STMT_1, new Object[]{ip}));
+        this.update(STMT_1, ip);
+
+        this.update(STMT_2, ip);
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                STMT_2, new Object[]{ip}));
+        this.invalidateIP(ip);
+        if (this.reportCache != null) this.reportCache.invalidateLinks(ip);
     }
 
     public final void exemptIP(String ip) {
         String SQL = "update ipcheck_ip set exempted = 1 where ip = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}));
+        this.update(SQL, ip);
+
+        this.invalidateReport(ip);
     }
 
     public final void unexemptIP(String ip) {
         String SQL = "update ipcheck_ip set exempted = 0 where ip = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}));
+        this.update(SQL, ip);
+
+        this.invalidateReport(ip);
     }
 
     public final boolean isExemptIP(String ip) {
@@ -464,8 +739,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (Boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}), filter);
+        return (Boolean) this.query(SQL, filter, ip);
     }
 
     public ArrayList<String> getIPExemptList() {
@@ -488,15 +762,15 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<String>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<String>) this.query(SQL, filter);
     }
 
     public final void banIP(String ip) {
         String SQL = "update ipcheck_ip set banned = 1 where ip = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}));
+        this.update(SQL, ip);
+
+        this.invalidateReport(ip);
     }
 
     public final void batchBanIPs(String list, boolean banning) {
@@ -505,15 +779,17 @@ public class DatabaseController extends DatabaseManager {
 
         int bit = (banning) ? 1 : 0;
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{bit}));
+        this.update(SQL, bit);
+
+        this.invalidateAll();
     }
 
     public final void unbanIP(String ip) {
         String SQL = "update ipcheck_ip set banned = 0 where ip = ?";
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}));
+        this.update(SQL, ip);
+
+        this.invalidateIP(ip);
     }
 
     public final boolean isBannedIP(String ip) {
@@ -538,8 +814,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (Boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}), filter);
+        return (Boolean) this.query(SQL, filter, ip);
     }
 
     /* Other Methods */
@@ -567,8 +842,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (IPObject) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL, new Object[]{ip}), filter);
+        return (IPObject) this.query(SQL, filter, ip);
     }
 
     public final UserObject getUserObject(String player) {
@@ -598,9 +872,8 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        ArrayList<String> ips = (ArrayList<String>) this.executeQuery(
-                new StatementObject(this.getPlugin(), SQL, new Object[]{
-                        player.toLowerCase()}), filter);
+        ArrayList<String> ips = (ArrayList<String>) this.query(SQL, filter,
+                player.toLowerCase());
 
         return new UserObject(player.toLowerCase(), uuid, ips, isBanned,
                 isExempt, isRejoin, isProtec);
@@ -628,8 +901,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<String>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL, new Object[]{uuid.toString()}), filter);
+        return (ArrayList<String>) this.query(SQL, filter, uuid.toString());
     }
 
     public final String getLastKnownIP(String player) {
@@ -651,8 +923,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (String) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (String) this.query(SQL, filter, player.toLowerCase());
     }
 
     public final boolean isValidIP(String ip) {
@@ -673,8 +944,7 @@ public class DatabaseController extends DatabaseManager {
 
         if (ip.equals("NO_FIND")) return false;
 
-        return (Boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}), filter);
+        return (Boolean) this.query(SQL, filter, ip);
     }
 
     public final String getLogTime(String player) {
@@ -696,8 +966,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (String) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (String) this.query(SQL, filter, player.toLowerCase());
     }
 
     public final String getLastTime(String player) {
@@ -719,8 +988,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (String) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (String) this.query(SQL, filter, player.toLowerCase());
     }
 
     public final String getCurrentTimeStamp() {
@@ -742,8 +1010,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (String) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL), filter);
+        return (String) this.query(SQL, filter);
     }
 
     public final ArrayList<UserObject> getPlayersByDate(String dateOne,
@@ -771,8 +1038,8 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<UserObject>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL, new Object[]{dateOne, dateTwo}), filter);
+        return (ArrayList<UserObject>) this.query(SQL, filter, dateOne,
+                dateTwo);
     }
 
     public final ArrayList<UserObject> fetchAllPlayers() {
@@ -798,8 +1065,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<UserObject>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<UserObject>) this.query(SQL, filter);
     }
 
     public final ArrayList<UserObject> fetchBannedPlayers() {
@@ -827,8 +1093,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<UserObject>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<UserObject>) this.query(SQL, filter);
     }
 
 
@@ -854,8 +1119,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<IPObject>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<IPObject>) this.query(SQL, filter);
     }
 
     public final ArrayList<IPObject> fetchBannedIPs() {
@@ -882,8 +1146,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (ArrayList<IPObject>) this.executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<IPObject>) this.query(SQL, filter);
     }
 
     public final void setRejoinExemptPlayer(String player, boolean exempt) {
@@ -891,8 +1154,9 @@ public class DatabaseController extends DatabaseManager {
                 "where username = ?";
         int value = (exempt) ? 1 : 0;
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{value, player.toLowerCase()}));
+        this.update(SQL, value, player.toLowerCase());
+
+        this.invalidatePlayer(player);
     }
 
     public final boolean isRejoinExemptPlayer(String player) {
@@ -915,16 +1179,16 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{player.toLowerCase()}), filter);
+        return (boolean) this.query(SQL, filter, player.toLowerCase());
     }
 
     public final void setRejoinExemptIP(String ip, boolean exempt) {
         String SQL = "update ipcheck_ip set rejoinexempt = ? where ip = ?";
         int value = (exempt) ? 1 : 0;
 
-        this.executeStatement(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{value, ip}));
+        this.update(SQL, value, ip);
+
+        this.invalidateIP(ip);
     }
 
     public final boolean isRejoinExemptIP(String ip) {
@@ -947,8 +1211,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (boolean) this.executeQuery(new StatementObject(this.getPlugin(),
-                SQL, new Object[]{ip}), filter);
+        return (boolean) this.query(SQL, filter, ip);
     }
 
     public final ArrayList<UserObject> fetchRejoinExemptPlayers() {
@@ -976,8 +1239,7 @@ public class DatabaseController extends DatabaseManager {
         };
 
         // Fetch Return Value
-        return (ArrayList<UserObject>) executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<UserObject>) this.query(SQL, filter);
     }
 
     public final ArrayList<IPObject> fetchRejoinExemptIPs() {
@@ -1005,24 +1267,220 @@ public class DatabaseController extends DatabaseManager {
         };
 
         // Fetch Return Value
-        return (ArrayList<IPObject>) executeQuery(new StatementObject(
-                this.getPlugin(), SQL), filter);
+        return (ArrayList<IPObject>) this.query(SQL, filter);
+    }
+
+    /* Reports */
+
+    /* Reads the player's report in one pass over a self-join of the log:
+     * every IP the player was seen on, most recent first, paired with each
+     * other account seen on it. Returns null if the player was never seen.
+     * The UUID look-up and the location are left to the caller. */
+    public final ReportModel getPlayerReport(final String player) {
+        String SQL = "select a.ip, a.timestamp, CURRENT_TIMESTAMP as " +
+                "time_now, b.username as alt, u.uuid, u.banned, u.exempted, " +
+                "u.rejoinexempt, u.protected, u.banmessage " +
+                "from ipcheck_log a " +
+                "left join ipcheck_user u on u.username = a.username " +
+                "left join ipcheck_log b on b.ip = a.ip and " +
+                "b.username <> a.username " +
+                "where a.username = ? order by a.timestamp desc, a.ip";
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                ReportModel report = null;
+
+                try {
+                    while (res.next()) {
+                        String ip = res.getString("ip");
+
+                        // The first row holds the most recent IP
+                        if (report == null) {
+                            report = new ReportModel(player, true);
+                            report.setLastIP(ip);
+                            report.setLastSeen(TimeCalculator.secondsBetween(
+                                    res.getString("timestamp"),
+                                    res.getString("time_now")));
+                            report.setUUID(res.getString("uuid"));
+                            report.setBanMessage(res.getString("banmessage"));
+                            report.setStatus(
+                                    "1".equals(res.getString("banned")),
+                                    "1".equals(res.getString("exempted")),
+                                    "1".equals(res.getString("rejoinexempt")),
+                                    "1".equals(res.getString("protected")));
+                        }
+
+                        String alt = res.getString("alt");
+                        report.addLink(ip, (alt != null) ?
+                                alt.toLowerCase() : null);
+                    }
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return report;
+            }
+        };
+
+        return (ReportModel) this.query(SQL, filter, player.toLowerCase());
+    }
+
+    /* Reads the IP's report: the accounts seen on it, and its flags.
+     * Returns null if the IP was never seen. */
+    public final ReportModel getIPReport(final String ip) {
+        String SQL = "select l.username, i.banned, i.exempted, " +
+                "i.rejoinexempt from ipcheck_log l " +
+                "left join ipcheck_ip i on i.ip = l.ip where l.ip = ?";
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                ReportModel report = null;
+
+                try {
+                    while (res.next()) {
+                        if (report == null) {
+                            report = new ReportModel(ip, false);
+                            report.setStatus(
+                                    "1".equals(res.getString("banned")),
+                                    "1".equals(res.getString("exempted")),
+                                    "1".equals(res.getString("rejoinexempt")),
+                                    false);
+                        }
+
+                        report.addUser(res.getString("username"));
+                    }
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return report;
+            }
+        };
+
+        return (ReportModel) this.query(SQL, filter, ip);
+    }
+
+    // Accounts seen on any of the player's IPs, in lower case. Read on the
+    // caller's own connection, as this runs off the main thread.
+    public final HashSet<String> getLinkedPlayers(Connection c, String player)
+            throws SQLException {
+        String SQL = "select distinct b.username from ipcheck_log a " +
+                "join ipcheck_log b on b.ip = a.ip and " +
+                "b.username <> a.username where a.username = ?";
+
+        HashSet<String> linked = new HashSet<>();
+
+        try (PreparedStatement s = c.prepareStatement(SQL)) {
+            s.setString(1, player.toLowerCase());
+
+            try (ResultSet res = s.executeQuery()) {
+                while (res.next()) {
+                    linked.add(res.getString(1).toLowerCase());
+                }
+            }
+        }
+
+        return linked;
+    }
+
+    /* Record Lists */
+
+    // One page of the list, in key order, starting after the given key (or
+    // at the start of the list if null). Walking the primary key from the
+    // last key shown costs the same for every page, where an offset would
+    // have to skip all of the pages before it.
+    public final ArrayList<String> getRecordPage(RecordList list,
+                                                 String after, int limit) {
+        String SQL = "select " + list.getKey() + " from " + list.getTable() +
+                " where " + list.getFlag() + " = 1" + ((after != null) ?
+                " and " + list.getKey() + " > ?" : "") + " order by " +
+                list.getKey() + " limit " + limit;
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                ArrayList<String> keys = new ArrayList<>();
+
+                try {
+                    while (res.next()) keys.add(res.getString(1));
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return keys;
+            }
+        };
+
+        return (ArrayList<String>) ((after != null) ?
+                this.query(SQL, filter, after) : this.query(SQL, filter));
+    }
+
+    // The key found the given number of entries after the given key (or
+    // the start of the list if null), or null if the list is shorter. Lets
+    // a page be reached without reading the pages before it.
+    public final String getRecordCursor(RecordList list, String after,
+                                        int skip) {
+        String SQL = "select " + list.getKey() + " from " + list.getTable() +
+                " where " + list.getFlag() + " = 1" + ((after != null) ?
+                " and " + list.getKey() + " > ?" : "") + " order by " +
+                list.getKey() + " limit 1 offset " + (skip - 1);
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                try {
+                    if (res.next()) return res.getString(1);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return null;
+            }
+        };
+
+        return (String) ((after != null) ? this.query(SQL, filter, after) :
+                this.query(SQL, filter));
+    }
+
+    public final int countRecords(RecordList list) {
+        String SQL = "select count(*) from " + list.getTable() + " where " +
+                list.getFlag() + " = 1";
+
+        QueryFilter filter = new QueryFilter() {
+            @Override
+            public Object onExecute(ResultSet res) {
+                try {
+                    if (res.next()) return res.getInt(1);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+
+                return 0;
+            }
+        };
+
+        Object count = this.query(SQL, filter);
+        return (count != null) ? (Integer) count : 0;
     }
 
     public final void protectPlayer(String player) {
         String SQL = "update ipcheck_user set protected=1 where " +
                 "lower(username) = ?";
 
-        executeStatement(new StatementObject(this.getPlugin(), SQL,
-                new Object[]{player.toLowerCase()}));
+        this.update(SQL, player.toLowerCase());
+
+        this.invalidateReport(player.toLowerCase());
     }
 
     public final void unprotectPlayer(String player) {
         String SQL = "update ipcheck_user set protected=0 where " +
                 "lower(username) = ?";
 
-        executeStatement(new StatementObject(this.getPlugin(), SQL,
-                new Object[]{player.toLowerCase()}));
+        this.update(SQL, player.toLowerCase());
+
+        this.invalidateReport(player.toLowerCase());
     }
 
     public final boolean isProtectedPlayer(String player) {
@@ -1045,8 +1503,7 @@ public class DatabaseController extends DatabaseManager {
             }
         };
 
-        return (boolean) executeQuery(new StatementObject(this.getPlugin(), SQL,
-                new Object[]{player.toLowerCase()}), filter);
+        return (boolean) this.query(SQL, filter, player.toLowerCase());
     }
 
     private void executeColumnUpdate() {
@@ -1084,8 +1541,7 @@ public class DatabaseController extends DatabaseManager {
             };
 
             // Fetch Boolean Array from Database
-            boolean[] res = (boolean[]) this.executeQuery(
-                    new StatementObject(this.getPlugin(), SQL_P), filter);
+            boolean[] res = (boolean[]) this.query(SQL_P, filter);
 
             hasRejoinPlayer = res[0];
             hasProtectedPlayer = res[1];
@@ -1112,40 +1568,35 @@ public class DatabaseController extends DatabaseManager {
             };
 
             // Fetch Boolean from Database
-            hasRejoinIP = (boolean) this.executeQuery(
-                    new StatementObject(this.getPlugin(), SQL_I), filter_two);
+            hasRejoinIP = (boolean) this.query(SQL_I, filter_two);
 
             // Execute Results
             if (!hasRejoinPlayer) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_user ADD COLUMN " +
                         "rejoinexempt INTEGER DEFAULT 0";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
             if (!hasProtectedPlayer) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_user ADD COLUMN " +
                         "protected INTEGER DEFAULT 0";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
             if (!hasUUID) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_user ADD COLUMN " +
                         "uuid TEXT";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
             if (!hasRejoinIP) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_ip ADD COLUMN " +
                         "rejoinexempt INTEGER DEFAULT 0";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
 
@@ -1178,8 +1629,7 @@ public class DatabaseController extends DatabaseManager {
             };
 
             // Fetch Boolean Array from Database
-            boolean[] res = (boolean[]) this.executeQuery(
-                    new StatementObject(this.getPlugin(), SQL_P), filter);
+            boolean[] res = (boolean[]) this.query(SQL_P, filter);
 
             hasRejoinPlayer = res[0];
             hasProtectedPlayer = res[1];
@@ -1208,40 +1658,35 @@ public class DatabaseController extends DatabaseManager {
             };
 
             // Fetch Boolean from Database
-            hasRejoinIP = (boolean) this.executeQuery(
-                    new StatementObject(this.getPlugin(), SQL_I), filter_two);
+            hasRejoinIP = (boolean) this.query(SQL_I, filter_two);
 
             // Execute Results
             if (!hasRejoinPlayer) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_user ADD COLUMN " +
                         "rejoinexempt bit(1) NOT NULL DEFAULT b'0'";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
             if (!hasProtectedPlayer) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_user ADD COLUMN " +
                         "protected bit(1) NOT NULL DEFAULT b'0'";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
             if (!hasUUID) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_user ADD COLUMN " +
                         "uuid varchar(255)";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
 
             if (!hasRejoinIP) {
                 String SQL_ZERO = "ALTER TABLE ipcheck_ip ADD COLUMN " +
                         "rejoinexempt bit(1) NOT NULL DEFAULT b'0'";
 
-                this.executeStatement(new StatementObject(this.getPlugin(),
-                        SQL_ZERO));
+                this.update(SQL_ZERO);
             }
         }
     }
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database;
+
+import net.risenphoenix.commons.Plugin;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+
+/* Records the latency of every statement executed by the DatabaseController,
+ * grouped by statement template (the SQL text with any inlined literals
+ * replaced by '?'). Statements slower than "slow-query-threshold" milliseconds
+ * are logged to the console along with the method that issued them. At most
+ * MAX_TEMPLATES templates are kept; statements past that are grouped under a
+ * single catch-all template. */
+public class QueryProfiler {
+
+    private static final Pattern OR_RUN =
+            Pattern.compile("(?: or [\\w().]+ ?= ?\\?)+");
+
+    // Lists of parameters, as in "in (?, ?, ?)"
+    private static final Pattern PARAM_LIST =
+            Pattern.compile("\\(\\?(?: ?, ?\\?)+\\)");
+
+    private static final int MAX_TEMPLATES = 512;
+    private static final int MAX_STATEMENTS = 4096;
+    private static final String OTHER = "(other statements)";
+
+    private Plugin plugin;
+    private final long slowThreshold;
+
+    private final ConcurrentHashMap<String, Template> templates =
+            new ConcurrentHashMap<>();
+
+    // The template of each statement seen, so that most statements are only
+    // normalized once
+    private final ConcurrentHashMap<String, Template> statements =
+            new ConcurrentHashMap<>();
+
+    public QueryProfiler(final Plugin plugin) {
+        this.plugin = plugin;
+        this.slowThreshold = Math.max(0, plugin.getConfigurationManager()
+                .getInteger("slow-query-threshold")) * 1000000L;
+    }
+
+    public void record(String sql, int params, long nanos) {
+        Template template = this.statements.get(sql);
+
+        if (template == null) {
+            template = this.getTemplate(normalize(sql));
+
+            // Past the limit, statements are normalized every time instead
+            if (this.statements.size() < MAX_STATEMENTS) {
+                this.statements.put(sql, template);
+            }
+        }
+
+        template.timing.record(nanos);
+
+        // A threshold of zero disables the slow-query log
+        if (this.slowThreshold > 0 && nanos >= this.slowThreshold) {
+            this.logSlowQuery((template.sql == OTHER) ? normalize(sql) :
+                    template.sql, params, nanos);
+        }
+    }
+
+    private Template getTemplate(String key) {
+        Template template = this.templates.get(key);
+        if (template != null) return template;
+
+        // Past the limit, new templates are counted together
+        if (this.templates.size() >= MAX_TEMPLATES) {
+            key = OTHER;
+
+            template = this.templates.get(key);
+            if (template != null) return template;
+        }
+
+        Template created = new Template(key);
+        template = this.templates.putIfAbsent(key, created);
+
+        return (template != null) ? template : created;
+    }
+
+    // Returns all templates, ordered by the total time spent executing them
+    public List<Template> getTemplates() {
+        List<Template> list = new ArrayList<>(this.templates.values());
+
+        Collections.sort(list, new Comparator<Template>() {
+            @Override
+            public int compare(Template o1, Template o2) {
+                return Long.compare(o2.timing.getSum(), o1.timing.getSum());
+            }
+        });
+
+        return list;
+    }
+
+    public void reset() {
+        this.statements.clear();
+        this.templates.clear();
+    }
+
+    private void logSlowQuery(String sql, int params, long nanos) {
+        plugin.sendConsoleMessage(Level.WARNING, String.format(
+                "Slow query (%s, %d parameters) from %s: %s",
+                LatencyHistogram.format(nanos), params, findCaller(), sql));
+    }
+
+    /* Identifies the DatabaseController method that issued the statement and
+     * the code which called it. Only used for slow queries, as walking the
+     * stack is comparatively expensive. */
+    private static String findCaller() {
+        StackTraceElement[] trace = new Throwable().getStackTrace();
+        String controller = DatabaseController.class.getName();
+        String method = null;
+
+        for (StackTraceElement e : trace) {
+            if (e.getClassName().equals(QueryProfiler.class.getName())) {
+                continue;
+            }
+
+            if (e.getClassName().equals(controller)) {
+                // Skip the update/query helpers themselves
+                if (!e.getMethodName().equals("update") &&
+                        !e.getMethodName().equals("query")) {
+                    method = e.getMethodName();
+                }
+                continue;
+            }
+
+            String className = e.getClassName();
+            className = className.substring(className.lastIndexOf('.') + 1);
+
+            return ((method != null) ? method : "?") + " <- " + className +
+                    "." + e.getMethodName() + ":" + e.getLineNumber();
+        }
+
+        return (method != null) ? method : "?";
+    }
+
+    /* Replaces quoted and numeric literals with '?' and collapses whitespace,
+     * parameter lists and repeated predicates, so that statements built by
+     * concatenation (such as the batch ban statements, purges and paging
+     * offsets) are grouped under a single template. */
+    static String normalize(String sql) {
+        if (!needsNormalizing(sql)) return sql;
+
+        StringBuilder sb = new StringBuilder(sql.length());
+        boolean inQuote = false;
+        boolean lastSpace = false;
+
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            // Numbers, but not digits within names such as ipcheck_log_ip
+            if (!inQuote && Character.isDigit(c) && (sb.length() == 0 ||
+                    !isNameChar(sb.charAt(sb.length() - 1)))) {
+                while (i + 1 < sql.length() && (Character.isDigit(
+                        sql.charAt(i + 1)) || sql.charAt(i + 1) == '.')) i++;
+
+                sb.append('?');
+                lastSpace = false;
+                continue;
+            }
+
+            if (c == '\'') {
+                if (!inQuote) sb.append('?');
+
+                inQuote = !inQuote;
+                lastSpace = false;
+                continue;
+            }
+
+            if (inQuote) continue;
+
+            if (Character.isWhitespace(c)) {
+                if (!lastSpace) sb.append(' ');
+                lastSpace = true;
+            } else {
+                sb.append(c);
+                lastSpace = false;
+            }
+        }
+
+        // Collapse "x = ? or x = ? or ..." runs into a single predicate
+        String template = OR_RUN.matcher(sb.toString().trim())
+                .replaceAll(" or ...");
+
+        return PARAM_LIST.matcher(template).replaceAll("(?, ...)");
+    }
+
+    // Whether the statement has literals, line breaks or lists of
+    // parameters or predicates; a lone "?" needs no normalizing
+    private static boolean needsNormalizing(String sql) {
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+
+            if (c == '\'' || c == '\n' || Character.isDigit(c)) return true;
+            if (c == '?' && (sql.startsWith(",", next(sql, i)) ||
+                    sql.startsWith("or ", next(sql, i)))) return true;
+        }
+
+        return false;
+    }
+
+    // Position of the first character after i that is not a space
+    private static int next(String sql, int i) {
+        do {
+            i++;
+        } while (i < sql.length() && sql.charAt(i) == ' ');
+
+        return i;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' ||
+                c == '`';
+    }
+
+    public static class Template {
+        private final String sql;
+        private final LatencyHistogram timing = new LatencyHistogram();
+
+        private Template(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSQL() {
+            return this.sql;
+        }
+
+        public LatencyHistogram getTiming() {
+            return this.timing;
+        }
+    }
+}
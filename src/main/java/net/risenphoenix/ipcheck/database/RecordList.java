@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database;
+
+/* The flagged records that can be listed page by page. Each list is the
+ * keys of a table with a flag set, read in primary key order. */
+public enum RecordList {
+
+    EXEMPT_IP("ipcheck_ip", "ip", "exempted", "EXEMPT_LIST_IP"),
+    EXEMPT_PLAYER("ipcheck_user", "username", "exempted",
+            "EXEMPT_LIST_PLAYER"),
+    BANNED_IP("ipcheck_ip", "ip", "banned", "BAN_LIST_IP"),
+    BANNED_PLAYER("ipcheck_user", "username", "banned", "BAN_LIST_PLAYER"),
+    PROTECTED_PLAYER("ipcheck_user", "username", "protected",
+            "PROTECT_LIST"),
+    REJOIN_IP("ipcheck_ip", "ip", "rejoinexempt", "REJOIN_LIST_IP"),
+    REJOIN_PLAYER("ipcheck_user", "username", "rejoinexempt",
+            "REJOIN_LIST_PLAYER");
+
+    private final String table;
+    private final String key;
+    private final String flag;
+    private final String title;
+
+    RecordList(String table, String key, String flag, String title) {
+        this.table = table;
+        this.key = key;
+        this.flag = flag;
+        this.title = title;
+    }
+
+    public final String getTable() {
+        return this.table;
+    }
+
+    public final String getKey() {
+        return this.key;
+    }
+
+    public final String getFlag() {
+        return this.flag;
+    }
+
+    // Locale key of the list's heading
+    public final String getTitle() {
+        return this.title;
+    }
+
+    // Name of the index serving the list
+    public final String getIndex() {
+        return this.table + "_" + this.flag;
+    }
+}
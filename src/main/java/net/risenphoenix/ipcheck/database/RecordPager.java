@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/* Splits record lists into pages read with keyset queries. The last key of
+ * every page shown is remembered, per sender and list, so that paging
+ * forward (or back) starts right where a page began; pages not yet seen are
+ * reached from the nearest remembered one. Changes to the list in between
+ * only shift where later pages begin, as a key remains a valid place to
+ * resume from whether or not it is still listed. */
+public class RecordPager {
+
+    public static final int PAGE_SIZE = 50;
+
+    // Senders whose positions are remembered, least recently used first
+    private static final int MAX_SENDERS = 64;
+
+    private final DatabaseController db;
+
+    // Keys each page starts after (null for the first), by sender and list
+    private final Map<String, TreeMap<Integer, String>> cursors =
+            new LinkedHashMap<String, TreeMap<Integer, String>>(16, 0.75f,
+                    true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, TreeMap<Integer, String>> eldest) {
+                    return this.size() > MAX_SENDERS;
+                }
+            };
+
+    public RecordPager(DatabaseController db) {
+        this.db = db;
+    }
+
+    public final Page getPage(CommandSender sender, RecordList list,
+                              int page) {
+        int total = this.db.countRecords(list);
+        int pages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        int number = Math.max(1, Math.min(page, pages));
+
+        TreeMap<Integer, String> starts = this.getStarts(sender, list);
+        Map.Entry<Integer, String> known = starts.floorEntry(number);
+
+        String after = known.getValue();
+        boolean found = true;
+
+        if (known.getKey() < number) {
+            after = this.db.getRecordCursor(list, after,
+                    (number - known.getKey()) * PAGE_SIZE);
+            found = after != null;
+        }
+
+        ArrayList<String> entries = (found) ? this.db.getRecordPage(list,
+                after, PAGE_SIZE) : new ArrayList<String>();
+
+        // Only page 1 starts at null; a start that could not be found (the
+        // list shrank since it was counted) is not remembered
+        if (found) starts.put(number, after);
+
+        if (entries.size() == PAGE_SIZE) {
+            starts.put(number + 1, entries.get(PAGE_SIZE - 1));
+        }
+
+        return new Page(entries, number, pages, total);
+    }
+
+    private TreeMap<Integer, String> getStarts(CommandSender sender,
+                                               RecordList list) {
+        String id = sender.getName() + ":" + list.name();
+        TreeMap<Integer, String> starts = this.cursors.get(id);
+
+        if (starts == null) {
+            starts = new TreeMap<>();
+            starts.put(1, null);
+            this.cursors.put(id, starts);
+        }
+
+        return starts;
+    }
+
+    public static class Page {
+
+        private final ArrayList<String> entries;
+        private final int number;
+        private final int pages;
+        private final int total;
+
+        Page(ArrayList<String> entries, int number, int pages, int total) {
+            this.entries = entries;
+            this.number = number;
+            this.pages = pages;
+            this.total = total;
+        }
+
+        public final ArrayList<String> getEntries() {
+            return this.entries;
+        }
+
+        public final int getNumber() {
+            return this.number;
+        }
+
+        public final int getPages() {
+            return this.pages;
+        }
+
+        public final int getTotal() {
+            return this.total;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.objects.ClusterRanking;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import net.risenphoenix.ipcheck.util.TopK;
+import org.bukkit.command.CommandSender;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Audits every account in the log for alts, offline players included, and
+ * writes the results to a report in the audits folder:
+ *   - clusters: accounts linked by shared IPs, directly or through others;
+ *   - the IPs shared by the most accounts;
+ *   - the accounts linked to more than secure-kick-threshold accounts, which
+ *     secure mode would turn away.
+ *
+ * Each account's linked accounts are counted on a fork-join pool, the
+ * accounts split into ranges that idle workers take over from busy ones,
+ * since an account on a busy IP costs far more to count than most. */
+public class AuditTask extends LinkGraphTask {
+
+    public static final String AUDIT_FOLDER = "audits";
+
+    // Accounts counted by each fork-join leaf
+    private static final int LEAF_SIZE = 512;
+
+    // Entries in each of the report's rankings
+    private static final int TOP = 20;
+
+    // Upper bounds of the cluster size histogram's buckets
+    private static final int[] BUCKETS = {2, 3, 5, 10, 25, 50, 100};
+
+    private final int threshold;
+
+    private final AtomicInteger counted = new AtomicInteger();
+
+    public AuditTask(IPCheck ipc, CommandSender sender) {
+        super(ipc, sender);
+        this.threshold = ipc.getConfigurationManager().getInteger(
+                "secure-kick-threshold");
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        File folder = new File(ipc.getDataFolder(), AUDIT_FOLDER);
+
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder.getPath());
+        }
+
+        File file = new File(folder, "audit-" + new SimpleDateFormat(
+                "yyyyMMdd-HHmmss").format(new Date()) + ".txt");
+
+        long start = System.nanoTime();
+        this.message(local.getLocalString("AUDIT_START"));
+
+        this.readGraph(c);
+
+        int[] accounts = this.countAccounts();
+        int[] cluster = this.cluster();
+        ClusterRanking ranking = this.rankClusters(cluster);
+
+        int flagged;
+
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(),
+                StandardCharsets.UTF_8)) {
+            flagged = this.write(out, accounts, cluster, ranking);
+        } catch (IOException e) {
+            if (!file.delete()) file.deleteOnExit();
+            throw e;
+        }
+
+        List<ClusterRanking.Cluster> largest = ranking.getClusters();
+
+        this.message(String.format(local.getLocalString("AUDIT_DONE"),
+                this.users.size(), ranking.getClusterCount(),
+                largest.isEmpty() ? 0 : largest.get(0).getSize(), flagged,
+                AUDIT_FOLDER + "/" + file.getName(),
+                LatencyHistogram.format(System.nanoTime() - start)));
+    }
+
+    /* Linked Accounts */
+
+    /* Counts, for each account, the accounts seen on any of its IPs as
+     * secure mode does: the account itself included, or 0 if it shares no
+     * IP with another. */
+    private int[] countAccounts() {
+        final int total = this.users.size();
+        final int[] accounts = new int[total];
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1,
+                Runtime.getRuntime().availableProcessors() - 1));
+
+        // Marks of the accounts already counted, one array per worker
+        final ThreadLocal<int[]> marks = new ThreadLocal<int[]>() {
+            @Override
+            protected int[] initialValue() {
+                return new int[total];
+            }
+        };
+
+        try {
+            pool.invoke(new CountAction(0, total, accounts, marks));
+        } finally {
+            pool.shutdown();
+        }
+
+        return accounts;
+    }
+
+    private final class CountAction extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int[] accounts;
+        private final ThreadLocal<int[]> marks;
+
+        CountAction(int from, int to, int[] accounts,
+                    ThreadLocal<int[]> marks) {
+            this.from = from;
+            this.to = to;
+            this.accounts = accounts;
+            this.marks = marks;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > LEAF_SIZE) {
+                int middle = (this.from + this.to) >>> 1;
+
+                invokeAll(new CountAction(this.from, middle, this.accounts,
+                        this.marks), new CountAction(middle, this.to,
+                        this.accounts, this.marks));
+                return;
+            }
+
+            // Accounts are marked with the number of the account being
+            // counted (plus one), so the marks never need clearing
+            int[] seen = this.marks.get();
+
+            for (int u = this.from; u < this.to; u++) {
+                int mark = u + 1;
+                int others = 0;
+                seen[u] = mark;
+
+                for (int i = userStart[u]; i < userStart[u + 1]; i++) {
+                    int ip = userIPs[i];
+
+                    for (int j = ipStart[ip]; j < ipStart[ip + 1]; j++) {
+                        int alt = ipUsers[j];
+                        if (seen[alt] == mark) continue;
+
+                        seen[alt] = mark;
+                        others++;
+                    }
+                }
+
+                this.accounts[u] = (others > 0) ? others + 1 : 0;
+            }
+
+            int done = counted.addAndGet(this.to - this.from);
+
+            if (isReportDue()) {
+                message(String.format(local.getLocalString(
+                        "AUDIT_PROGRESS_COUNT"), done, users.size()));
+            }
+        }
+    }
+
+    /* Report */
+
+    // Writes the report, and returns the number of accounts over the
+    // threshold
+    private int write(BufferedWriter out, int[] accounts, int[] cluster,
+                      ClusterRanking ranking) throws IOException {
+        int total = this.users.size();
+
+        List<Integer> flagged = new ArrayList<>();
+        for (int u = 0; u < total; u++) {
+            if (accounts[u] > this.threshold) flagged.add(u);
+        }
+
+        Collections.sort(flagged, descending(accounts));
+
+        out.write("IP-Check audit of " + total + " accounts, " +
+                this.ips.size() + " IPs and " + this.records +
+                " log records.");
+        out.newLine();
+
+        this.writeHistogram(out, cluster, ranking.getClusterCount());
+        this.writeClusters(out, ranking);
+        this.writeSharedIPs(out);
+        this.writeFlagged(out, flagged, accounts);
+
+        return flagged.size();
+    }
+
+    private void writeHistogram(BufferedWriter out, int[] cluster,
+                                int clusters) throws IOException {
+        heading(out, "Clusters by size (" + clusters + ")");
+
+        int[] size = new int[cluster.length];
+        for (int root : cluster) size[root]++;
+
+        int[] counts = new int[BUCKETS.length + 1];
+
+        for (int u = 0; u < cluster.length; u++) {
+            if (cluster[u] != u || size[u] < 2) continue;
+
+            int b = 0;
+            while (b < BUCKETS.length && size[u] > BUCKETS[b]) b++;
+            counts[b]++;
+        }
+
+        for (int b = 0; b < counts.length; b++) {
+            String range;
+
+            if (b == BUCKETS.length) {
+                range = "over " + BUCKETS[b - 1];
+            } else if (b == 0 || BUCKETS[b - 1] + 1 == BUCKETS[b]) {
+                range = String.valueOf(BUCKETS[b]);
+            } else {
+                range = (BUCKETS[b - 1] + 1) + "-" + BUCKETS[b];
+            }
+
+            out.write("  " + range + " accounts: " + counts[b]);
+            out.newLine();
+        }
+    }
+
+    private void writeClusters(BufferedWriter out, ClusterRanking ranking)
+            throws IOException {
+        List<ClusterRanking.Cluster> clusters = ranking.getClusters();
+        heading(out, "Largest clusters");
+
+        for (int i = 0; i < Math.min(TOP, clusters.size()); i++) {
+            ClusterRanking.Cluster cluster = clusters.get(i);
+            List<String> names = cluster.getMembers();
+
+            out.write("  " + cluster.getSize() + " accounts on " +
+                    cluster.getIPCount() + " IPs: ");
+
+            for (int n = 0; n < names.size(); n++) {
+                if (n > 0) out.write(", ");
+                out.write(names.get(n));
+            }
+
+            if (cluster.getSize() > names.size()) {
+                out.write(" and " + (cluster.getSize() - names.size()) +
+                        " more");
+            }
+
+            out.newLine();
+        }
+    }
+
+    private void writeSharedIPs(BufferedWriter out) throws IOException {
+        TopK<Integer> shared = new TopK<>(TOP);
+
+        for (int ip = 0; ip < this.ips.size(); ip++) {
+            int sharing = this.getSharing(ip);
+            if (sharing > 1) shared.offer(ip, sharing);
+        }
+
+        heading(out, "Most shared IPs");
+
+        for (TopK.Entry<Integer> entry : shared.getEntries()) {
+            out.write("  " + this.ips.get(entry.getItem()) + ": " +
+                    entry.getScore() + " accounts");
+            out.newLine();
+        }
+    }
+
+    private void writeFlagged(BufferedWriter out, List<Integer> flagged,
+                              int[] accounts) throws IOException {
+        heading(out, "Accounts over the secure-kick-threshold of " +
+                this.threshold + " (" + flagged.size() + ")");
+
+        for (int u : flagged) {
+            out.write("  " + this.users.get(u) + ": " + accounts[u] +
+                    " accounts");
+            out.newLine();
+        }
+    }
+
+    private static void heading(BufferedWriter out, String title)
+            throws IOException {
+        out.newLine();
+        out.write(title);
+        out.newLine();
+    }
+
+    // Orders numbers by their values, largest first
+    private static Comparator<Integer> descending(final int[] values) {
+        return new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Integer.compare(values[b], values[a]);
+            }
+        };
+    }
+}
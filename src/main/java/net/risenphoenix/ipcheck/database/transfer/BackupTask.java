@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+
+/* Takes an online backup of the SQLite database into the backups folder,
+ * keeping the newest backup-count of them. The copy is made on
+ * a background connection with "VACUUM INTO", which reads the database in a
+ * single read transaction; as the database runs in WAL mode, the server's
+ * own writes carry on while it does. SQLite releases older than 3.27 lack
+ * VACUUM INTO, and fall back on the driver's "backup to" command, which
+ * copies the database through the online backup API a few pages at a
+ * time. The backup is written under a temporary name and only renamed once
+ * complete, so an interrupted backup never replaces a good one. */
+public class BackupTask extends TransferTask {
+
+    public static final String BACKUP_FOLDER = "backups";
+
+    private static final String PREFIX = "ip-check-";
+    private static final String SUFFIX = ".db";
+
+    private final int keep;
+
+    public BackupTask(IPCheck ipc, CommandSender sender, int keep) {
+        super(ipc, sender);
+        this.keep = keep;
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        File folder = new File(ipc.getDataFolder(), BACKUP_FOLDER);
+
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder.getPath());
+        }
+
+        String name = PREFIX + new SimpleDateFormat("yyyyMMdd-HHmmss")
+                .format(new Date()) + SUFFIX;
+        File target = new File(folder, name);
+        File partial = new File(folder, name + ".part");
+
+        if (partial.exists() && !partial.delete()) {
+            throw new IOException("Could not replace " + partial.getName());
+        }
+
+        long start = System.nanoTime();
+
+        try (Statement s = c.createStatement()) {
+            String path = partial.getAbsolutePath();
+
+            if (supportsVacuumInto(s)) {
+                s.executeUpdate("VACUUM INTO '" + path.replace("'", "''") +
+                        "'");
+            } else {
+                // The driver parses "backup to" itself: a quoted argument
+                // runs to the next quote and is taken as is, with no
+                // escapes, and an unquoted one ends at the first space
+                if (path.indexOf('\'') >= 0 && path.indexOf(' ') >= 0) {
+                    throw new IOException("Cannot back up to " + path +
+                            ": this SQLite driver cannot take a path " +
+                            "containing both a quote and a space");
+                }
+
+                s.executeUpdate("backup to '" + path + "'");
+            }
+        } catch (SQLException e) {
+            if (!partial.delete()) partial.deleteOnExit();
+            throw e;
+        }
+
+        if (!partial.renameTo(target)) {
+            throw new IOException("Could not rename " + partial.getName());
+        }
+
+        int removed = this.rotate(folder);
+
+        this.message(String.format(local.getLocalString("BACKUP_DONE"),
+                target.getName(), target.length() / 1024,
+                LatencyHistogram.format(System.nanoTime() - start), removed));
+    }
+
+    // Deletes all but the newest backups; returns the number deleted
+    private int rotate(File folder) {
+        String[] names = folder.list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }
+        });
+
+        if (names == null || names.length <= this.keep) return 0;
+
+        // The timestamped names sort oldest first
+        Arrays.sort(names);
+        int removed = 0;
+
+        for (int i = 0; i < names.length - this.keep; i++) {
+            if (new File(folder, names[i]).delete()) removed++;
+        }
+
+        return removed;
+    }
+
+    private static boolean supportsVacuumInto(Statement s)
+            throws SQLException {
+        try (ResultSet res = s.executeQuery("select sqlite_version()")) {
+            if (!res.next()) return false;
+
+            String[] version = res.getString(1).split("\\.");
+
+            try {
+                int major = Integer.parseInt(version[0]);
+                int minor = (version.length > 1) ?
+                        Integer.parseInt(version[1]) : 0;
+
+                return major > 3 || (major == 3 && minor >= 27);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.BanList;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+
+/* Imports ban lists into ipcheck_user and ipcheck_ip off the main thread, on
+ * a dedicated database connection. Entries are upserted with batched
+ * statements and committed every BATCH_SIZE entries; after each commit the
+ * position in the list is saved to import.progress in the data folder, so
+ * an import interrupted by a shutdown or reload resumes where it stopped
+ * when it is run again on the same, unchanged file.
+ *
+ * The server's ban list is the authority on who is banned (players it does
+ * not ban are unbanned again as they log in), so player bans imported from
+ * other plugins' files are added to it too. That is done on the main
+ * thread, SERVER_BANS_PER_TICK at a time since the server saves its list
+ * with every ban, and before the batch is recorded as imported. */
+public class BanImporter extends TransferTask {
+
+    private static final int BATCH_SIZE = 2000;
+    private static final long PROGRESS_INTERVAL = 5000L;
+    private static final String PROGRESS_FILE = "import.progress";
+    private static final int SERVER_BANS_PER_TICK = 100;
+    private static final String BAN_SOURCE = "IP-Check import";
+
+    private final List<File> files;
+    private final boolean banOnServer;
+    private final String defaultReason;
+
+    // Player bans of the current batch, as name and reason, for the server
+    private final List<String[]> serverBans = new ArrayList<>();
+
+    public BanImporter(IPCheck ipc, CommandSender sender, List<File> files,
+                       boolean banOnServer) {
+        super(ipc, sender);
+        this.files = files;
+        this.banOnServer = banOnServer;
+        this.defaultReason = ipc.getConfigurationManager()
+                .getString("ban-message");
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException {
+        c.setAutoCommit(false);
+
+        for (File file : this.files) {
+            try {
+                if (!this.importFile(c, file)) return;
+            } catch (SQLException | IOException e) {
+                this.message(ChatColor.RED + String.format(
+                        local.getLocalString("IMPORT_ERR"), file.getName(),
+                        e.getMessage()));
+                return;
+            }
+        }
+    }
+
+    // Returns false if the import was interrupted
+    private boolean importFile(Connection c, File file)
+            throws IOException, SQLException {
+        File progress = new File(ipc.getDataFolder(), PROGRESS_FILE);
+        long resume = loadProgress(progress, file);
+        long start = System.nanoTime();
+        long lastReport = System.currentTimeMillis();
+
+        long players = 0, ips = 0;
+
+        String insert = db.insertIgnore();
+
+        try (BanListReader reader = new BanListReader(file);
+             PreparedStatement addUser = c.prepareStatement(insert +
+                     " into ipcheck_user (username) values (?)");
+             PreparedStatement banUser = c.prepareStatement("update " +
+                     "ipcheck_user set banned = 1, banmessage = ? where " +
+                     "username = ?");
+             PreparedStatement setUUID = c.prepareStatement("update " +
+                     "ipcheck_user set uuid = ? where username = ?");
+             PreparedStatement addIP = c.prepareStatement(insert +
+                     " into ipcheck_ip (ip) values (?)");
+             PreparedStatement banIP = c.prepareStatement("update " +
+                     "ipcheck_ip set banned = 1 where ip = ?")) {
+            PreparedStatement[] batch = {addUser, banUser, setUUID, addIP,
+                    banIP};
+
+            if (resume > 0) {
+                reader.skip(resume);
+                this.message(String.format(local.getLocalString(
+                        "IMPORT_RESUME"), file.getName(), resume));
+            } else {
+                this.message(String.format(local.getLocalString(
+                        "IMPORT_START"), file.getName()));
+            }
+
+            BanListReader.Entry entry;
+            int pending = 0;
+
+            while ((entry = reader.next()) != null) {
+                String player = entry.getPlayer();
+                String ip = entry.getIP();
+                String reason = (entry.getReason() != null) ?
+                        entry.getReason() : this.defaultReason;
+
+                if (player != null) {
+                    addUser.setString(1, player);
+                    addUser.addBatch();
+                    banUser.setString(1, reason);
+                    banUser.setString(2, player);
+                    banUser.addBatch();
+
+                    if (entry.getUUID() != null) {
+                        setUUID.setString(1, entry.getUUID());
+                        setUUID.setString(2, player);
+                        setUUID.addBatch();
+                    }
+
+                    if (this.banOnServer) {
+                        this.serverBans.add(new String[]{player, reason});
+                    }
+
+                    players++;
+                }
+
+                if (ip != null) {
+                    addIP.setString(1, ip);
+                    addIP.addBatch();
+                    banIP.setString(1, ip);
+                    banIP.addBatch();
+
+                    ips++;
+                }
+
+                if (++pending < BATCH_SIZE) continue;
+
+                commit(c, batch);
+                this.banOnServer();
+                saveProgress(progress, file, reader.getPosition());
+                pending = 0;
+
+                // Stop (resumably) if the plugin is going away
+                if (!ipc.isEnabled()) {
+                    ipc.sendConsoleMessage(Level.WARNING, String.format(
+                            local.getLocalString("IMPORT_STOPPED"),
+                            file.getName(), reader.getPosition()));
+                    return false;
+                }
+
+                long now = System.currentTimeMillis();
+
+                if (now - lastReport >= PROGRESS_INTERVAL) {
+                    lastReport = now;
+
+                    long done = reader.getPosition() - resume;
+                    double seconds = (System.nanoTime() - start) / 1e9;
+
+                    this.message(String.format(local.getLocalString(
+                            "IMPORT_PROGRESS"), file.getName(),
+                            reader.getPosition(), Math.round(done / seconds)));
+                }
+            }
+
+            commit(c, batch);
+            this.banOnServer();
+
+            if (progress.exists() && !progress.delete()) {
+                progress.deleteOnExit();
+            }
+
+            this.message(String.format(local.getLocalString("IMPORT_DONE"),
+                    players, ips, file.getName(), reader.getSkipped(),
+                    LatencyHistogram.format(System.nanoTime() - start)));
+        } catch (SQLException e) {
+            c.rollback();
+            throw e;
+        }
+
+        // Cached verdicts and reports may no longer hold
+        if (players + ips > 0) this.invalidateCaches();
+
+        return true;
+    }
+
+    // Adds the batch's player bans to the server's ban list, on the main
+    // thread, waiting for each tick's share to be done
+    private void banOnServer() throws IOException {
+        List<String[]> bans = this.serverBans;
+
+        for (int from = 0; from < bans.size(); from += SERVER_BANS_PER_TICK) {
+            if (!ipc.isEnabled()) throw new IOException("Plugin disabled");
+
+            final List<String[]> share = bans.subList(from, Math.min(
+                    bans.size(), from + SERVER_BANS_PER_TICK));
+
+            Future<Void> done = ipc.getServer().getScheduler().callSyncMethod(
+                    ipc, new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            BanList list = Bukkit.getBanList(
+                                    BanList.Type.NAME);
+
+                            for (String[] ban : share) {
+                                if (list.isBanned(ban[0])) continue;
+                                list.addBan(ban[0], ban[1], null, BAN_SOURCE);
+                            }
+
+                            return null;
+                        }
+                    });
+
+            try {
+                done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause().getMessage(), e);
+            }
+        }
+
+        bans.clear();
+    }
+
+    private static void commit(Connection c, PreparedStatement[] batch)
+            throws SQLException {
+        for (PreparedStatement statement : batch) {
+            statement.executeBatch();
+        }
+
+        c.commit();
+    }
+
+    // Returns the position to resume from, if the progress is for this file
+    private static long loadProgress(File progress, File file) {
+        if (!progress.exists()) return 0;
+
+        Properties p = new Properties();
+
+        try (InputStream in = new FileInputStream(progress)) {
+            p.load(in);
+        } catch (IOException e) {
+            return 0;
+        }
+
+        if (!file.getAbsolutePath().equals(p.getProperty("file")) ||
+                !String.valueOf(file.length()).equals(p.getProperty("size")) ||
+                !String.valueOf(file.lastModified()).equals(
+                        p.getProperty("modified"))) {
+            return 0;
+        }
+
+        try {
+            return Long.parseLong(p.getProperty("position", "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void saveProgress(File progress, File file, long position)
+            throws IOException {
+        Properties p = new Properties();
+        p.setProperty("file", file.getAbsolutePath());
+        p.setProperty("size", String.valueOf(file.length()));
+        p.setProperty("modified", String.valueOf(file.lastModified()));
+        p.setProperty("position", String.valueOf(position));
+
+        try (OutputStream out = new FileOutputStream(progress)) {
+            p.store(out, "IP-Check ban import progress");
+        }
+    }
+}
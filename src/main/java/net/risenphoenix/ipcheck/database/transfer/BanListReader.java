@@ -0,0 +1,324 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import net.risenphoenix.ipcheck.util.AddressUtil;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+/* Streams the entries of a ban list one at a time, so that lists of any size
+ * can be imported without loading them into memory. Understands the vanilla
+ * JSON lists (banned-players.json, banned-ips.json), JSON exports of other
+ * plugins (an array of objects or names, possibly wrapped in an object) and
+ * the legacy pipe-separated lists (banned-players.txt, banned-ips.txt).
+ * Expired bans and entries naming neither a player nor an address are
+ * skipped. */
+public class BanListReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int DETECT_LIMIT = 4096;
+
+    // Expiry format used by the vanilla lists, both JSON and legacy
+    private final SimpleDateFormat expiryFormat =
+            new SimpleDateFormat("yyyy-MM-dd HH:mm:ss Z");
+
+    private final BufferedReader in;
+    private JsonReader json = null;
+    private boolean finished = false;
+
+    private final long now = System.currentTimeMillis();
+    private long position = 0;
+    private long skipped = 0;
+
+    public BanListReader(File file) throws IOException {
+        this.in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+
+        // Skip any byte order mark, then peek at the first significant
+        // character to pick a format
+        this.in.mark(1);
+        if (this.in.read() != '\uFEFF') this.in.reset();
+
+        this.in.mark(DETECT_LIMIT);
+        int c;
+        int read = 0;
+
+        do {
+            c = this.in.read();
+        } while (c >= 0 && ++read < DETECT_LIMIT && Character.isWhitespace(c));
+
+        this.in.reset();
+
+        if (c == '[' || c == '{') {
+            this.json = new JsonReader(this.in);
+            this.json.setLenient(true);
+            this.openArray(c == '{');
+        }
+    }
+
+    // Positions the JSON reader inside the array of entries
+    private void openArray(boolean wrapped) throws IOException {
+        if (!wrapped) {
+            this.json.beginArray();
+            return;
+        }
+
+        // Use the first array-valued member, e.g. {"bans": [...]}
+        this.json.beginObject();
+
+        while (this.json.hasNext()) {
+            this.json.nextName();
+
+            if (this.json.peek() == JsonToken.BEGIN_ARRAY) {
+                this.json.beginArray();
+                return;
+            }
+
+            this.json.skipValue();
+        }
+
+        this.finished = true;
+    }
+
+    // Returns the next live entry, or null at the end of the list
+    public Entry next() throws IOException {
+        Entry entry;
+
+        while ((entry = this.readEntry()) != null) {
+            if (entry.isValid() && !this.isExpired(entry.expires)) {
+                return entry;
+            }
+
+            this.skipped++;
+        }
+
+        return null;
+    }
+
+    // Skips entries already imported by an earlier, interrupted run
+    public void skip(long entries) throws IOException {
+        while (this.position < entries && this.readEntry() != null) {
+            // Nothing to do
+        }
+    }
+
+    // Number of entries read so far, live or not
+    public long getPosition() {
+        return this.position;
+    }
+
+    public long getSkipped() {
+        return this.skipped;
+    }
+
+    private Entry readEntry() throws IOException {
+        if (this.finished) return null;
+
+        Entry entry = (this.json != null) ? this.readJSON() : this.readLine();
+
+        if (entry == null) {
+            this.finished = true;
+        } else {
+            this.position++;
+        }
+
+        return entry;
+    }
+
+    private Entry readJSON() throws IOException {
+        if (!this.json.hasNext()) return null;
+
+        Entry entry = new Entry();
+
+        // Plain lists of names or addresses
+        if (this.json.peek() != JsonToken.BEGIN_OBJECT) {
+            entry.setTarget(readString());
+            return entry;
+        }
+
+        this.json.beginObject();
+
+        while (this.json.hasNext()) {
+            switch (this.json.nextName().toLowerCase()) {
+                case "name":
+                case "username":
+                case "player":
+                case "playername":
+                    entry.player = readString();
+                    break;
+                case "uuid":
+                    entry.uuid = readString();
+                    break;
+                case "ip":
+                case "address":
+                case "ipaddress":
+                    entry.ip = readString();
+                    break;
+                case "reason":
+                case "message":
+                case "banreason":
+                    entry.reason = readString();
+                    break;
+                case "expires":
+                case "expiry":
+                case "until":
+                    entry.expires = readString();
+                    break;
+                default:
+                    this.json.skipValue();
+            }
+        }
+
+        this.json.endObject();
+        return entry;
+    }
+
+    // Reads a primitive value as text; anything else is skipped
+    private String readString() throws IOException {
+        JsonToken token = this.json.peek();
+
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+            return this.json.nextString();
+        } else if (token == JsonToken.BOOLEAN) {
+            return String.valueOf(this.json.nextBoolean());
+        }
+
+        this.json.skipValue();
+        return null;
+    }
+
+    // Legacy format: target|created|source|expires|reason
+    private Entry readLine() throws IOException {
+        String line;
+
+        do {
+            line = this.in.readLine();
+            if (line == null) return null;
+
+            line = line.trim();
+        } while (line.length() == 0 || line.startsWith("#"));
+
+        String[] fields = line.split("\\|", 5);
+        Entry entry = new Entry();
+
+        entry.setTarget(fields[0]);
+        if (fields.length > 3) entry.expires = fields[3];
+        if (fields.length > 4) entry.reason = fields[4];
+
+        return entry;
+    }
+
+    private boolean isExpired(String expires) {
+        if (expires == null) return false;
+
+        expires = expires.trim();
+        if (expires.length() == 0 || expires.equalsIgnoreCase("forever")) {
+            return false;
+        }
+
+        try {
+            // Numeric expiry in epoch milliseconds; zero or less is permanent
+            if (expires.matches("-?\\d+")) {
+                long millis = Long.parseLong(expires);
+                return millis > 0 && millis < this.now;
+            }
+
+            return this.expiryFormat.parse(expires).getTime() < this.now;
+        } catch (NumberFormatException | ParseException e) {
+            // Keep bans whose expiry cannot be read
+            return false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.json != null) {
+            this.json.close();
+        } else {
+            this.in.close();
+        }
+    }
+
+    public static class Entry {
+        private String player;
+        private String uuid;
+        private String ip;
+        private String reason;
+        private String expires;
+
+        // Legacy lists and plain arrays only name the banned target
+        private void setTarget(String target) {
+            if (target == null) return;
+
+            target = target.trim();
+
+            if (AddressUtil.isAddress(target)) {
+                this.ip = target;
+            } else {
+                this.player = target;
+            }
+        }
+
+        private boolean isValid() {
+            return (this.player != null && this.player.length() > 0) ||
+                    (this.ip != null && this.ip.length() > 0);
+        }
+
+        public String getPlayer() {
+            return (this.player == null || this.player.length() == 0) ?
+                    null : this.player.toLowerCase();
+        }
+
+        public String getUUID() {
+            return this.uuid;
+        }
+
+        public String getIP() {
+            return (this.ip == null || this.ip.length() == 0) ? null :
+                    this.ip.trim();
+        }
+
+        public String getReason() {
+            return this.reason;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/* Base class of the transfers deleting many records at once (log retention,
+ * bulk purges). Rows matching a condition are walked in primary key order,
+ * BATCH_SIZE at a time; every batch is deleted by key and committed on its
+ * own, followed by a short pause, so no write lock is held for long and the
+ * server's own writes interleave freely. */
+abstract class BulkDeleteTask extends TransferTask {
+
+    static final int BATCH_SIZE = 500;
+    static final long PAUSE = 50L;
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    // Records no longer in any special state; players are also checked for
+    // "protected = 0"
+    static final String KEPT = "banned = 0 and exempted = 0 and " +
+            "rejoinexempt = 0";
+
+    protected final boolean mysql;
+
+    // Deleted row counts, by table (log rows deleted along with players or
+    // addresses included)
+    protected final long[] deleted = new long[Snapshot.TABLES.length];
+
+    private SnapshotWriter archive = null;
+    private String archivePrefix = null;
+
+    BulkDeleteTask(IPCheck ipc, CommandSender sender) {
+        super(ipc, sender);
+        this.mysql = ipc.getConfigurationManager().getBoolean("use-mysql");
+    }
+
+    // Deleted rows are first written to an NDJSON snapshot in the archive
+    // folder, named after the prefix
+    protected void archiveTo(String prefix) {
+        this.archivePrefix = prefix;
+    }
+
+    protected SnapshotWriter getArchive() {
+        return this.archive;
+    }
+
+    protected void closeArchive() throws IOException {
+        if (this.archive != null) this.archive.close();
+    }
+
+    // Called after each committed batch
+    protected void onBatch() {
+        // Nothing to do
+    }
+
+    protected long getDeleted() {
+        long total = 0;
+
+        for (long rows : this.deleted) {
+            total += rows;
+        }
+
+        return total;
+    }
+
+    // Counts the rows matching the condition
+    protected long count(Connection c, Snapshot.Table table, String condition,
+                         Object... params) throws SQLException {
+        try (PreparedStatement s = c.prepareStatement("select count(*) " +
+                "from " + table.getName() + " where " + condition)) {
+            bind(s, 1, params);
+
+            try (ResultSet res = s.executeQuery()) {
+                return res.next() ? res.getLong(1) : 0;
+            }
+        }
+    }
+
+    // Deletes the rows matching the condition, one batch at a time. With
+    // cascade, the log rows of deleted players or addresses go with them.
+    protected void delete(Connection c, Snapshot.Table table,
+                          String condition, boolean cascade,
+                          Object... params) throws SQLException, IOException {
+        int index = Snapshot.indexOf(table);
+        int[] key = table.getKey(this.mysql);
+        Object[] values = new Object[table.getColumns().length];
+
+        String order = " " + table.orderByKey(this.mysql) + " limit " +
+                BATCH_SIZE;
+        String first = table.select() + " where " + condition + order;
+        String next = table.select() + " where " + table.after(this.mysql) +
+                " and " + condition + order;
+
+        StringBuilder delete = new StringBuilder("delete from ")
+                .append(table.getName()).append(" where ");
+
+        for (int i = 0; i < key.length; i++) {
+            if (i > 0) delete.append(" and ");
+            delete.append(table.getColumns()[key[i]]).append(" = ?");
+        }
+
+        // Players and addresses are keyed by a single column, which the log
+        // shares
+        Snapshot.Table log = Snapshot.getTable("ipcheck_log");
+        String logColumn = table.getColumns()[key[0]];
+        String[] batch = new String[BATCH_SIZE];
+
+        boolean started = false;
+
+        try (PreparedStatement firstBatch = c.prepareStatement(first);
+             PreparedStatement nextBatch = c.prepareStatement(next);
+             PreparedStatement remove = c.prepareStatement(
+                     delete.toString())) {
+            while (true) {
+                // Stop if the plugin is going away; deleted rows stay
+                // deleted, the rest wait for the next run
+                if (!ipc.isEnabled()) throw new IOException("Plugin disabled");
+
+                PreparedStatement select = started ? nextBatch : firstBatch;
+                int param = started ? table.bindAfter(select, 1, values,
+                        this.mysql) : 1;
+                bind(select, param, params);
+
+                int count = 0;
+
+                try (ResultSet res = select.executeQuery()) {
+                    while (res.next()) {
+                        table.read(res, values);
+
+                        for (int i = 0; i < key.length; i++) {
+                            remove.setString(i + 1, (String) values[key[i]]);
+                        }
+
+                        remove.addBatch();
+                        batch[count++] = (String) values[key[0]];
+
+                        if (this.archivePrefix != null) {
+                            this.archive(table, values);
+                        }
+                    }
+                }
+
+                if (count == 0) return;
+
+                // The batch is selected outside of the transaction: an
+                // SQLite read transaction could not be upgraded to a write
+                // once the server's connection had written in the meantime
+                c.setAutoCommit(false);
+
+                try {
+                    remove.executeBatch();
+
+                    if (cascade) {
+                        this.deleted[Snapshot.indexOf(log)] += deleteLog(c,
+                                logColumn, batch, count);
+                    }
+
+                    c.commit();
+                } catch (SQLException e) {
+                    c.rollback();
+                    throw e;
+                } finally {
+                    c.setAutoCommit(true);
+                }
+
+                this.deleted[index] += count;
+                started = true;
+                this.onBatch();
+
+                if (count < BATCH_SIZE) return;
+
+                pause();
+            }
+        }
+    }
+
+    // One statement for the whole batch: only one of the log's columns can
+    // lead its primary key, so the other is looked up by a scan
+    private static int deleteLog(Connection c, String column, String[] keys,
+                                 int count) throws SQLException {
+        StringBuilder sql = new StringBuilder("delete from ipcheck_log where ")
+                .append(column).append(" in (");
+
+        for (int i = 0; i < count; i++) {
+            sql.append((i > 0) ? ", ?" : "?");
+        }
+
+        try (PreparedStatement s = c.prepareStatement(sql.append(')')
+                .toString())) {
+            for (int i = 0; i < count; i++) {
+                s.setString(i + 1, keys[i]);
+            }
+
+            return s.executeUpdate();
+        }
+    }
+
+    private void archive(Snapshot.Table table, Object[] values)
+            throws IOException {
+        if (this.archive == null) {
+            File folder = new File(ipc.getDataFolder(),
+                    RetentionTask.ARCHIVE_FOLDER);
+
+            if (!folder.isDirectory() && !folder.mkdirs()) {
+                throw new IOException("Could not create " + folder.getPath());
+            }
+
+            this.archive = SnapshotWriter.create(Snapshot.Format.NDJSON,
+                    folder, this.archivePrefix + "-" + new SimpleDateFormat(
+                            "yyyyMMdd-HHmmss").format(new Date()));
+        }
+
+        this.archive.beginTable(table);
+        this.archive.writeRow(values);
+        this.archive.endTable();
+    }
+
+    // Condition for players or addresses (the column) without log rows
+    // matching the log condition, which may be null. A correlated lookup is
+    // only cheap if the column leads the log's primary key (username on
+    // SQLite, ip on MySQL); otherwise the logged values are collected once
+    // per statement instead.
+    static String notLogged(boolean mysql, Snapshot.Table table,
+                            String column, String logCondition) {
+        Snapshot.Table log = Snapshot.getTable("ipcheck_log");
+        int lead = log.getKey(mysql)[0];
+        String extra = (logCondition != null) ? " and " + logCondition : "";
+
+        if (log.getColumns()[lead].equals(column)) {
+            return "not exists (select 1 from ipcheck_log l where l." +
+                    column + " = " + table.getName() + "." + column + extra +
+                    ")";
+        }
+
+        return column + " not in (select " + column + " from ipcheck_log " +
+                "where " + column + " is not null" + extra + ")";
+    }
+
+    // The time the given number of days ago, in the format of the stored
+    // timestamps: UTC on SQLite, where they come from CURRENT_TIMESTAMP, and
+    // the server's time zone on MySQL
+    static String daysAgo(boolean mysql, int days) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        if (!mysql) format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        return format.format(new Date(System.currentTimeMillis() -
+                days * DAY));
+    }
+
+    private static void bind(PreparedStatement s, int index, Object[] params)
+            throws SQLException {
+        for (Object param : params) {
+            if (param instanceof Long) {
+                s.setLong(index++, (Long) param);
+            } else {
+                s.setString(index++, (String) param);
+            }
+        }
+    }
+
+    static void pause() {
+        try {
+            Thread.sleep(PAUSE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.objects.ClusterRanking;
+import net.risenphoenix.ipcheck.util.TopK;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Base class of the transfers working on the whole graph of accounts and
+ * the IPs they were seen on (audits, /ipc top). The log is read into memory
+ * once, in key order and in chunks as by the exporter, with every account
+ * and IP numbered; nothing else is queried, so the server's connection is
+ * left alone. */
+abstract class LinkGraphTask extends TransferTask {
+
+    private static final int CHUNK_SIZE = 5000;
+    private static final long PROGRESS_INTERVAL = 5000L;
+
+    protected final boolean mysql;
+
+    // Accounts and IPs, numbered in the order first read
+    private final Map<String, Integer> userIds = new HashMap<>();
+    protected final List<String> users = new ArrayList<>();
+    private final Map<String, Integer> ipIds = new HashMap<>();
+    protected final List<String> ips = new ArrayList<>();
+
+    // Log records, as pairs of numbers
+    private int[] recordUser = new int[CHUNK_SIZE];
+    private int[] recordIP = new int[CHUNK_SIZE];
+    protected int records = 0;
+
+    // The IPs of account u are userIPs[userStart[u]] up to (not including)
+    // userIPs[userStart[u + 1]], and the accounts of each IP likewise
+    protected int[] userStart;
+    protected int[] userIPs;
+    protected int[] ipStart;
+    protected int[] ipUsers;
+
+    private long lastReport = System.currentTimeMillis();
+
+    public LinkGraphTask(IPCheck ipc, CommandSender sender) {
+        super(ipc, sender);
+        this.mysql = ipc.getConfigurationManager().getBoolean("use-mysql");
+    }
+
+    // Reads the log and groups its records by account and by IP
+    protected void readGraph(Connection c) throws SQLException, IOException {
+        this.readLog(c);
+        this.index();
+    }
+
+    private void readLog(Connection c) throws SQLException, IOException {
+        Snapshot.Table table = Snapshot.getTable("ipcheck_log");
+        int ipColumn = table.indexOf("ip");
+        int userColumn = table.indexOf("username");
+
+        Object[] values = new Object[table.getColumns().length];
+
+        String order = " " + table.orderByKey(this.mysql) + " limit " +
+                CHUNK_SIZE;
+        String first = table.select() + order;
+        String next = table.select() + " where " + table.after(this.mysql) +
+                order;
+
+        boolean more = true;
+        boolean started = false;
+
+        while (more) {
+            // Stop if the plugin is going away
+            if (!ipc.isEnabled()) throw new IOException("Plugin disabled");
+
+            try (PreparedStatement s = c.prepareStatement(started ? next :
+                    first, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                s.setFetchSize(CHUNK_SIZE);
+
+                // Resume after the last key of the previous chunk
+                if (started) table.bindAfter(s, 1, values, this.mysql);
+
+                int count = 0;
+
+                try (ResultSet res = s.executeQuery()) {
+                    while (res.next()) {
+                        table.read(res, values);
+                        this.addRecord((String) values[userColumn],
+                                (String) values[ipColumn]);
+                        count++;
+                    }
+                }
+
+                more = count == CHUNK_SIZE;
+                started = true;
+            }
+
+            if (this.isReportDue()) {
+                this.message(String.format(local.getLocalString(
+                        "LOG_READ_PROGRESS"), this.records));
+            }
+        }
+    }
+
+    private void addRecord(String user, String ip) {
+        if (user == null || ip == null) return;
+
+        if (this.records == this.recordUser.length) {
+            int size = this.records * 2;
+            this.recordUser = Arrays.copyOf(this.recordUser, size);
+            this.recordIP = Arrays.copyOf(this.recordIP, size);
+        }
+
+        this.recordUser[this.records] = number(user.toLowerCase(),
+                this.userIds, this.users);
+        this.recordIP[this.records] = number(ip, this.ipIds, this.ips);
+        this.records++;
+    }
+
+    private static int number(String key, Map<String, Integer> ids,
+                              List<String> keys) {
+        Integer id = ids.get(key);
+
+        if (id == null) {
+            id = keys.size();
+            ids.put(key, id);
+            keys.add(key);
+        }
+
+        return id;
+    }
+
+    private void index() {
+        this.userStart = new int[this.users.size() + 1];
+        this.ipStart = new int[this.ips.size() + 1];
+
+        for (int i = 0; i < this.records; i++) {
+            this.userStart[this.recordUser[i] + 1]++;
+            this.ipStart[this.recordIP[i] + 1]++;
+        }
+
+        for (int u = 0; u < this.users.size(); u++) {
+            this.userStart[u + 1] += this.userStart[u];
+        }
+
+        for (int ip = 0; ip < this.ips.size(); ip++) {
+            this.ipStart[ip + 1] += this.ipStart[ip];
+        }
+
+        this.userIPs = new int[this.records];
+        this.ipUsers = new int[this.records];
+
+        int[] userNext = Arrays.copyOf(this.userStart, this.users.size());
+        int[] ipNext = Arrays.copyOf(this.ipStart, this.ips.size());
+
+        for (int i = 0; i < this.records; i++) {
+            int u = this.recordUser[i];
+            int ip = this.recordIP[i];
+
+            this.userIPs[userNext[u]++] = ip;
+            this.ipUsers[ipNext[ip]++] = u;
+        }
+
+        // The records are no longer needed
+        this.recordUser = null;
+        this.recordIP = null;
+    }
+
+    // Number of accounts seen on the IP
+    protected int getSharing(int ip) {
+        return this.ipStart[ip + 1] - this.ipStart[ip];
+    }
+
+    /* Clusters */
+
+    // Returns the cluster of each account, numbered by one of its accounts
+    protected int[] cluster() {
+        int[] parent = new int[this.users.size()];
+        for (int u = 0; u < parent.length; u++) parent[u] = u;
+
+        // Every account seen on an IP joins the cluster of the first
+        for (int ip = 0; ip < this.ips.size(); ip++) {
+            int first = find(parent, this.ipUsers[this.ipStart[ip]]);
+
+            for (int j = this.ipStart[ip] + 1; j < this.ipStart[ip + 1];
+                 j++) {
+                int root = find(parent, this.ipUsers[j]);
+                if (root != first) parent[root] = first;
+            }
+        }
+
+        for (int u = 0; u < parent.length; u++) parent[u] = find(parent, u);
+        return parent;
+    }
+
+    private static int find(int[] parent, int u) {
+        while (parent[u] != u) {
+            // Path halving keeps the trees shallow
+            parent[u] = parent[parent[u]];
+            u = parent[u];
+        }
+
+        return u;
+    }
+
+    // Ranks the largest clusters, and keeps the ranking for /ipc top
+    protected ClusterRanking rankClusters(int[] cluster) {
+        int total = this.users.size();
+
+        int[] size = new int[total];
+        for (int u = 0; u < total; u++) size[cluster[u]]++;
+
+        int clusters = 0;
+        TopK<Integer> largest = new TopK<>(
+                ClusterRanking.MAX_CLUSTERS);
+
+        for (int u = 0; u < total; u++) {
+            if (cluster[u] != u || size[u] < 2) continue;
+
+            clusters++;
+            largest.offer(u, size[u]);
+        }
+
+        List<TopK.Entry<Integer>> ranked = largest.getEntries();
+
+        // Members and IPs of the clusters ranked
+        Map<Integer, List<String>> members = new HashMap<>();
+        Map<Integer, int[]> ipCounts = new HashMap<>();
+
+        for (TopK.Entry<Integer> entry : ranked) {
+            members.put(entry.getItem(), new ArrayList<String>());
+            ipCounts.put(entry.getItem(), new int[1]);
+        }
+
+        for (int u = 0; u < total; u++) {
+            List<String> names = members.get(cluster[u]);
+            if (names != null && names.size() < ClusterRanking.MAX_MEMBERS) {
+                names.add(this.users.get(u));
+            }
+        }
+
+        for (int ip = 0; ip < this.ips.size(); ip++) {
+            int[] count = ipCounts.get(cluster[this.ipUsers[this.ipStart[
+                    ip]]]);
+            if (count != null) count[0]++;
+        }
+
+        List<ClusterRanking.Cluster> result = new ArrayList<>();
+
+        for (TopK.Entry<Integer> entry : ranked) {
+            List<String> names = members.get(entry.getItem());
+            Collections.sort(names);
+
+            result.add(new ClusterRanking.Cluster((int) entry.getScore(),
+                    ipCounts.get(entry.getItem())[0], names));
+        }
+
+        ClusterRanking ranking = new ClusterRanking(result, clusters);
+        ipc.setClusterRanking(ranking);
+
+        return ranking;
+    }
+
+    // Progress is reported from worker threads too
+    protected synchronized boolean isReportDue() {
+        long now = System.currentTimeMillis();
+        if (now - this.lastReport < PROGRESS_INTERVAL) return false;
+
+        this.lastReport = now;
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import org.bukkit.command.CommandSender;
+import org.bukkit.scheduler.BukkitTask;
+
+/* Schedules the background maintenance jobs: SQLite backups (BackupTask)
+ * every backup-interval hours, and the log retention policy (RetentionTask)
+ * every retention-interval hours. Both can also be started on demand. */
+public class MaintenanceManager {
+
+    private static final long TICKS_PER_HOUR = 20L * 60 * 60;
+
+    // Give the server a minute to settle before the first retention run
+    private static final long RETENTION_DELAY = 20L * 60;
+
+    private final IPCheck ipc;
+    private final boolean mysql;
+    private final int backupCount;
+    private final int backupInterval;
+    private final int retentionInterval;
+
+    private BukkitTask backupSchedule = null;
+    private BukkitTask retentionSchedule = null;
+
+    public MaintenanceManager(final IPCheck ipc) {
+        this.ipc = ipc;
+        this.mysql = ipc.getConfigurationManager().getBoolean("use-mysql");
+        this.backupCount = Math.max(1, ipc.getConfigurationManager()
+                .getInteger("backup-count"));
+        this.backupInterval = ipc.getConfigurationManager()
+                .getInteger("backup-interval");
+        this.retentionInterval = ipc.getConfigurationManager()
+                .getInteger("retention-interval");
+    }
+
+    public void start() {
+        // Jobs skip a run if an import or export is still going
+        if (!this.mysql && this.backupInterval > 0) {
+            long period = this.backupInterval * TICKS_PER_HOUR;
+
+            this.backupSchedule = ipc.getServer().getScheduler().runTaskTimer(
+                    ipc, new Runnable() {
+                        @Override
+                        public void run() {
+                            backup(ipc.getServer().getConsoleSender());
+                        }
+                    }, period, period);
+        }
+
+        if (this.retentionInterval > 0 && ipc.getConfigurationManager()
+                .getInteger("log-retention-days") > 0) {
+            long period = this.retentionInterval * TICKS_PER_HOUR;
+
+            this.retentionSchedule = ipc.getServer().getScheduler()
+                    .runTaskTimer(ipc, new Runnable() {
+                        @Override
+                        public void run() {
+                            new RetentionTask(ipc, ipc.getServer()
+                                    .getConsoleSender(), true).start();
+                        }
+                    }, RETENTION_DELAY, period);
+        }
+    }
+
+    public void stop() {
+        if (this.backupSchedule != null) {
+            this.backupSchedule.cancel();
+            this.backupSchedule = null;
+        }
+
+        if (this.retentionSchedule != null) {
+            this.retentionSchedule.cancel();
+            this.retentionSchedule = null;
+        }
+    }
+
+    // Backups are only taken of SQLite databases
+    public boolean canBackup() {
+        return !this.mysql;
+    }
+
+    // Returns false if another transfer is still running
+    public boolean backup(CommandSender sender) {
+        return new BackupTask(ipc, sender, this.backupCount).start();
+    }
+
+    // Returns false if another transfer is still running
+    public boolean applyRetention(CommandSender sender) {
+        return new RetentionTask(ipc, sender, false).start();
+    }
+}
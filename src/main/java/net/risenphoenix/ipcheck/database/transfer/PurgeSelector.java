@@ -0,0 +1,268 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* A set of records for /ipc purge to delete, given as one of:
+ *
+ *   a.b.c.d/n      addresses in an IPv4 CIDR block
+ *   name*          players whose names start with "name"
+ *   inactive 180d  players not seen for that long (d, w, m or y)
+ *   single         players never banned and only ever seen on one address
+ *
+ * Each selector becomes a condition on ipcheck_ip or ipcheck_user that the
+ * primary key index can answer: addresses are stored as text, so a CIDR
+ * block is matched as ranges of the dotted prefixes it covers, and a name
+ * prefix as the range of names sorting after it. Banned, exempted and
+ * protected records never match. */
+public class PurgeSelector {
+
+    // Blocks are matched as up to 128 ranges, one per value of the octet
+    // the prefix ends in; wider ones would cover most addresses anyway
+    private static final int MIN_PREFIX = 8;
+
+    private final Snapshot.Table table;
+    private final String condition;
+    private final Object[] params;
+    private final String description;
+
+    private PurgeSelector(Snapshot.Table table, String condition,
+                          List<Object> params, String description) {
+        this.table = table;
+        this.condition = condition;
+        this.params = params.toArray();
+        this.description = description;
+    }
+
+    public final Snapshot.Table getTable() {
+        return this.table;
+    }
+
+    public final String getCondition() {
+        return this.condition;
+    }
+
+    public final Object[] getParams() {
+        return this.params;
+    }
+
+    public final String getDescription() {
+        return this.description;
+    }
+
+    public final boolean isPlayers() {
+        return this.table.getName().equals("ipcheck_user");
+    }
+
+    /* Returns the selector given by the arguments, or null if they name a
+     * single player or address instead. Throws IllegalArgumentException for
+     * malformed selectors. */
+    public static PurgeSelector parse(String[] args, boolean mysql) {
+        if (args.length == 0) return null;
+
+        String first = args[0].toLowerCase();
+
+        if (args.length == 1 && first.contains("/")) {
+            return cidr(first);
+        } else if (args.length == 1 && first.endsWith("*")) {
+            return prefix(first.substring(0, first.length() - 1));
+        } else if (first.equals("inactive")) {
+            if (args.length != 2) throw new IllegalArgumentException(first);
+            return inactive(args[1].toLowerCase(), mysql);
+        } else if (args.length == 1 && first.equals("single")) {
+            return single();
+        }
+
+        if (args.length > 1) throw new IllegalArgumentException(first);
+
+        return null;
+    }
+
+    private static PurgeSelector cidr(String block) {
+        String[] parts = block.split("/", -1);
+        String[] octets = parts[0].split("\\.", -1);
+
+        if (parts.length != 2 || octets.length != 4) {
+            throw new IllegalArgumentException(block);
+        }
+
+        int bits = parseInt(parts[1], block);
+        if (bits < MIN_PREFIX || bits > 32) {
+            throw new IllegalArgumentException(block);
+        }
+
+        int[] value = new int[4];
+
+        for (int i = 0; i < 4; i++) {
+            value[i] = parseInt(octets[i], block);
+            if (value[i] > 255) throw new IllegalArgumentException(block);
+        }
+
+        int whole = bits / 8;
+        int span = 1 << ((8 - bits % 8) % 8);
+
+        // Octets past the prefix are ignored, as in 10.1.2.3/8
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < whole; i++) prefix.append(value[i]).append('.');
+
+        StringBuilder condition = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+
+        if (bits == 32) {
+            condition.append("ip = ?");
+            params.add(prefix.substring(0, prefix.length() - 1));
+        } else if (whole == 3 && span > 1) {
+            // Within the last octet: the addresses themselves
+            int from = value[3] & ~(span - 1);
+
+            condition.append("ip in (");
+
+            for (int i = 0; i < span; i++) {
+                condition.append((i > 0) ? ", ?" : "?");
+                params.add(prefix.toString() + (from + i));
+            }
+
+            condition.append(')');
+        } else {
+            // Dotted prefixes sort together, and '/' follows '.'
+            int from = (span > 1) ? value[whole] & ~(span - 1) : 0;
+
+            condition.append('(');
+
+            for (int i = 0; i < span; i++) {
+                String range = prefix.toString() +
+                        ((span > 1) ? (from + i) + "." : "");
+
+                if (i > 0) condition.append(" or ");
+                condition.append("(ip >= ? and ip < ?)");
+
+                params.add(range);
+                params.add(range.substring(0, range.length() - 1) + "/");
+            }
+
+            condition.append(')');
+        }
+
+        return new PurgeSelector(Snapshot.getTable("ipcheck_ip"),
+                condition + " and " + BulkDeleteTask.KEPT, params, block);
+    }
+
+    private static PurgeSelector prefix(String name) {
+        if (name.isEmpty() || name.contains("*")) {
+            throw new IllegalArgumentException(name + "*");
+        }
+
+        // The first string sorting after every name with the prefix
+        char last = name.charAt(name.length() - 1);
+        String upper = name.substring(0, name.length() - 1) +
+                (char) (last + 1);
+
+        List<Object> params = new ArrayList<>();
+        params.add(name);
+        params.add(upper);
+
+        return players("username >= ? and username < ?", params, name + "*");
+    }
+
+    private static PurgeSelector inactive(String age, boolean mysql) {
+        int days = parseAge(age);
+        String cutoff = BulkDeleteTask.daysAgo(mysql, days);
+        Snapshot.Table user = Snapshot.getTable("ipcheck_user");
+
+        List<Object> params = new ArrayList<>();
+        params.add(cutoff);
+        params.add(cutoff);
+
+        // First seen before the cutoff, and not logged in since
+        return players("timestamp < ? and " + BulkDeleteTask.notLogged(mysql,
+                user, "username", "timestamp >= ?"), params,
+                "inactive " + age);
+    }
+
+    private static PurgeSelector single() {
+        // Unbanning keeps the ban message, so only its absence tells that
+        // a player was never banned
+        return players("banmessage is null and username in (select " +
+                "username from ipcheck_log group by username having " +
+                "count(*) = 1)", new ArrayList<>(), "single");
+    }
+
+    private static PurgeSelector players(String condition,
+                                         List<Object> params,
+                                         String description) {
+        return new PurgeSelector(Snapshot.getTable("ipcheck_user"),
+                condition + " and " + BulkDeleteTask.KEPT + " and " +
+                "protected = 0", params, description);
+    }
+
+    // A number of days, weeks, months or years, as "180d" or "6m"
+    private static int parseAge(String age) {
+        if (age.isEmpty()) throw new IllegalArgumentException(age);
+
+        char unit = age.charAt(age.length() - 1);
+        int days = 1;
+
+        if (!Character.isDigit(unit)) {
+            age = age.substring(0, age.length() - 1);
+
+            if (unit == 'w') {
+                days = 7;
+            } else if (unit == 'm') {
+                days = 30;
+            } else if (unit == 'y') {
+                days = 365;
+            } else if (unit != 'd') {
+                throw new IllegalArgumentException(age + unit);
+            }
+        }
+
+        int count = parseInt(age, age);
+        if (count <= 0) throw new IllegalArgumentException(age);
+
+        return count * days;
+    }
+
+    private static int parseInt(String text, String selector) {
+        if (text.isEmpty() || text.length() > 5) {
+            throw new IllegalArgumentException(selector);
+        }
+
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                throw new IllegalArgumentException(selector);
+            }
+        }
+
+        return Integer.parseInt(text);
+    }
+}
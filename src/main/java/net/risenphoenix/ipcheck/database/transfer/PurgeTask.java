@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/* Purges the records matched by a PurgeSelector, along with their log rows.
+ * Without confirmation only the matching records are counted, so that an
+ * administrator can check the selector before anything is deleted. */
+public class PurgeTask extends BulkDeleteTask {
+
+    private static final long PROGRESS_INTERVAL = 5000L;
+
+    private final PurgeSelector selector;
+    private final boolean confirmed;
+
+    private long total;
+    private long lastReport;
+
+    public PurgeTask(IPCheck ipc, CommandSender sender,
+                     PurgeSelector selector, boolean confirmed) {
+        super(ipc, sender);
+        this.selector = selector;
+        this.confirmed = confirmed;
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        Snapshot.Table table = this.selector.getTable();
+        String what = this.selector.getDescription();
+
+        long start = System.nanoTime();
+        this.total = this.count(c, table, this.selector.getCondition(),
+                this.selector.getParams());
+
+        String found = String.format(local.getLocalString(
+                this.selector.isPlayers() ? "PURGE_MATCH_PLAYERS" :
+                        "PURGE_MATCH_IPS"), what, this.total);
+
+        if (!this.confirmed || this.total == 0) {
+            this.message((this.total == 0) ? found : found + " " +
+                    String.format(local.getLocalString("PURGE_CONFIRM"),
+                            what));
+            return;
+        }
+
+        this.message(found);
+        this.lastReport = System.currentTimeMillis();
+
+        try {
+            this.delete(c, table, this.selector.getCondition(), true,
+                    this.selector.getParams());
+        } finally {
+            // Cached verdicts and reports may refer to deleted records
+            this.invalidateCaches();
+        }
+
+        this.message(String.format(local.getLocalString("PURGE_DONE"), what,
+                this.deleted[Snapshot.indexOf(table)], this.deleted[2],
+                LatencyHistogram.format(System.nanoTime() - start)));
+    }
+
+    @Override
+    protected void onBatch() {
+        long now = System.currentTimeMillis();
+        if (now - this.lastReport < PROGRESS_INTERVAL) return;
+
+        this.lastReport = now;
+
+        this.message(String.format(local.getLocalString("PURGE_PROGRESS"),
+                this.selector.getDescription(),
+                this.deleted[Snapshot.indexOf(this.selector.getTable())],
+                this.total));
+    }
+}
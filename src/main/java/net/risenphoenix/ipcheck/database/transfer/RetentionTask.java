@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/* Applies the log retention policy: deletes ipcheck_log rows last refreshed
+ * more than log-retention-days ago, then the players and addresses left
+ * without any log rows that were first seen before then. Banned, exempted
+ * and protected records are always kept.
+ *
+ * Rows are deleted in short batches (see BulkDeleteTask). With
+ * retention-archive enabled, deleted rows are first written to an NDJSON
+ * snapshot in the archive folder, which /ipc import can restore. Afterwards
+ * the query planner statistics are refreshed and, on SQLite databases
+ * created with incremental auto-vacuum, the freed pages are released a few
+ * at a time. */
+public class RetentionTask extends BulkDeleteTask {
+
+    public static final String ARCHIVE_FOLDER = "archive";
+
+    private static final int VACUUM_PAGES = 256;
+
+    private final int days;
+    private final boolean optimize;
+    private final boolean quiet;
+
+    public RetentionTask(IPCheck ipc, CommandSender sender, boolean quiet) {
+        super(ipc, sender);
+
+        this.days = ipc.getConfigurationManager()
+                .getInteger("log-retention-days");
+        this.optimize = ipc.getConfigurationManager()
+                .getBoolean("retention-optimize");
+        this.quiet = quiet;
+
+        if (ipc.getConfigurationManager().getBoolean("retention-archive")) {
+            this.archiveTo("ipcheck-retention");
+        }
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        if (this.days <= 0) {
+            if (!this.quiet) {
+                this.message(local.getLocalString("RETENTION_DISABLED"));
+            }
+
+            return;
+        }
+
+        long start = System.nanoTime();
+        String cutoff = daysAgo(this.mysql, this.days);
+
+        try {
+            Snapshot.Table log = Snapshot.getTable("ipcheck_log");
+            Snapshot.Table user = Snapshot.getTable("ipcheck_user");
+            Snapshot.Table ip = Snapshot.getTable("ipcheck_ip");
+
+            // Log rows go first, leaving the records they referred to
+            // without any
+            this.delete(c, log, "timestamp < ?", false, cutoff);
+            this.delete(c, user, "timestamp < ? and " + KEPT + " and " +
+                    "protected = 0 and " + notLogged(this.mysql, user,
+                    "username", null), false, cutoff);
+            this.delete(c, ip, "timestamp < ? and " + KEPT + " and " +
+                    notLogged(this.mysql, ip, "ip", null), false, cutoff);
+        } finally {
+            this.closeArchive();
+        }
+
+        long total = this.getDeleted();
+
+        // Reports may list expired log rows
+        if (total > 0) this.invalidateCaches();
+
+        if (total > 0 && this.optimize) this.optimize(c);
+
+        if (total > 0 || !this.quiet) {
+            SnapshotWriter out = this.getArchive();
+            String archived = (out == null) ? "" : " " + String.format(
+                    local.getLocalString("RETENTION_ARCHIVED"),
+                    ARCHIVE_FOLDER + "/" + out.getName());
+
+            this.message(String.format(local.getLocalString("RETENTION_DONE"),
+                    this.deleted[2], this.deleted[0], this.deleted[1],
+                    this.days, LatencyHistogram.format(
+                            System.nanoTime() - start)) + archived);
+        }
+    }
+
+    // Refreshes planner statistics, and returns free pages to the system
+    private void optimize(Connection c) throws SQLException {
+        try (Statement s = c.createStatement()) {
+            if (this.mysql) {
+                s.execute("ANALYZE TABLE ipcheck_log, ipcheck_user, " +
+                        "ipcheck_ip");
+                return;
+            }
+
+            // Only analyzes what has changed enough to matter
+            s.execute("PRAGMA optimize");
+
+            // 2 = incremental; other databases would need a full VACUUM
+            if (pragma(s, "auto_vacuum") != 2) return;
+
+            while (pragma(s, "freelist_count") > 0 && ipc.isEnabled()) {
+                s.executeUpdate("PRAGMA incremental_vacuum(" + VACUUM_PAGES +
+                        ")");
+
+                pause();
+            }
+        }
+    }
+
+    private static long pragma(Statement s, String name) throws SQLException {
+        try (ResultSet res = s.executeQuery("PRAGMA " + name)) {
+            return res.next() ? res.getLong(1) : 0;
+        }
+    }
+}
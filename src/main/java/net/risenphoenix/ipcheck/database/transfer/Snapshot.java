@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/* Layout of the database snapshots written by /ipc export and read back by
+ * /ipc import. The binary format is a GZIP stream of:
+ *
+ *   "IPCX" VERSION
+ *   per table:  TABLE name column-count column-name...
+ *               (ROW value...)...
+ *               END_TABLE
+ *   END
+ *
+ * where names and text values are a four byte length followed by UTF-8
+ * bytes, and each value is a type byte (NULL, TEXT or INTEGER) followed by
+ * the text or an eight byte integer. Rows are self-delimiting, so the file
+ * can be written and read one row at a time. The NDJSON format holds one
+ * object per row, naming its table in the "table" member; CSV exports, one
+ * file per table, are meant for spreadsheets and cannot be imported. */
+public final class Snapshot {
+
+    static final byte[] MAGIC = {'I', 'P', 'C', 'X'};
+    static final byte VERSION = 1;
+
+    // Record markers
+    static final byte END = 0;
+    static final byte TABLE = 1;
+    static final byte ROW = 2;
+    static final byte END_TABLE = 3;
+
+    // Value types
+    static final byte NULL = 0;
+    static final byte TEXT = 1;
+    static final byte INTEGER = 2;
+
+    public static final Table[] TABLES = {
+            new Table("ipcheck_user", new String[]{"username", "uuid",
+                    "timestamp", "banmessage", "banned", "exempted",
+                    "rejoinexempt", "protected"},
+                    new String[]{"username"}, new String[]{"username"}),
+            new Table("ipcheck_ip", new String[]{"ip", "timestamp",
+                    "banned", "exempted", "rejoinexempt"},
+                    new String[]{"ip"}, new String[]{"ip"}),
+            // The two dialects declare the log's key in different orders
+            new Table("ipcheck_log", new String[]{"ip", "username",
+                    "timestamp"}, new String[]{"username", "ip"},
+                    new String[]{"ip", "username"})};
+
+    private Snapshot() {}
+
+    public static Table getTable(String name) {
+        for (Table table : TABLES) {
+            if (table.getName().equalsIgnoreCase(name)) return table;
+        }
+
+        return null;
+    }
+
+    // Position of the table in TABLES
+    public static int indexOf(Table table) {
+        for (int i = 0; i < TABLES.length; i++) {
+            if (TABLES[i] == table) return i;
+        }
+
+        throw new IllegalArgumentException(table.getName());
+    }
+
+    public enum Format {
+        BINARY("ipcx"), CSV("csv.gz"), NDJSON("ndjson.gz");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return this.extension;
+        }
+
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) return format;
+            }
+
+            return null;
+        }
+    }
+
+    public static final class Table {
+        private final String name;
+        private final String[] columns;
+        private final int[] sqliteKey;
+        private final int[] mysqlKey;
+
+        private Table(String name, String[] columns, String[] sqliteKey,
+                      String[] mysqlKey) {
+            this.name = name;
+            this.columns = columns;
+            this.sqliteKey = this.indexesOf(sqliteKey);
+            this.mysqlKey = this.indexesOf(mysqlKey);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String[] getColumns() {
+            return this.columns;
+        }
+
+        public int indexOf(String column) {
+            for (int i = 0; i < this.columns.length; i++) {
+                if (this.columns[i].equalsIgnoreCase(column)) return i;
+            }
+
+            return -1;
+        }
+
+        public boolean isFlag(int column) {
+            switch (this.columns[column]) {
+                case "banned":
+                case "exempted":
+                case "rejoinexempt":
+                case "protected":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        public boolean isTimestamp(int column) {
+            return this.columns[column].equals("timestamp");
+        }
+
+        // Columns of the primary key, in index order
+        public int[] getKey(boolean mysql) {
+            return mysql ? this.mysqlKey : this.sqliteKey;
+        }
+
+        // "select <all columns> from <table>"
+        public String select() {
+            StringBuilder sql = new StringBuilder("select ");
+
+            for (int i = 0; i < this.columns.length; i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(this.columns[i]);
+            }
+
+            return sql.append(" from ").append(this.name).toString();
+        }
+
+        // "order by <primary key>"
+        public String orderByKey(boolean mysql) {
+            StringBuilder sql = new StringBuilder("order by ");
+            int[] key = this.getKey(mysql);
+
+            for (int i = 0; i < key.length; i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(this.columns[key[i]]);
+            }
+
+            return sql.toString();
+        }
+
+        // Keyset condition for the rows after a key of one or two columns,
+        // as "a >= ? and (a > ? or b > ?)" so that both dialects use the
+        // primary key index. Bound with bindAfter.
+        public String after(boolean mysql) {
+            int[] key = this.getKey(mysql);
+            if (key.length == 1) return this.columns[key[0]] + " > ?";
+
+            String a = this.columns[key[0]];
+            String b = this.columns[key[1]];
+
+            return a + " >= ? and (" + a + " > ? or " + b + " > ?)";
+        }
+
+        // Binds the key of a row read with read() to the parameters of
+        // after(), starting at the given index; returns the next index
+        public int bindAfter(PreparedStatement s, int index, Object[] row,
+                             boolean mysql) throws SQLException {
+            int[] key = this.getKey(mysql);
+
+            for (int i = 0; i < key.length; i++) {
+                s.setString(index++, (String) row[key[i]]);
+
+                if (i < key.length - 1) {
+                    s.setString(index++, (String) row[key[i]]);
+                }
+            }
+
+            return index;
+        }
+
+        // Reads a row selected with select() as Strings and Longs
+        public void read(ResultSet res, Object[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (this.isFlag(i)) {
+                    long flag = res.getLong(i + 1);
+                    values[i] = res.wasNull() ? null : flag;
+                    continue;
+                }
+
+                String text = res.getString(i + 1);
+
+                // MySQL renders timestamps with a fraction ("...:00.0")
+                if (text != null && this.isTimestamp(i) &&
+                        text.length() > 19 && text.charAt(19) == '.') {
+                    text = text.substring(0, 19);
+                }
+
+                values[i] = text;
+            }
+        }
+
+        private int[] indexesOf(String[] names) {
+            int[] indexes = new int[names.length];
+
+            for (int i = 0; i < names.length; i++) {
+                indexes[i] = this.indexOf(names[i]);
+            }
+
+            return indexes;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/* Exports ipcheck_user, ipcheck_ip and ipcheck_log to a snapshot in the
+ * exports folder. Each table is walked in primary key order in chunks of
+ * CHUNK_SIZE rows, each chunk a short forward-only query resuming after the
+ * last key of the one before. No chunk holds its read lock for long, so the
+ * server's own connection can keep writing (SQLite locks the whole file),
+ * and memory use stays the same whatever the size of the tables. */
+public class SnapshotExporter extends TransferTask {
+
+    public static final String EXPORT_FOLDER = "exports";
+
+    private static final int CHUNK_SIZE = 5000;
+    private static final long PROGRESS_INTERVAL = 5000L;
+
+    private final Snapshot.Format format;
+    private final boolean mysql;
+
+    private long start;
+    private long lastReport;
+    private long rows = 0;
+
+    public SnapshotExporter(IPCheck ipc, CommandSender sender,
+                            Snapshot.Format format) {
+        super(ipc, sender);
+        this.format = format;
+        this.mysql = ipc.getConfigurationManager().getBoolean("use-mysql");
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        File folder = new File(ipc.getDataFolder(), EXPORT_FOLDER);
+
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder.getPath());
+        }
+
+        String base = "ipcheck-" + new SimpleDateFormat("yyyyMMdd-HHmmss")
+                .format(new Date());
+
+        this.start = System.nanoTime();
+        this.lastReport = System.currentTimeMillis();
+
+        SnapshotWriter out = SnapshotWriter.create(this.format, folder, base);
+        this.message(String.format(local.getLocalString("EXPORT_START"),
+                out.getName()));
+
+        try {
+            for (Snapshot.Table table : Snapshot.TABLES) {
+                out.beginTable(table);
+                this.exportTable(c, table, out);
+                out.endTable();
+            }
+
+            out.finish();
+            out.close();
+        } catch (SQLException | IOException e) {
+            out.delete();
+            throw e;
+        }
+
+        this.message(String.format(local.getLocalString("EXPORT_DONE"),
+                this.rows, out.getName(), formatSize(out.getSize()),
+                LatencyHistogram.format(System.nanoTime() - this.start)));
+    }
+
+    private void exportTable(Connection c, Snapshot.Table table,
+                             SnapshotWriter out)
+            throws SQLException, IOException {
+        Object[] values = new Object[table.getColumns().length];
+
+        String order = " " + table.orderByKey(this.mysql) + " limit " +
+                CHUNK_SIZE;
+        String first = table.select() + order;
+        String next = table.select() + " where " + table.after(this.mysql) +
+                order;
+
+        boolean more = true;
+        boolean started = false;
+
+        while (more) {
+            // Stop if the plugin is going away
+            if (!ipc.isEnabled()) throw new IOException("Plugin disabled");
+
+            try (PreparedStatement s = c.prepareStatement(started ? next :
+                    first, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                s.setFetchSize(CHUNK_SIZE);
+
+                // Resume after the last key of the previous chunk
+                if (started) table.bindAfter(s, 1, values, this.mysql);
+
+                int count = 0;
+
+                try (ResultSet res = s.executeQuery()) {
+                    while (res.next()) {
+                        table.read(res, values);
+                        out.writeRow(values);
+                        count++;
+                    }
+                }
+
+                this.rows += count;
+                more = count == CHUNK_SIZE;
+                started = true;
+            }
+
+            this.report(out);
+        }
+    }
+
+    private void report(SnapshotWriter out) {
+        long now = System.currentTimeMillis();
+        if (now - this.lastReport < PROGRESS_INTERVAL) return;
+
+        this.lastReport = now;
+        double seconds = (System.nanoTime() - this.start) / 1e9;
+
+        this.message(String.format(local.getLocalString("EXPORT_PROGRESS"),
+                out.getName(), this.rows, Math.round(this.rows / seconds)));
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024L) return bytes + " B";
+        if (bytes < 1024L * 1024) return String.format("%.1f KiB",
+                bytes / 1024.0);
+
+        return String.format("%.1f MiB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.LatencyHistogram;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.logging.Level;
+
+/* Restores a snapshot written by SnapshotExporter. Rows are read one at a
+ * time and written with batched "replace into" statements, committing every
+ * BATCH_SIZE rows: rows of the snapshot replace those with the same key, and
+ * rows missing from it are left alone. Replacing is idempotent, so a restore
+ * interrupted by a shutdown can simply be run again. */
+public class SnapshotImporter extends TransferTask {
+
+    private static final int BATCH_SIZE = 5000;
+    private static final long PROGRESS_INTERVAL = 5000L;
+
+    private final File file;
+
+    public SnapshotImporter(IPCheck ipc, CommandSender sender, File file) {
+        super(ipc, sender);
+        this.file = file;
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        Snapshot.Table[] tables = Snapshot.TABLES;
+        PreparedStatement[] statements = new PreparedStatement[tables.length];
+
+        long start = System.nanoTime();
+        long lastReport = System.currentTimeMillis();
+
+        c.setAutoCommit(false);
+
+        this.message(String.format(local.getLocalString("RESTORE_START"),
+                this.file.getName()));
+
+        try (SnapshotReader in = SnapshotReader.open(this.file)) {
+            for (int i = 0; i < tables.length; i++) {
+                statements[i] = c.prepareStatement(replace(tables[i]));
+            }
+
+            int pending = 0;
+
+            while (in.next()) {
+                Snapshot.Table table = in.getTable();
+                PreparedStatement statement =
+                        statements[Snapshot.indexOf(table)];
+
+                bind(statement, table, in.getValues());
+                statement.addBatch();
+
+                if (++pending < BATCH_SIZE) continue;
+
+                commit(c, statements);
+                pending = 0;
+
+                // Stop if the plugin is going away
+                if (!ipc.isEnabled()) {
+                    ipc.sendConsoleMessage(Level.WARNING, String.format(
+                            local.getLocalString("RESTORE_STOPPED"),
+                            this.file.getName(), in.getRows()));
+                    return;
+                }
+
+                long now = System.currentTimeMillis();
+
+                if (now - lastReport >= PROGRESS_INTERVAL) {
+                    lastReport = now;
+                    double seconds = (System.nanoTime() - start) / 1e9;
+
+                    this.message(String.format(local.getLocalString(
+                            "RESTORE_PROGRESS"), this.file.getName(),
+                            in.getRows(), Math.round(in.getRows() / seconds)));
+                }
+            }
+
+            commit(c, statements);
+
+            this.message(String.format(local.getLocalString("RESTORE_DONE"),
+                    in.getRows(), this.file.getName(),
+                    LatencyHistogram.format(System.nanoTime() - start)));
+        } catch (SQLException | IOException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            for (PreparedStatement statement : statements) {
+                if (statement != null) statement.close();
+            }
+        }
+
+        // Cached verdicts and reports may no longer hold
+        this.invalidateCaches();
+    }
+
+    // "replace into" is understood by both SQLite and MySQL
+    private static String replace(Snapshot.Table table) {
+        String[] columns = table.getColumns();
+        StringBuilder names = new StringBuilder();
+        StringBuilder params = new StringBuilder();
+
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                names.append(", ");
+                params.append(", ");
+            }
+
+            names.append(columns[i]);
+            params.append('?');
+        }
+
+        return "replace into " + table.getName() + " (" + names +
+                ") values (" + params + ")";
+    }
+
+    private static void bind(PreparedStatement statement,
+                             Snapshot.Table table, Object[] values)
+            throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+
+            if (table.isFlag(i)) {
+                statement.setLong(i + 1, (value == null) ? 0 :
+                        toFlag(value));
+            } else if (value == null) {
+                statement.setNull(i + 1, Types.VARCHAR);
+            } else {
+                statement.setString(i + 1, value.toString());
+            }
+        }
+    }
+
+    private static long toFlag(Object value) {
+        if (value instanceof Long) return ((Long) value != 0) ? 1 : 0;
+
+        String text = value.toString();
+        return (text.equals("1") || text.equalsIgnoreCase("true")) ? 1 : 0;
+    }
+
+    private static void commit(Connection c, PreparedStatement[] batch)
+            throws SQLException {
+        for (PreparedStatement statement : batch) {
+            statement.executeBatch();
+        }
+
+        c.commit();
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/* Reads the rows of a snapshot back one at a time. The format is detected
+ * from the content: binary snapshots start with Snapshot.MAGIC, anything else
+ * is read as NDJSON, and either may or may not be compressed. Rows are
+ * returned in the column order of the Snapshot table definitions; columns
+ * the file lacks are null, or 0 for flags, and unknown ones are dropped. */
+public abstract class SnapshotReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected Snapshot.Table table = null;
+    protected Object[] values = null;
+    private long rows = 0;
+
+    public static SnapshotReader open(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file),
+                BUFFER_SIZE);
+
+        try {
+            in.mark(2);
+            boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+            in.reset();
+
+            if (gzip) {
+                in = new BufferedInputStream(new GZIPInputStream(in,
+                        BUFFER_SIZE), BUFFER_SIZE);
+            }
+
+            byte[] magic = new byte[Snapshot.MAGIC.length];
+            in.mark(magic.length);
+            int read = in.read(magic);
+            in.reset();
+
+            if (read == magic.length && Arrays.equals(magic, Snapshot.MAGIC)) {
+                return new Binary(in);
+            }
+
+            return new Ndjson(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    // Advances to the next row; false at the end of the snapshot
+    public boolean next() throws IOException {
+        if (!this.readRow()) return false;
+
+        this.rows++;
+        return true;
+    }
+
+    protected abstract boolean readRow() throws IOException;
+
+    public Snapshot.Table getTable() {
+        return this.table;
+    }
+
+    public Object[] getValues() {
+        return this.values;
+    }
+
+    public long getRows() {
+        return this.rows;
+    }
+
+    // Starts a row with the defaults for columns missing from the file
+    protected void resetValues() {
+        this.values = new Object[this.table.getColumns().length];
+
+        for (int i = 0; i < this.values.length; i++) {
+            if (this.table.isFlag(i)) this.values[i] = 0L;
+        }
+    }
+
+    private static IOException invalid(String reason) {
+        return new IOException("Not a valid IP-Check snapshot (" + reason +
+                ")");
+    }
+
+    private static class Binary extends SnapshotReader {
+        private final DataInputStream in;
+
+        // Position of each of the file's columns in the table, or -1
+        private int[] mapping;
+
+        private Binary(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            this.in.skipBytes(Snapshot.MAGIC.length);
+
+            byte version = this.in.readByte();
+            if (version > Snapshot.VERSION) {
+                throw invalid("version " + version);
+            }
+        }
+
+        @Override
+        protected boolean readRow() throws IOException {
+            while (true) {
+                byte marker = this.in.readByte();
+
+                switch (marker) {
+                    case Snapshot.END:
+                        return false;
+                    case Snapshot.TABLE:
+                        this.readTable();
+                        break;
+                    case Snapshot.END_TABLE:
+                        this.table = null;
+                        break;
+                    case Snapshot.ROW:
+                        this.readValues();
+                        if (this.table != null) return true;
+                        break;
+                    default:
+                        throw invalid("marker " + marker);
+                }
+            }
+        }
+
+        private void readTable() throws IOException {
+            String name = this.readString();
+            int columns = this.in.readUnsignedByte();
+
+            // Rows of unknown tables are read and dropped
+            this.table = Snapshot.getTable(name);
+            this.mapping = new int[columns];
+
+            for (int i = 0; i < columns; i++) {
+                String column = this.readString();
+                this.mapping[i] = (this.table != null) ?
+                        this.table.indexOf(column) : -1;
+            }
+        }
+
+        private void readValues() throws IOException {
+            if (this.mapping == null) throw invalid("row outside a table");
+            if (this.table != null) this.resetValues();
+
+            for (int column : this.mapping) {
+                byte type = this.in.readByte();
+                Object value;
+
+                switch (type) {
+                    case Snapshot.NULL:
+                        value = null;
+                        break;
+                    case Snapshot.TEXT:
+                        value = this.readString();
+                        break;
+                    case Snapshot.INTEGER:
+                        value = this.in.readLong();
+                        break;
+                    default:
+                        throw invalid("value type " + type);
+                }
+
+                if (column >= 0) this.values[column] = value;
+            }
+        }
+
+        private String readString() throws IOException {
+            int length = this.in.readInt();
+            if (length < 0) throw invalid("length " + length);
+
+            byte[] bytes = new byte[length];
+            this.in.readFully(bytes);
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+    private static class Ndjson extends SnapshotReader {
+        private final JsonReader json;
+
+        // Members of the object being read, reused from row to row
+        private String[] names = new String[16];
+        private Object[] members = new Object[16];
+
+        private Ndjson(InputStream in) {
+            this.json = new JsonReader(new InputStreamReader(in,
+                    StandardCharsets.UTF_8));
+
+            // Lenient mode accepts a sequence of top-level objects
+            this.json.setLenient(true);
+        }
+
+        @Override
+        protected boolean readRow() throws IOException {
+            while (true) {
+                JsonToken token = this.json.peek();
+
+                if (token == JsonToken.END_DOCUMENT) return false;
+                if (token != JsonToken.BEGIN_OBJECT) {
+                    throw invalid("expected an object, found " + token);
+                }
+
+                if (this.readObject()) return true;
+            }
+        }
+
+        // Returns false for rows of unknown tables
+        private boolean readObject() throws IOException {
+            int count = 0;
+            String table = null;
+
+            // The table is usually, but not necessarily, the first member
+            this.json.beginObject();
+
+            while (this.json.hasNext()) {
+                String name = this.json.nextName();
+                Object value = this.readValue();
+
+                if (name.equals("table")) {
+                    table = (value != null) ? value.toString() : null;
+                    continue;
+                }
+
+                if (count == this.names.length) {
+                    this.names = Arrays.copyOf(this.names, count * 2);
+                    this.members = Arrays.copyOf(this.members, count * 2);
+                }
+
+                this.names[count] = name;
+                this.members[count++] = value;
+            }
+
+            this.json.endObject();
+
+            if (table == null) throw invalid("row without a table");
+
+            this.table = Snapshot.getTable(table);
+            if (this.table == null) return false;
+
+            this.resetValues();
+
+            for (int i = 0; i < count; i++) {
+                int column = this.table.indexOf(this.names[i]);
+                if (column >= 0) this.values[column] = this.members[i];
+            }
+
+            return true;
+        }
+
+        private Object readValue() throws IOException {
+            switch (this.json.peek()) {
+                case NULL:
+                    this.json.nextNull();
+                    return null;
+                case NUMBER:
+                    return this.json.nextLong();
+                case BOOLEAN:
+                    return this.json.nextBoolean() ? 1L : 0L;
+                case STRING:
+                    return this.json.nextString();
+                default:
+                    this.json.skipValue();
+                    return null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.json.close();
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/* Writes a snapshot one row at a time. Rows are encoded into a fixed buffer
+ * which is drained into a GZIP channel over the file whenever it fills up,
+ * so memory use does not depend on the size of the tables. */
+public abstract class SnapshotWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final List<File> files = new ArrayList<>();
+    private WritableByteChannel channel = null;
+
+    protected final File folder;
+    protected final String base;
+
+    protected SnapshotWriter(File folder, String base) {
+        this.folder = folder;
+        this.base = base;
+    }
+
+    public static SnapshotWriter create(Snapshot.Format format, File folder,
+                                        String base) throws IOException {
+        switch (format) {
+            case CSV:
+                return new Csv(folder, base);
+            case NDJSON:
+                return new Ndjson(folder, base);
+            default:
+                return new Binary(folder, base);
+        }
+    }
+
+    public abstract void beginTable(Snapshot.Table table) throws IOException;
+
+    // Values are Strings, Longs or null, in the table's column order
+    public abstract void writeRow(Object[] values) throws IOException;
+
+    public abstract void endTable() throws IOException;
+
+    public void finish() throws IOException {
+        // Nothing to do
+    }
+
+    // Name to report to the user
+    public abstract String getName();
+
+    public long getSize() {
+        long size = 0;
+
+        for (File file : this.files) {
+            size += file.length();
+        }
+
+        return size;
+    }
+
+    // Removes the files of an export that did not complete
+    public void delete() throws IOException {
+        this.close();
+
+        for (File file : this.files) {
+            if (!file.delete()) file.deleteOnExit();
+        }
+    }
+
+    protected void open(File file) throws IOException {
+        this.close();
+
+        FileChannel out = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        this.files.add(file);
+        this.channel = Channels.newChannel(new GZIPOutputStream(
+                Channels.newOutputStream(out), BUFFER_SIZE));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.channel == null) return;
+
+        try {
+            this.drain();
+        } finally {
+            this.channel.close();
+            this.channel = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        this.buffer.flip();
+
+        while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+        }
+
+        this.buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (this.buffer.remaining() < bytes) this.drain();
+    }
+
+    protected void putByte(byte value) throws IOException {
+        this.ensure(1);
+        this.buffer.put(value);
+    }
+
+    protected void putInt(int value) throws IOException {
+        this.ensure(4);
+        this.buffer.putInt(value);
+    }
+
+    protected void putLong(long value) throws IOException {
+        this.ensure(8);
+        this.buffer.putLong(value);
+    }
+
+    protected void putBytes(byte[] bytes) throws IOException {
+        this.ensure(bytes.length);
+
+        if (bytes.length <= this.buffer.remaining()) {
+            this.buffer.put(bytes);
+            return;
+        }
+
+        // Larger than the whole buffer
+        ByteBuffer large = ByteBuffer.wrap(bytes);
+
+        while (large.hasRemaining()) {
+            this.channel.write(large);
+        }
+    }
+
+    protected void putText(CharSequence text) throws IOException {
+        this.putBytes(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Length-prefixed binary format, see Snapshot
+    private static class Binary extends SnapshotWriter {
+        private final File file;
+
+        private Binary(File folder, String base) throws IOException {
+            super(folder, base);
+
+            this.file = new File(folder, base + "." +
+                    Snapshot.Format.BINARY.getExtension());
+            this.open(this.file);
+            this.putBytes(Snapshot.MAGIC);
+            this.putByte(Snapshot.VERSION);
+        }
+
+        @Override
+        public void beginTable(Snapshot.Table table) throws IOException {
+            String[] columns = table.getColumns();
+
+            this.putByte(Snapshot.TABLE);
+            this.putString(table.getName());
+            this.putByte((byte) columns.length);
+
+            for (String column : columns) {
+                this.putString(column);
+            }
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            this.putByte(Snapshot.ROW);
+
+            for (Object value : values) {
+                if (value == null) {
+                    this.putByte(Snapshot.NULL);
+                } else if (value instanceof Long) {
+                    this.putByte(Snapshot.INTEGER);
+                    this.putLong((Long) value);
+                } else {
+                    this.putByte(Snapshot.TEXT);
+                    this.putString(value.toString());
+                }
+            }
+        }
+
+        @Override
+        public void endTable() throws IOException {
+            this.putByte(Snapshot.END_TABLE);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.putByte(Snapshot.END);
+        }
+
+        @Override
+        public String getName() {
+            return this.file.getName();
+        }
+
+        private void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            this.putInt(bytes.length);
+            this.putBytes(bytes);
+        }
+    }
+
+    // One compressed CSV file per table, with a header line
+    private static class Csv extends SnapshotWriter {
+        private final StringBuilder line = new StringBuilder();
+
+        private Csv(File folder, String base) {
+            super(folder, base);
+        }
+
+        @Override
+        public void beginTable(Snapshot.Table table) throws IOException {
+            this.open(new File(this.folder, this.base + "-" +
+                    table.getName() + "." +
+                    Snapshot.Format.CSV.getExtension()));
+            this.writeRow(table.getColumns());
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            this.line.setLength(0);
+
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) this.line.append(',');
+                if (values[i] != null) this.append(values[i].toString());
+            }
+
+            this.putText(this.line.append("\r\n"));
+        }
+
+        @Override
+        public void endTable() throws IOException {
+            this.close();
+        }
+
+        @Override
+        public String getName() {
+            return this.base + "-*." + Snapshot.Format.CSV.getExtension();
+        }
+
+        private void append(String value) {
+            boolean quote = false;
+
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+
+            if (!quote) {
+                this.line.append(value);
+                return;
+            }
+
+            this.line.append('"').append(value.replace("\"", "\"\""))
+                    .append('"');
+        }
+    }
+
+    // One JSON object per line, naming its table
+    private static class Ndjson extends SnapshotWriter {
+        private final StringBuilder line = new StringBuilder();
+        private final File file;
+        private Snapshot.Table table = null;
+
+        private Ndjson(File folder, String base) throws IOException {
+            super(folder, base);
+
+            this.file = new File(folder, base + "." +
+                    Snapshot.Format.NDJSON.getExtension());
+            this.open(this.file);
+        }
+
+        @Override
+        public void beginTable(Snapshot.Table table) {
+            this.table = table;
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            String[] columns = this.table.getColumns();
+
+            this.line.setLength(0);
+            this.line.append("{\"table\":");
+            this.append(this.table.getName());
+
+            for (int i = 0; i < values.length; i++) {
+                this.line.append(',');
+                this.append(columns[i]);
+                this.line.append(':');
+
+                if (values[i] == null || values[i] instanceof Long) {
+                    this.line.append(values[i]);
+                } else {
+                    this.append(values[i].toString());
+                }
+            }
+
+            this.putText(this.line.append("}\n"));
+        }
+
+        @Override
+        public void endTable() {
+            this.table = null;
+        }
+
+        @Override
+        public String getName() {
+            return this.file.getName();
+        }
+
+        private void append(String value) {
+            this.line.append('"');
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+
+                switch (c) {
+                    case '"':
+                        this.line.append("\\\"");
+                        break;
+                    case '\\':
+                        this.line.append("\\\\");
+                        break;
+                    case '\n':
+                        this.line.append("\\n");
+                        break;
+                    case '\r':
+                        this.line.append("\\r");
+                        break;
+                    case '\t':
+                        this.line.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            this.line.append(String.format("\\u%04x",
+                                    (int) c));
+                        } else {
+                            this.line.append(c);
+                        }
+                }
+            }
+
+            this.line.append('"');
+        }
+    }
+}
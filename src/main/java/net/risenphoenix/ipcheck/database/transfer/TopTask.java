@@ -0,0 +1,272 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.commons.localization.LocalizationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.commands.block.BlockManager;
+import net.risenphoenix.ipcheck.objects.ClusterRanking;
+import net.risenphoenix.ipcheck.util.ChatBuffer;
+import net.risenphoenix.ipcheck.util.ListFormatter;
+import net.risenphoenix.ipcheck.util.TimeCalculator;
+import net.risenphoenix.ipcheck.util.TopK;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Ranks, for /ipc top, the k largest clusters of linked accounts, the k IPs
+ * shared by the most accounts, or the k countries the most accounts were
+ * seen from:
+ *   - IPs are counted by the database, off the index on the log's IPs;
+ *   - clusters are found in the log read into memory, and the ranking is
+ *     kept, so that it can be shown again at once for a while;
+ *   - countries are counted in the log read into memory, each IP looked up
+ *     once and each account counted once per country.
+ * Rankings are made with a bounded heap, so only the k entries shown are
+ * ever sorted. */
+public class TopTask extends LinkGraphTask {
+
+    public enum Mode {
+        CLUSTERS, IPS, COUNTRIES;
+
+        public static Mode fromName(String name) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(name)) return mode;
+            }
+
+            return null;
+        }
+    }
+
+    public static final int DEFAULT_K = 10;
+    public static final int MAX_K = ClusterRanking.MAX_CLUSTERS;
+
+    // Accounts named for each cluster
+    private static final int MEMBERS_SHOWN = 5;
+
+    private final Mode mode;
+    private final int k;
+
+    public TopTask(IPCheck ipc, CommandSender sender, Mode mode, int k) {
+        super(ipc, sender);
+        this.mode = mode;
+        this.k = k;
+    }
+
+    @Override
+    protected void execute(Connection c) throws SQLException, IOException {
+        List<String> lines;
+
+        if (this.mode == Mode.IPS) {
+            lines = this.rankIPs(c);
+        } else {
+            this.message(local.getLocalString("TOP_READING"));
+            this.readGraph(c);
+
+            if (this.mode == Mode.CLUSTERS) {
+                lines = renderClusters(ipc, this.rankClusters(
+                        this.cluster()), this.k);
+            } else {
+                lines = this.rankCountries();
+            }
+        }
+
+        this.send(lines);
+    }
+
+    private List<String> rankIPs(Connection c) throws SQLException {
+        // Log records are unique by IP and account
+        String SQL = "select ip, count(*) as accounts from ipcheck_log " +
+                "group by ip having count(*) > 1 order by accounts desc, ip " +
+                "limit ?";
+
+        List<String> lines = new ArrayList<>();
+        boolean showIPs = sender.hasPermission("ipcheck.showip") ||
+                sender.isOp();
+
+        try (PreparedStatement s = c.prepareStatement(SQL)) {
+            s.setInt(1, this.k);
+
+            try (ResultSet res = s.executeQuery()) {
+                while (res.next()) {
+                    lines.add(entry(lines.size() + 1).append(ChatColor.RED)
+                            .append(showIPs ? res.getString(1) : "####")
+                            .append(ChatColor.YELLOW).append(": ")
+                            .append(String.format(local.getLocalString(
+                                    "TOP_ACCOUNTS"), res.getLong(2)))
+                            .toString());
+                }
+            }
+        }
+
+        return frame(local, "TOP_IPS_TITLE", lines, null);
+    }
+
+    private List<String> rankCountries() {
+        BlockManager blocks = ipc.getBlockManager();
+
+        // Country of each IP, numbered
+        Map<String, Integer> countryIds = new HashMap<>();
+        List<String> countries = new ArrayList<>();
+        int[] country = new int[this.ips.size()];
+
+        for (int ip = 0; ip < country.length; ip++) {
+            String name = blocks.getCountry(this.ips.get(ip));
+            country[ip] = -1;
+            if (name == null || name.equals(BlockManager.UNKNOWN_COUNTRY)) {
+                continue;
+            }
+
+            Integer id = countryIds.get(name);
+
+            if (id == null) {
+                id = countries.size();
+                countryIds.put(name, id);
+                countries.add(name);
+            }
+
+            country[ip] = id;
+        }
+
+        // Accounts per country, each counted once however many of the
+        // country's IPs it was seen on
+        int[] accounts = new int[countries.size()];
+        int[] seen = new int[countries.size()];
+
+        for (int u = 0; u < this.users.size(); u++) {
+            for (int i = this.userStart[u]; i < this.userStart[u + 1]; i++) {
+                int id = country[this.userIPs[i]];
+                if (id < 0 || seen[id] == u + 1) continue;
+
+                seen[id] = u + 1;
+                accounts[id]++;
+            }
+        }
+
+        TopK<String> top = new TopK<>(this.k);
+        for (int id = 0; id < accounts.length; id++) {
+            top.offer(countries.get(id), accounts[id]);
+        }
+
+        List<String> lines = new ArrayList<>();
+
+        for (TopK.Entry<String> entry : top.getEntries()) {
+            lines.add(entry(lines.size() + 1).append(ChatColor.RED)
+                    .append(entry.getItem()).append(ChatColor.YELLOW)
+                    .append(": ").append(String.format(local.getLocalString(
+                            "TOP_ACCOUNTS"), entry.getScore())).toString());
+        }
+
+        return frame(local, "TOP_COUNTRIES_TITLE", lines, null);
+    }
+
+    // Renders the first k clusters of the ranking
+    public static List<String> renderClusters(IPCheck ipc,
+                                              ClusterRanking ranking, int k) {
+        LocalizationManager local = ipc.getLocalizationManager();
+        List<ClusterRanking.Cluster> clusters = ranking.getClusters();
+        List<String> lines = new ArrayList<>();
+
+        for (int i = 0; i < Math.min(k, clusters.size()); i++) {
+            ClusterRanking.Cluster cluster = clusters.get(i);
+            int shown = Math.min(MEMBERS_SHOWN, cluster.getMembers().size());
+
+            StringBuilder sb = entry(i + 1).append(ChatColor.RED).append(
+                    String.format(local.getLocalString("TOP_CLUSTER"),
+                            cluster.getSize(), cluster.getIPCount()))
+                    .append(ChatColor.YELLOW).append(' ');
+
+            ListFormatter.append(sb, cluster.getMembers(), null, 0, shown);
+
+            if (cluster.getSize() > shown) {
+                sb.append(' ').append(String.format(local.getLocalString(
+                        "REPORT_MORE"), cluster.getSize() - shown));
+            }
+
+            lines.add(sb.toString());
+        }
+
+        String age = ChatColor.GRAY + String.format(local.getLocalString(
+                "TOP_CLUSTERS_AGE"), ranking.getClusterCount(),
+                TimeCalculator.format(ranking.getAge() / 1000));
+
+        return frame(local, "TOP_CLUSTERS_TITLE", lines, age);
+    }
+
+    // Starts a numbered entry of a ranking
+    private static StringBuilder entry(int rank) {
+        return ChatBuffer.get().append(ChatColor.GOLD).append(rank)
+                .append(". ");
+    }
+
+    // Surrounds the entries of a ranking with its title and separators
+    private static List<String> frame(LocalizationManager local, String title,
+                                      List<String> entries, String footer) {
+        List<String> lines = new ArrayList<>();
+
+        if (entries.isEmpty()) {
+            lines.add(local.getLocalString("TOP_EMPTY"));
+            return lines;
+        }
+
+        lines.add(ChatBuffer.SEPARATOR);
+        lines.add(ChatColor.RED + local.getLocalString(title));
+        lines.add(ChatBuffer.SEPARATOR);
+        lines.addAll(entries);
+        if (footer != null) lines.add(footer);
+        lines.add(ChatBuffer.SEPARATOR);
+
+        return lines;
+    }
+
+    // Lines are delivered on the main thread
+    private void send(final List<String> lines) {
+        if (!ipc.isEnabled()) return;
+
+        ipc.getServer().getScheduler().runTask(ipc, new Runnable() {
+            @Override
+            public void run() {
+                for (String line : lines) {
+                    ipc.sendPlayerMessage(sender, line, false);
+                }
+            }
+        });
+    }
+}
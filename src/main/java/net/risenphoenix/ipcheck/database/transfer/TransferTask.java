@@ -0,0 +1,125 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.database.transfer;
+
+import net.risenphoenix.commons.localization.LocalizationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/* Base class of the bulk data transfers (ban list imports, snapshot exports
+ * and imports). Each one runs asynchronously on its own database connection,
+ * and only one may run at a time. Messages for the sender are handed back to
+ * the main thread. */
+public abstract class TransferTask implements Runnable {
+
+    // Shared by all transfers
+    private static final AtomicBoolean running = new AtomicBoolean(false);
+
+    protected final IPCheck ipc;
+    protected final DatabaseController db;
+    protected final LocalizationManager local;
+    protected final CommandSender sender;
+
+    public TransferTask(IPCheck ipc, CommandSender sender) {
+        this.ipc = ipc;
+        this.db = ipc.getDatabaseController();
+        this.local = ipc.getLocalizationManager();
+        this.sender = sender;
+    }
+
+    // Returns false if another transfer is still running
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) return false;
+
+        ipc.getServer().getScheduler().runTaskAsynchronously(ipc, this);
+        return true;
+    }
+
+    @Override
+    public final void run() {
+        try (Connection c = db.openConnection()) {
+            this.execute(c);
+        } catch (SQLException | IOException e) {
+            this.message(ChatColor.RED + String.format(
+                    local.getLocalString("TRANSFER_ERR"), e.getMessage()));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    protected abstract void execute(Connection c)
+            throws SQLException, IOException;
+
+    // Messages are delivered on the main thread
+    protected void message(final String msg) {
+        if (!ipc.isEnabled()) return;
+
+        ipc.getServer().getScheduler().runTask(ipc, new Runnable() {
+            @Override
+            public void run() {
+                ipc.sendPlayerMessage(sender, msg);
+            }
+        });
+    }
+
+    // Drops cached rejoin verdicts, reports and cluster rankings, and
+    // re-reads the links of online players, which may no longer hold after
+    // records were changed on the task's own connection
+    protected void invalidateCaches() {
+        ipc.getRejoinCache().clear();
+        ipc.getReportCache().clear();
+        ipc.setClusterRanking(null);
+        ipc.getOnlineAlts().rebuild();
+    }
+
+    // Resolves a file name given in a command against the folder, or returns
+    // null if the result would lie outside of it
+    public static File resolve(File folder, String name) {
+        File file = new File(folder, name);
+
+        try {
+            String path = file.getCanonicalPath();
+            String root = folder.getCanonicalPath() + File.separator;
+
+            return path.startsWith(root) ? file : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.AddressUtil;
+import net.risenphoenix.ipcheck.util.TokenBucket;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Join-flood admission control. Every login must acquire a token from the
+ * bucket of its address, the bucket of its network (/24 or /64) and the
+ * global bucket before any database work is done for it. */
+public class AdmissionController {
+
+    // Idle bucket sweep period, in ticks (one minute)
+    private static final long SWEEP_PERIOD = 1200L;
+
+    private IPCheck ipc;
+    private BukkitTask sweepTask = null;
+
+    // Limits (cached so that a check never touches the configuration)
+    private final int ipRate, ipBurst;
+    private final int subnetRate, subnetBurst;
+
+    private final TokenBucket global;
+    private final ConcurrentHashMap<String, TokenBucket> ipBuckets;
+    private final ConcurrentHashMap<String, TokenBucket> subnetBuckets;
+
+    // Counters
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong shedIP = new AtomicLong();
+    private final AtomicLong shedSubnet = new AtomicLong();
+    private final AtomicLong shedGlobal = new AtomicLong();
+
+    public AdmissionController(final IPCheck ipc) {
+        this.ipc = ipc;
+        ConfigurationManager config = ipc.getConfigurationManager();
+
+        this.ipRate = config.getInteger("admission-ip-rate");
+        this.ipBurst = config.getInteger("admission-ip-burst");
+        this.subnetRate = config.getInteger("admission-subnet-rate");
+        this.subnetBurst = config.getInteger("admission-subnet-burst");
+
+        this.global = new TokenBucket(
+                config.getInteger("admission-global-rate"),
+                config.getInteger("admission-global-burst"));
+
+        this.ipBuckets = new ConcurrentHashMap<>();
+        this.subnetBuckets = new ConcurrentHashMap<>();
+    }
+
+    public void start() {
+        this.sweepTask = ipc.getServer().getScheduler()
+                .runTaskTimerAsynchronously(ipc, new Runnable() {
+                    @Override
+                    public void run() {
+                        sweep();
+                    }
+                }, SWEEP_PERIOD, SWEEP_PERIOD);
+    }
+
+    public void stop() {
+        if (this.sweepTask != null) {
+            this.sweepTask.cancel();
+            this.sweepTask = null;
+        }
+    }
+
+    /* Returns true if the login from the address specified may proceed. The
+     * most specific bucket is checked first so that a single flooding address
+     * does not drain the tokens of its neighbours. A login turned away by a
+     * later bucket gets its tokens back from the earlier ones, so players
+     * retrying through a global flood keep their own allowance. */
+    public boolean admit(String ip) {
+        long now = System.nanoTime();
+
+        TokenBucket address = getBucket(this.ipBuckets, ip, ipRate, ipBurst);
+
+        if (!address.tryAcquire(now)) {
+            this.shedIP.incrementAndGet();
+            return false;
+        }
+
+        TokenBucket subnet = getBucket(this.subnetBuckets,
+                AddressUtil.getSubnet(ip), subnetRate, subnetBurst);
+
+        if (!subnet.tryAcquire(now)) {
+            address.release();
+            this.shedSubnet.incrementAndGet();
+            return false;
+        }
+
+        if (!this.global.tryAcquire(now)) {
+            subnet.release();
+            address.release();
+            this.shedGlobal.incrementAndGet();
+            return false;
+        }
+
+        this.admitted.incrementAndGet();
+        return true;
+    }
+
+    private static TokenBucket getBucket(
+            ConcurrentHashMap<String, TokenBucket> buckets, String key,
+            int rate, int burst) {
+        TokenBucket bucket = buckets.get(key);
+
+        if (bucket == null) {
+            bucket = new TokenBucket(rate, burst);
+            TokenBucket existing = buckets.putIfAbsent(key, bucket);
+            if (existing != null) bucket = existing;
+        }
+
+        return bucket;
+    }
+
+    /* Discard buckets which have fully refilled to keep the maps small. A
+     * login racing with the removal simply starts over with a full bucket. */
+    private void sweep() {
+        long now = System.nanoTime();
+        sweep(this.ipBuckets, now);
+        sweep(this.subnetBuckets, now);
+    }
+
+    private static void sweep(Map<String, TokenBucket> buckets, long now) {
+        Iterator<TokenBucket> it = buckets.values().iterator();
+
+        while (it.hasNext()) {
+            if (it.next().isIdle(now)) it.remove();
+        }
+    }
+
+    public long getAdmitted() {
+        return this.admitted.get();
+    }
+
+    public long getShedIP() {
+        return this.shedIP.get();
+    }
+
+    public long getShedSubnet() {
+        return this.shedSubnet.get();
+    }
+
+    public long getShedGlobal() {
+        return this.shedGlobal.get();
+    }
+
+    public long getShedTotal() {
+        return getShedIP() + getShedSubnet() + getShedGlobal();
+    }
+
+    public int getTrackedBuckets() {
+        return this.ipBuckets.size() + this.subnetBuckets.size();
+    }
+}
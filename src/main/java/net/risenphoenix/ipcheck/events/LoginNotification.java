@@ -34,6 +34,7 @@ import net.risenphoenix.commons.configuration.ConfigurationManager;
 import net.risenphoenix.commons.localization.LocalizationManager;
 import net.risenphoenix.ipcheck.IPCheck;
 import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.util.ChatBuffer;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
@@ -50,6 +51,11 @@ public class LoginNotification {
     private String ip;
     private ArrayList<String> accounts;
 
+    // Lines of the notice, rendered once for all of the staff notified
+    private String reportFor;
+    private String address;
+    private String body;
+
     public LoginNotification(IPCheck ipc, Player player, String ip,
                              ArrayList<String> accounts) {
         this.ipc = ipc;
@@ -65,7 +71,7 @@ public class LoginNotification {
     }
 
     private void execute() {
-        Player[] online = ipc.getOnlinePlayers();
+        NotificationRegistry registry = ipc.getNotificationRegistry();
         int threshold = config.getInteger("min-account-notify-threshold");
         int acctNum = accounts.size();
 
@@ -78,56 +84,68 @@ public class LoginNotification {
                 // Stats Link
                 ipc.getStatisticsObject().logWarningIssue(1);
 
-                for (Player anOnline : online) {
-                    displayReport(anOnline);
+                // Fold the alert into the digest during join floods
+                if (!ipc.getNotificationDigest().submit(
+                        new NotificationDigest.Alert(
+                                NotificationDigest.AlertType.LOGIN,
+                                player.getName(), ip, acctNum))) return;
+
+                this.render(acctNum);
+
+                for (Player staff : registry.getRecipients(
+                        NotificationRegistry.GET_NOTIFY)) {
+                    displayReport(staff, registry);
                 }
             }
         }
     }
 
-    private void displayReport(Player p) {
-        if (p.hasPermission("ipcheck.getnotify") || p.isOp()) {
-            if (config.getBoolean("descriptive-notice")) {
-
-                // Notification Head
-                ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                        "------------------------------------------------",
-                        false);
-                ipc.sendPlayerMessage(p, "Report for: " +
-                        ChatColor.LIGHT_PURPLE + player.getName(), false);
-                ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                        "------------------------------------------------",
-                        false);
-
-                // Notification Body
-                if (p.hasPermission("ipcheck.showip") || p.isOp()) {
-                    ipc.sendPlayerMessage(p, "IP Address: " +
-                            ChatColor.LIGHT_PURPLE + ip, false);
-                }
-
-                ipc.sendPlayerMessage(p, ChatColor.LIGHT_PURPLE +
-                        player.getName() + ChatColor.RED +
-                        " was found to have " + ChatColor.YELLOW + accounts +
-                        ChatColor.RED + " possible alternative accounts. " +
-                        "Perform command " + ChatColor.LIGHT_PURPLE + "'/ipc " +
-                        player.getDisplayName() + "'" + ChatColor.RED +
-                        " for " + "more information.", false);
-
-                ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                        "------------------------------------------------", false);
-            } else {
+    private void render(int acctNum) {
+        if (config.getBoolean("descriptive-notice")) {
+            this.reportFor = ChatBuffer.get().append("Report for: ")
+                    .append(ChatColor.LIGHT_PURPLE).append(player.getName())
+                    .toString();
+
+            this.address = ChatBuffer.get().append("IP Address: ")
+                    .append(ChatColor.LIGHT_PURPLE).append(ip).toString();
+
+            this.body = ChatBuffer.get().append(ChatColor.LIGHT_PURPLE)
+                    .append(player.getName()).append(ChatColor.RED)
+                    .append(" was found to have ").append(ChatColor.YELLOW)
+                    .append(acctNum).append(ChatColor.RED)
+                    .append(" possible alternative accounts. ")
+                    .append("Perform command ").append(ChatColor.LIGHT_PURPLE)
+                    .append("'/ipc ").append(player.getDisplayName())
+                    .append('\'').append(ChatColor.RED)
+                    .append(" for more information.").toString();
+        } else {
+            this.body = ChatBuffer.get().append(ChatColor.RED)
+                    .append(local.getLocalString("LOGIN_WARN")).append(' ')
+                    .append(ChatColor.LIGHT_PURPLE)
+                    .append(player.getDisplayName()).append(ChatColor.RED)
+                    .append(local.getLocalString("LOGIN_EXPLAIN")).toString();
+        }
+    }
 
-                ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                        "------------------------------------------------", false);
+    private void displayReport(Player p, NotificationRegistry registry) {
+        if (config.getBoolean("descriptive-notice")) {
 
-                ipc.sendPlayerMessage(p, ChatColor.RED +
-                        local.getLocalString("LOGIN_WARN") + " " +
-                        ChatColor.LIGHT_PURPLE + player.getDisplayName() +
-                        ChatColor.RED + local.getLocalString("LOGIN_EXPLAIN"));
+            // Notification Head
+            ipc.sendPlayerMessage(p, ChatBuffer.SEPARATOR, false);
+            ipc.sendPlayerMessage(p, this.reportFor, false);
+            ipc.sendPlayerMessage(p, ChatBuffer.SEPARATOR, false);
 
-                ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                        "------------------------------------------------", false);
+            // Notification Body
+            if (registry.hasPermission(p, NotificationRegistry.SHOW_IP)) {
+                ipc.sendPlayerMessage(p, this.address, false);
             }
+
+            ipc.sendPlayerMessage(p, this.body, false);
+            ipc.sendPlayerMessage(p, ChatBuffer.SEPARATOR, false);
+        } else {
+            ipc.sendPlayerMessage(p, ChatBuffer.SEPARATOR, false);
+            ipc.sendPlayerMessage(p, this.body);
+            ipc.sendPlayerMessage(p, ChatBuffer.SEPARATOR, false);
         }
     }
 
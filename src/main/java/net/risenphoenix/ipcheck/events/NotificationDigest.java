@@ -0,0 +1,280 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.commons.localization.LocalizationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.util.AddressUtil;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/* Coalesces staff alerts during join floods. Every alert is recorded in a
+ * fixed-size ring buffer (so that it can be reviewed later with /ipc alerts).
+ * Once more than "digest-threshold" alerts have been raised within the
+ * current window, the individual chat notifications are suppressed and a
+ * single summary is sent to staff when the window closes. */
+public class NotificationDigest {
+
+    private static final int BUFFER_SIZE = 256;
+    private static final int TOP_ENTRIES = 3;
+
+    private IPCheck ipc;
+    private ConfigurationManager config;
+    private LocalizationManager local;
+
+    // Ring Buffer
+    private final Alert[] buffer = new Alert[BUFFER_SIZE];
+    private int head = 0;
+    private int size = 0;
+
+    // Current Window State
+    private int windowCount = 0;
+    private int suppressed = 0;
+
+    private BukkitTask flushTask = null;
+
+    public NotificationDigest(final IPCheck ipc) {
+        this.ipc = ipc;
+        this.config = ipc.getConfigurationManager();
+        this.local = ipc.getLocalizationManager();
+    }
+
+    public void start() {
+        long window = Math.max(1, config.getInteger("digest-window")) * 20L;
+
+        this.flushTask = ipc.getServer().getScheduler().runTaskTimer(ipc,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, window, window);
+    }
+
+    public void stop() {
+        if (this.flushTask != null) {
+            this.flushTask.cancel();
+            this.flushTask = null;
+        }
+    }
+
+    /* Records the alert and returns true if the caller should send its usual
+     * notification, or false if the alert has been folded into the digest. */
+    public synchronized boolean submit(Alert alert) {
+        this.buffer[this.head] = alert;
+        this.head = (this.head + 1) % BUFFER_SIZE;
+        if (this.size < BUFFER_SIZE) this.size++;
+
+        int threshold = config.getInteger("digest-threshold");
+
+        // A threshold of zero disables coalescing
+        if (threshold <= 0 || ++this.windowCount <= threshold) return true;
+
+        this.suppressed++;
+        return false;
+    }
+
+    // Returns the number of alerts raised in the current window
+    public synchronized int getWindowCount() {
+        return this.windowCount;
+    }
+
+    // Returns the number of alerts held back for the next digest
+    public synchronized int getSuppressedCount() {
+        return this.suppressed;
+    }
+
+    // Returns recorded alerts, newest first
+    public synchronized List<Alert> getRecentAlerts() {
+        ArrayList<Alert> alerts = new ArrayList<>(this.size);
+
+        for (int i = 1; i <= this.size; i++) {
+            alerts.add(this.buffer[(this.head - i + BUFFER_SIZE) %
+                    BUFFER_SIZE]);
+        }
+
+        return alerts;
+    }
+
+    private void flush() {
+        List<Alert> window;
+        int count;
+
+        synchronized (this) {
+            count = this.suppressed;
+
+            // Alerts in this window are the newest "windowCount" entries
+            window = new ArrayList<>();
+            int span = Math.min(this.windowCount, this.size);
+
+            for (int i = 1; i <= span; i++) {
+                window.add(this.buffer[(this.head - i + BUFFER_SIZE) %
+                        BUFFER_SIZE]);
+            }
+
+            this.windowCount = 0;
+            this.suppressed = 0;
+        }
+
+        if (count == 0) return;
+
+        // Tally alerts by type, source network and account
+        int logins = 0, rejoins = 0;
+        Map<String, Integer> sources = new HashMap<>();
+        Map<String, Integer> accounts = new HashMap<>();
+
+        for (Alert a : window) {
+            if (a.getType() == AlertType.LOGIN) {
+                logins++;
+            } else {
+                rejoins++;
+            }
+
+            increment(sources, AddressUtil.getSubnet(a.getIP()));
+            increment(accounts, a.getPlayer());
+        }
+
+        String topSources = formatTop(sources);
+        String topAccounts = formatTop(accounts);
+
+        NotificationRegistry registry = ipc.getNotificationRegistry();
+
+        for (Player p : registry.getRecipients(
+                NotificationRegistry.GET_NOTIFY)) {
+            ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
+                    "------------------------------------------------", false);
+
+            ipc.sendPlayerMessage(p, ChatColor.RED + String.format(
+                    local.getLocalString("DIGEST_HEAD"), count,
+                    config.getInteger("digest-window")));
+
+            ipc.sendPlayerMessage(p, ChatColor.LIGHT_PURPLE +
+                    local.getLocalString("DIGEST_LOGINS") + " " +
+                    ChatColor.YELLOW + logins + ChatColor.LIGHT_PURPLE + ", " +
+                    local.getLocalString("DIGEST_REJOINS") + " " +
+                    ChatColor.YELLOW + rejoins, false);
+
+            if (registry.hasPermission(p, NotificationRegistry.SHOW_IP)) {
+                ipc.sendPlayerMessage(p, ChatColor.LIGHT_PURPLE +
+                        local.getLocalString("DIGEST_TOP_SOURCES") + " " +
+                        ChatColor.YELLOW + topSources, false);
+            }
+
+            ipc.sendPlayerMessage(p, ChatColor.LIGHT_PURPLE +
+                    local.getLocalString("DIGEST_TOP_ACCOUNTS") + " " +
+                    ChatColor.YELLOW + topAccounts, false);
+
+            ipc.sendPlayerMessage(p, ChatColor.GOLD +
+                    local.getLocalString("DIGEST_DETAIL"), false);
+
+            ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
+                    "------------------------------------------------", false);
+        }
+    }
+
+    private static void increment(Map<String, Integer> map, String key) {
+        Integer current = map.get(key);
+        map.put(key, (current == null) ? 1 : current + 1);
+    }
+
+    private static String formatTop(Map<String, Integer> tally) {
+        List<Map.Entry<String, Integer>> entries =
+                new ArrayList<>(tally.entrySet());
+
+        Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>() {
+            @Override
+            public int compare(Map.Entry<String, Integer> o1,
+                               Map.Entry<String, Integer> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < entries.size() && i < TOP_ENTRIES; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(entries.get(i).getKey()).append(" (")
+                    .append(entries.get(i).getValue()).append(")");
+        }
+
+        return sb.toString();
+    }
+
+    public enum AlertType {
+        LOGIN,
+        REJOIN
+    }
+
+    public static class Alert {
+        private AlertType type;
+        private String player;
+        private String ip;
+        private int accounts;
+        private long time;
+
+        public Alert(AlertType type, String player, String ip, int accounts) {
+            this.type = type;
+            this.player = player;
+            this.ip = ip;
+            this.accounts = accounts;
+            this.time = System.currentTimeMillis();
+        }
+
+        public AlertType getType() {
+            return this.type;
+        }
+
+        public String getPlayer() {
+            return this.player;
+        }
+
+        public String getIP() {
+            return this.ip;
+        }
+
+        public int getAccounts() {
+            return this.accounts;
+        }
+
+        public long getTime() {
+            return this.time;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.Permission;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/* Keeps track of which online players are entitled to receive each of the
+ * IP-Check staff notifications, so that a broadcast only has to visit the
+ * handful of staff members online rather than every player on the server.
+ *
+ * Bukkit does not fire an event when a player's permissions change, so the
+ * registry is updated on join, quit and world change (where most permission
+ * plugins re-calculate) and is additionally re-validated on a slow timer. */
+public class NotificationRegistry {
+
+    public static final String GET_NOTIFY = "ipcheck.getnotify";
+    public static final String SEE_BAN = "ipcheck.seeban";
+    public static final String SEE_KICK = "ipcheck.seekick";
+    public static final String SHOW_IP = "ipcheck.showip";
+
+    private static final String[] TRACKED =
+            new String[]{GET_NOTIFY, SEE_BAN, SEE_KICK, SHOW_IP};
+
+    // Re-validation period, in ticks (30 seconds)
+    private static final long REFRESH_PERIOD = 600L;
+
+    private IPCheck ipc;
+    private Map<String, Set<Player>> recipients;
+    private BukkitTask refreshTask = null;
+
+    public NotificationRegistry(final IPCheck ipc) {
+        this.ipc = ipc;
+        this.recipients = new ConcurrentHashMap<>();
+
+        for (String perm : TRACKED) {
+            Set<Player> set = Collections.newSetFromMap(
+                    new ConcurrentHashMap<Player, Boolean>());
+            this.recipients.put(perm, set);
+        }
+    }
+
+    public void start() {
+        // Pick up anybody already online (in the event of a plugin reload)
+        this.refresh();
+
+        this.refreshTask = ipc.getServer().getScheduler().runTaskTimer(ipc,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh();
+                    }
+                }, REFRESH_PERIOD, REFRESH_PERIOD);
+    }
+
+    public void stop() {
+        if (this.refreshTask != null) {
+            this.refreshTask.cancel();
+            this.refreshTask = null;
+        }
+
+        for (Set<Player> set : this.recipients.values()) set.clear();
+    }
+
+    public void refresh() {
+        Player[] online = ipc.getOnlinePlayers();
+
+        // Drop anybody who is no longer online
+        for (Set<Player> set : this.recipients.values()) {
+            for (Player p : set) {
+                if (!p.isOnline()) set.remove(p);
+            }
+        }
+
+        for (Player p : online) this.track(p);
+    }
+
+    public void track(Player player) {
+        boolean isOp = player.isOp();
+
+        for (String perm : TRACKED) {
+            if (isOp || player.hasPermission(perm)) {
+                this.recipients.get(perm).add(player);
+            } else {
+                this.recipients.get(perm).remove(player);
+            }
+        }
+    }
+
+    public void untrack(Player player) {
+        for (Set<Player> set : this.recipients.values()) set.remove(player);
+    }
+
+    public boolean isTracked(String perm) {
+        return this.recipients.containsKey(perm);
+    }
+
+    // Returns the online players holding the permission (or OP) specified
+    public Collection<Player> getRecipients(String perm) {
+        Set<Player> set = this.recipients.get(perm);
+        if (set == null) return null;
+
+        return Collections.unmodifiableSet(set);
+    }
+
+    public boolean hasPermission(Player player, String perm) {
+        Set<Player> set = this.recipients.get(perm);
+
+        // Untracked permissions fall back to a direct check
+        if (set == null) return player.isOp() || player.hasPermission(perm);
+
+        return set.contains(player);
+    }
+
+    /* Returns the online players holding all of the permissions specified, or
+     * null if any of the permissions are not tracked by the registry. */
+    public Collection<Player> getRecipients(Permission[] perms) {
+        if (perms == null || perms.length == 0) return null;
+
+        for (Permission p : perms) {
+            if (!this.isTracked(p.getName())) return null;
+        }
+
+        if (perms.length == 1) return this.getRecipients(perms[0].getName());
+
+        ArrayList<Player> result = new ArrayList<>();
+
+        for (Player player : this.recipients.get(perms[0].getName())) {
+            boolean hasAll = true;
+
+            for (int i = 1; i < perms.length; i++) {
+                if (!this.recipients.get(perms[i].getName())
+                        .contains(player)) {
+                    hasAll = false;
+                    break;
+                }
+            }
+
+            if (hasAll) result.add(player);
+        }
+
+        return result;
+    }
+}
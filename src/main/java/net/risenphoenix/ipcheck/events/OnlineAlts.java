@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events;
+
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import org.bukkit.entity.Player;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/* A live view of the accounts linked to each online player (those seen on
+ * any of the same IPs), and of which of them are online too, so that
+ * /ipc scan answers from memory instead of querying the log per player.
+ *
+ * A player's links are read once, when they join, off the main thread and
+ * on a connection of the task's own (the server's connection belongs to
+ * the main thread), and dropped when they quit. Links are mutual, so a
+ * player joining is also added to the links of every online account
+ * linked with it, which covers accounts created since the others' links
+ * were read. Bulk changes to the log (imports, purges) re-read the links of
+ * everybody online. */
+public class OnlineAlts {
+
+    private final IPCheck ipc;
+
+    // Online players, by name in lower case
+    private final Map<String, Player> online = new LinkedHashMap<>();
+
+    // Accounts linked to each online player whose links have been read
+    private final Map<String, Set<String>> links = new HashMap<>();
+
+    // Linked accounts online at the same time, for each player with any
+    private final Map<String, Set<String>> together = new HashMap<>();
+
+    private boolean running = false;
+
+    public OnlineAlts(final IPCheck ipc) {
+        this.ipc = ipc;
+    }
+
+    public void start() {
+        Player[] players = ipc.getOnlinePlayers();
+
+        synchronized (this) {
+            this.running = true;
+            for (Player p : players) this.online.put(key(p), p);
+        }
+
+        // Pick up anybody already online (in the event of a plugin reload)
+        this.load(Arrays.asList(players));
+    }
+
+    public synchronized void stop() {
+        this.running = false;
+        this.online.clear();
+        this.links.clear();
+        this.together.clear();
+    }
+
+    public void track(Player player) {
+        synchronized (this) {
+            if (!this.running) return;
+            this.online.put(key(player), player);
+        }
+
+        this.load(Collections.singleton(player));
+    }
+
+    public synchronized void untrack(Player player) {
+        String name = key(player);
+
+        // A newer session under the same name is left alone
+        if (this.online.get(name) != player) return;
+
+        this.online.remove(name);
+        this.links.remove(name);
+        this.unpair(name);
+    }
+
+    // Re-reads the links of everybody online
+    public void rebuild() {
+        List<Player> players;
+
+        synchronized (this) {
+            if (!this.running) return;
+
+            this.links.clear();
+            this.together.clear();
+            players = new ArrayList<>(this.online.values());
+        }
+
+        this.load(players);
+    }
+
+    // Online players with at least one linked account, in order of joining
+    public synchronized List<Player> getPlayersWithAlts() {
+        List<Player> found = new ArrayList<>();
+
+        for (Map.Entry<String, Player> entry : this.online.entrySet()) {
+            Set<String> linked = this.links.get(entry.getKey());
+            if (linked == null || linked.isEmpty()) continue;
+
+            found.add(entry.getValue());
+        }
+
+        return found;
+    }
+
+    // Pairs of linked accounts online at the same time, each pair once
+    public synchronized List<Player[]> getPairsOnline() {
+        List<Player[]> pairs = new ArrayList<>();
+
+        for (Map.Entry<String, Set<String>> entry : this.together.entrySet()) {
+            String name = entry.getKey();
+
+            for (String alt : entry.getValue()) {
+                if (name.compareTo(alt) > 0) continue;
+
+                pairs.add(new Player[]{this.online.get(name),
+                        this.online.get(alt)});
+            }
+        }
+
+        return pairs;
+    }
+
+    // Number of online players whose links are still being read
+    public synchronized int getPending() {
+        return this.online.size() - this.links.size();
+    }
+
+    // Reads the links of the players, off the main thread
+    private void load(final Collection<Player> players) {
+        if (players.isEmpty()) return;
+
+        ipc.getServer().getScheduler().runTaskAsynchronously(ipc,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        DatabaseController db = ipc.getDatabaseController();
+
+                        try (Connection c = db.openConnection()) {
+                            for (Player p : players) {
+                                String name = key(p);
+                                setLinks(name, p, db.getLinkedPlayers(c,
+                                        name));
+                            }
+                        } catch (SQLException e) {
+                            // Those left unread show as pending in /ipc scan
+                            ipc.sendConsoleMessage(Level.WARNING,
+                                    "Could not read linked accounts: " +
+                                            e.getMessage());
+                        }
+                    }
+                });
+    }
+
+    private synchronized void setLinks(String name, Player player,
+                                       Set<String> linked) {
+        // Left (or joined again) while the links were being read
+        if (!this.running || this.online.get(name) != player) return;
+
+        this.unpair(name);
+        this.links.put(name, linked);
+
+        for (String alt : linked) {
+            if (!this.online.containsKey(alt)) continue;
+
+            this.pair(name, alt);
+            this.pair(alt, name);
+
+            // Links are mutual, but the other's may predate this account
+            Set<String> altLinks = this.links.get(alt);
+            if (altLinks != null) altLinks.add(name);
+        }
+    }
+
+    private void pair(String name, String alt) {
+        Set<String> partners = this.together.get(name);
+
+        if (partners == null) {
+            partners = new HashSet<>();
+            this.together.put(name, partners);
+        }
+
+        partners.add(alt);
+    }
+
+    private void unpair(String name) {
+        Set<String> partners = this.together.remove(name);
+        if (partners == null) return;
+
+        for (String alt : partners) {
+            Set<String> others = this.together.get(alt);
+            if (others == null) continue;
+
+            others.remove(name);
+            if (others.isEmpty()) this.together.remove(alt);
+        }
+    }
+
+    private static String key(Player player) {
+        return player.getName().toLowerCase();
+    }
+}
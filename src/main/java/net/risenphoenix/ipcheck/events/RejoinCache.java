@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Short-lived cache of recently rejected (player, IP) pairs. While a banned
+ * player spams reconnect, repeat attempts are answered from memory with the
+ * cached ban message instead of re-running the ban and rejoin-exemption
+ * queries, and the rejoin warnings they would raise are collapsed into a
+ * single notification carrying an attempt counter. */
+public class RejoinCache {
+
+    // Expired entries are purged once the cache grows past this size
+    private static final int PURGE_SIZE = 4096;
+
+    private final ConcurrentHashMap<String, Verdict> verdicts;
+    private final long verdictTTL;
+    private final long warnWindow;
+
+    // Look-up Counters
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RejoinCache(final IPCheck ipc) {
+        ConfigurationManager config = ipc.getConfigurationManager();
+
+        this.verdicts = new ConcurrentHashMap<>();
+        this.verdictTTL = Math.max(0, config.getInteger("rejoin-cache-ttl"))
+                * 1000L;
+        this.warnWindow = Math.max(0,
+                config.getInteger("rejoin-warning-window")) * 1000L;
+    }
+
+    private static String key(String player, String ip) {
+        return player.toLowerCase() + "|" + ip;
+    }
+
+    // Returns the cached verdict for the pair, or null if none is valid
+    public Verdict get(String player, String ip) {
+        Verdict v = this.verdicts.get(key(player, ip));
+
+        if (v == null || !v.isValid(System.currentTimeMillis())) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+
+        this.hits.incrementAndGet();
+        return v;
+    }
+
+    public Verdict put(String player, String ip, String banMessage,
+                       boolean canWarn) {
+        long now = System.currentTimeMillis();
+        String key = key(player, ip);
+
+        if (this.verdicts.size() >= PURGE_SIZE) this.purge(now);
+
+        // Keep the warning state of a previous (expired) verdict, if any
+        Verdict previous = this.verdicts.get(key);
+        Verdict v = new Verdict(banMessage, canWarn, now + verdictTTL,
+                previous);
+
+        this.verdicts.put(key, v);
+        return v;
+    }
+
+    public void invalidatePlayer(String player) {
+        String prefix = player.toLowerCase() + "|";
+        Iterator<String> it = this.verdicts.keySet().iterator();
+
+        while (it.hasNext()) {
+            if (it.next().startsWith(prefix)) it.remove();
+        }
+    }
+
+    public void invalidateIP(String ip) {
+        String suffix = "|" + ip;
+        Iterator<String> it = this.verdicts.keySet().iterator();
+
+        while (it.hasNext()) {
+            if (it.next().endsWith(suffix)) it.remove();
+        }
+    }
+
+    public void clear() {
+        this.verdicts.clear();
+    }
+
+    public int size() {
+        return this.verdicts.size();
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    private void purge(long now) {
+        Iterator<Verdict> it = this.verdicts.values().iterator();
+
+        while (it.hasNext()) {
+            Verdict v = it.next();
+            if (!v.isValid(now) && !v.isWarnedWithin(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    public class Verdict {
+        private final String banMessage;
+        private final boolean canWarn;
+        private final long expires;
+
+        // Warning De-duplication State
+        private long lastWarned;
+        private int attempts;
+
+        private Verdict(String banMessage, boolean canWarn, long expires,
+                        Verdict previous) {
+            this.banMessage = banMessage;
+            this.canWarn = canWarn;
+            this.expires = expires;
+
+            if (previous != null) {
+                this.lastWarned = previous.lastWarned;
+                this.attempts = previous.attempts;
+            } else {
+                this.lastWarned = Long.MIN_VALUE;
+                this.attempts = 0;
+            }
+        }
+
+        private boolean isValid(long now) {
+            return now < this.expires;
+        }
+
+        // Verdicts that never warned have no window to wait out
+        private synchronized boolean isWarnedWithin(long now) {
+            return this.lastWarned != Long.MIN_VALUE &&
+                    now - this.lastWarned < warnWindow;
+        }
+
+        public String getBanMessage() {
+            return this.banMessage;
+        }
+
+        public boolean canWarn() {
+            return this.canWarn;
+        }
+
+        /* Records a rejoin attempt. Returns the number of attempts to report
+         * if a warning should be sent now, or zero if the attempt falls within
+         * the warning window of a previous warning. */
+        public synchronized int recordAttempt() {
+            long now = System.currentTimeMillis();
+            this.attempts++;
+
+            if (this.isWarnedWithin(now)) return 0;
+
+            int report = this.attempts;
+            this.attempts = 0;
+            this.lastWarned = now;
+
+            return report;
+        }
+    }
+}
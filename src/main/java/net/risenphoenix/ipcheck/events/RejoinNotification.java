@@ -35,40 +35,61 @@ import net.risenphoenix.ipcheck.IPCheck;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
+
 public class RejoinNotification {
 
     private IPCheck ipc;
     private LocalizationManager local;
     private Player player;
+    private String ip;
+    private int attempts;
+
+    public RejoinNotification(IPCheck ipc, Player player, String ip) {
+        this(ipc, player, ip, 1);
+    }
 
-    public RejoinNotification(IPCheck ipc, Player player) {
+    public RejoinNotification(IPCheck ipc, Player player, String ip,
+                              int attempts) {
         this.ipc = ipc;
         this.local = ipc.getLocalizationManager();
         this.player = player;
+        this.ip = ip;
+        this.attempts = attempts;
 
         this.execute();
     }
 
     private void execute() {
-        Player[] online = ipc.getOnlinePlayers();
+        // Fold the warning into the digest during join floods
+        if (!ipc.getNotificationDigest().submit(new NotificationDigest.Alert(
+                NotificationDigest.AlertType.REJOIN, player.getName(), ip,
+                0))) return;
 
-        for (int i = 0; i < online.length; i++) {
-            displayWarning(online[i]);
+        Collection<Player> staff = ipc.getNotificationRegistry()
+                .getRecipients(NotificationRegistry.GET_NOTIFY);
+
+        for (Player p : staff) {
+            displayWarning(p);
         }
     }
 
     private void displayWarning(Player p) {
-        if (p.hasPermission("ipcheck.getnotify") || p.isOp()) {
-            ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                    "---------------------------------------", false);
+        ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
+                "---------------------------------------", false);
 
-            ipc.sendPlayerMessage(p, ChatColor.RED +
-                    local.getLocalString("REJOIN_WARN") + " " +
-                    ChatColor.LIGHT_PURPLE + player.getDisplayName() +
-                    ChatColor.RED + local.getLocalString("REJOIN_EXPLAIN"));
+        ipc.sendPlayerMessage(p, ChatColor.RED +
+                local.getLocalString("REJOIN_WARN") + " " +
+                ChatColor.LIGHT_PURPLE + player.getDisplayName() +
+                ChatColor.RED + local.getLocalString("REJOIN_EXPLAIN"));
 
-            ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
-                    "---------------------------------------", false);
+        // Repeated attempts collapsed into this warning
+        if (attempts > 1) {
+            ipc.sendPlayerMessage(p, ChatColor.GOLD + String.format(
+                    local.getLocalString("REJOIN_REPEAT"), attempts), false);
         }
+
+        ipc.sendPlayerMessage(p, ChatColor.DARK_GRAY +
+                "---------------------------------------", false);
     }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import org.bukkit.entity.Player;
+
+/* ACTIVE MODE HOOK */
+/* Check if the IP is banned in the database. If it is, ban the player with the
+ * banned address. */
+public class ActiveModeStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "active-mode";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        ConfigurationManager config = ctx.getConfig();
+
+        if (!config.getBoolean("active-mode") ||
+                !config.getBoolean("should-manage-bans")) return true;
+
+        DatabaseController db = ctx.getDatabase();
+        Player player = ctx.getPlayer();
+
+        if (db.isBannedIP(ctx.getAddress())) {
+            if (!db.getUserObject(player.getName()).getBannedStatus()) {
+                player.setBanned(true);
+                db.banPlayer(player.getName(),
+                        config.getString("ban-message"));
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.ipcheck.events.AdmissionController;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerLoginEvent.Result;
+
+// Admission Control (join-flood protection). This must run before any
+// database work is done for the login, so the database-held exemption lists
+// are not consulted; operators and players with ipcheck.admission.bypass are
+// let through without being charged to any bucket.
+public class AdmissionStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "admission";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        AdmissionController admission = ctx.getPlugin()
+                .getAdmissionController();
+
+        if (admission == null) return true;
+
+        Player player = ctx.getPlayer();
+        if (player.isOp() ||
+                player.hasPermission("ipcheck.admission.bypass")) return true;
+
+        if (!admission.admit(ctx.getAddress())) {
+            ctx.reject(Result.KICK_OTHER, ctx.getConfig()
+                    .getString("admission-kick-message"));
+            return false;
+        }
+
+        return true;
+    }
+}
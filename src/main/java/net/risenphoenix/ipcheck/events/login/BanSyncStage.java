@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import org.bukkit.entity.Player;
+
+// Ban State Updater to keep Ban Records up-to-date.
+public class BanSyncStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "ban-sync";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        DatabaseController db = ctx.getDatabase();
+        Player player = ctx.getPlayer();
+
+        boolean dbBanned = db.getUserObject(player.getName()).getBannedStatus();
+
+        if (player.isBanned()) {
+            // To prevent re-banning and to preserve ban messages.
+            if (!dbBanned) {
+                db.banPlayer(player.getName(),
+                        ctx.getConfig().getString("ban-message"));
+            }
+        } else if (dbBanned) {
+            db.unbanPlayer(player.getName());
+        }
+
+        return true;
+    }
+}
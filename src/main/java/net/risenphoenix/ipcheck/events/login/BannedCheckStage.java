@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.events.RejoinCache;
+import net.risenphoenix.ipcheck.events.RejoinNotification;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerLoginEvent.Result;
+
+// Check Banned Status and Kick if banned
+public class BannedCheckStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "banned-check";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        DatabaseController db = ctx.getDatabase();
+        Player player = ctx.getPlayer();
+        String address = ctx.getAddress();
+
+        if (!ctx.getConfig().getBoolean("should-manage-bans")) return true;
+        if (!db.isBannedPlayer(player.getName())) return true;
+
+        String banMessage = db.getBanMessage(player.getName());
+        ctx.reject(Result.KICK_BANNED, banMessage);
+
+        boolean canWarn = !db.isRejoinExemptPlayer(player.getName()) &&
+                !db.isRejoinExemptIP(address);
+
+        warnRejoin(ctx, ctx.getPlugin().getRejoinCache().put(player.getName(),
+                address, banMessage, canWarn));
+        return false;
+    }
+
+    // Execute a Rejoin Notification if the option allows and the player is not
+    // exempt from such notifications. Repeat attempts within the warning
+    // window are counted and reported together with the next warning.
+    static void warnRejoin(LoginContext ctx, RejoinCache.Verdict verdict) {
+        if (!ctx.getConfig().getBoolean("warn-on-rejoin-attempt")) return;
+        if (!verdict.canWarn()) return;
+
+        int attempts = verdict.recordAttempt();
+
+        if (attempts > 0) {
+            new RejoinNotification(ctx.getPlugin(), ctx.getPlayer(),
+                    ctx.getAddress(), attempts);
+        }
+    }
+}
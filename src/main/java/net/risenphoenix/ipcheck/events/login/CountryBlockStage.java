@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.commands.block.BlockManager;
+import org.bukkit.event.player.PlayerLoginEvent.Result;
+
+// Check if the player's country is "blocked". (GeoIP Services Hook)
+public class CountryBlockStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "country-block";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        ConfigurationManager config = ctx.getConfig();
+        if (!config.getBoolean("use-country-blacklist")) return true;
+
+        BlockManager cBlockManager = ctx.getPlugin().getBlockManager();
+
+        // CBlock will be null if the database is not found.
+        if (cBlockManager == null || !cBlockManager.getStatus()) return true;
+
+        // Fetch Country ID for player
+        String countryID = cBlockManager.getCountryID(ctx.getAddress());
+
+        boolean isBlockedCountry = cBlockManager.isBlockedCountry(countryID);
+        boolean actAsWhitelist = config
+                .getBoolean("use-blacklist-as-whitelist");
+
+        if (!(isBlockedCountry == actAsWhitelist)) {
+            String countryName = cBlockManager.getCountry(ctx.getAddress());
+
+            ctx.reject(Result.KICK_OTHER, config.getString("blocked-message") +
+                    " (" + countryName + ")");
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent.Result;
+
+/* State shared between the stages of a single login. */
+public class LoginContext {
+
+    private IPCheck ipc;
+    private PlayerLoginEvent event;
+    private Player player;
+    private String address;
+
+    // Set to false by Secure Mode to suppress the Login Notification
+    private boolean shouldNotify = true;
+
+    public LoginContext(IPCheck ipc, PlayerLoginEvent event) {
+        this.ipc = ipc;
+        this.event = event;
+        this.player = event.getPlayer();
+        this.address = event.getAddress().getHostAddress();
+    }
+
+    public IPCheck getPlugin() {
+        return this.ipc;
+    }
+
+    public ConfigurationManager getConfig() {
+        return this.ipc.getConfigurationManager();
+    }
+
+    public DatabaseController getDatabase() {
+        return this.ipc.getDatabaseController();
+    }
+
+    public PlayerLoginEvent getEvent() {
+        return this.event;
+    }
+
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    public String getAddress() {
+        return this.address;
+    }
+
+    public boolean shouldNotify() {
+        return this.shouldNotify;
+    }
+
+    public void setShouldNotify(boolean shouldNotify) {
+        this.shouldNotify = shouldNotify;
+    }
+
+    // Kicks the player with the message specified
+    public void reject(Result result, String message) {
+        this.event.setKickMessage(message);
+        this.event.setResult(result);
+    }
+}
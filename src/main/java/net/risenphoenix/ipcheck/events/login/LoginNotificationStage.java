@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.ipcheck.events.LoginNotification;
+import net.risenphoenix.ipcheck.objects.IPObject;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+
+// Perform a Login Notification
+public class LoginNotificationStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "notify";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        Player player = ctx.getPlayer();
+
+        if (!ctx.getConfig().getBoolean("notify-on-login")) return true;
+        if (!ctx.shouldNotify()) return true;
+
+        if (!player.isOp() && !player.hasPermission("ipcheck.getnotify")) {
+            IPObject ipo = ctx.getDatabase().getIPObject(ctx.getAddress());
+            ArrayList<String> names = new ArrayList<String>();
+
+            for (String s : ipo.getUsers()) {
+                if (!names.contains(s.toLowerCase())) {
+                    names.add(s.toLowerCase());
+                }
+            }
+
+            // Execute Login Notification
+            new LoginNotification(ctx.getPlugin(), player, ctx.getAddress(),
+                    names);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.ipcheck.events.RejoinCache;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerLoginEvent.Result;
+
+// Rejoin Verdict Cache: a player rejected for being banned moments ago is
+// answered from memory rather than by repeating the database work. The
+// verdict only stands while the server still considers them banned.
+public class RejoinCacheStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "rejoin-cache";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        Player player = ctx.getPlayer();
+
+        if (!ctx.getConfig().getBoolean("should-manage-bans")) return true;
+        if (!player.isBanned()) return true;
+
+        RejoinCache.Verdict verdict = ctx.getPlugin().getRejoinCache()
+                .get(player.getName(), ctx.getAddress());
+
+        if (verdict == null) return true;
+
+        ctx.reject(Result.KICK_BANNED, verdict.getBanMessage());
+        BannedCheckStage.warnRejoin(ctx, verdict);
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.events.login;
+
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.database.DatabaseController;
+import net.risenphoenix.ipcheck.objects.DateObject;
+import net.risenphoenix.ipcheck.objects.IPObject;
+import net.risenphoenix.ipcheck.objects.UserObject;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerLoginEvent.Result;
+
+import java.util.ArrayList;
+
+// Attempt to Kick Player in the event of having too many alt accounts
+// (Secure Mode Hook)
+public class SecureModeStage implements LoginStage {
+
+    @Override
+    public String getName() {
+        return "secure-mode";
+    }
+
+    @Override
+    public boolean execute(LoginContext ctx) {
+        ConfigurationManager config = ctx.getConfig();
+        if (!config.getBoolean("secure-mode")) return true;
+
+        DatabaseController db = ctx.getDatabase();
+        String player = ctx.getPlayer().getName();
+        String ip = ctx.getAddress();
+
+        ArrayList<String> names = getUniqueAccounts(db, player);
+
+        int threshold = config.getInteger("secure-kick-threshold");
+
+        // If the number of accounts is greater than the threshold, and the
+        // player-name and IP are both non-exempt, then check if the account
+        // may log in.
+        if (names.size() > threshold && !db.isExemptPlayer(player) &&
+                !db.isExemptIP(ip)) {
+
+            ArrayList<DateObject> dates = new ArrayList<DateObject>();
+
+            for (String name : names) {
+                dates.add(new DateObject(name, db.getLogTime(name)));
+            }
+
+            DateObject[] exempt = new DateObject[threshold];
+
+            for (int i = 0; i < threshold; i++) {
+                // By default set the value to the first entry in the ArrayList
+                exempt[i] = dates.get(0);
+
+                // Check for any dates occurring before the date of index 0
+                for (DateObject d : dates) {
+                    if (d.getDate().before(exempt[i].getDate())) exempt[i] = d;
+                }
+
+                // Remove the latest entry from the Dates ArrayList so as to
+                // prevent accidental duplication of entries
+                dates.remove(exempt[i]);
+            }
+
+            boolean shouldKick = true;
+
+            // See if the player who is logging in is allowed
+            for (DateObject d : exempt) {
+                if (d.getPlayer().equalsIgnoreCase(player)) shouldKick = false;
+            }
+
+            if (shouldKick) {
+                // If IPC should ban when performing a Secure-Mode Kick
+                if (config.getBoolean("should-ban-on-secure-kick") &&
+                        config.getBoolean("should-manage-bans")) {
+                    String msg = config.getString("ban-message");
+                    Player p = ctx.getPlayer();
+                    p.setBanned(true);
+
+                    // Set Banned Flag for player in IPC Database
+                    db.banPlayer(player, msg);
+
+                    // Kick Player
+                    ctx.reject(Result.KICK_BANNED, msg);
+                } else {
+                    // Kick Player
+                    ctx.reject(Result.KICK_OTHER,
+                            config.getString("secure-kick-message"));
+                }
+
+                // Secure-kicked players receive no Login Notification
+                ctx.setShouldNotify(false);
+            }
+        }
+
+        return true;
+    }
+
+    private static ArrayList<String> getUniqueAccounts(DatabaseController db,
+                                                       String player) {
+        ArrayList<String> unique_names = new ArrayList<String>();
+        UserObject user = db.getUserObject(player);
+
+        if (user.getNumberOfIPs() == 0) return null;
+
+        // Fetch IPObjects from UserObject
+        ArrayList<IPObject> ipos = new ArrayList<IPObject>();
+
+        for (String s : user.getIPs()) {
+            ipos.add(db.getIPObject(s));
+        }
+
+        for (IPObject ipo : ipos) {
+            if (ipo.getNumberOfUsers() == 1) {
+                if (ipo.getUsers().contains(player.toLowerCase())) continue;
+            }
+
+            // Append each account, plus punctuation to the string builder
+            for (String s : ipo.getUsers()) {
+                if (!unique_names.contains(s.toLowerCase())) {
+                    unique_names.add(s.toLowerCase());
+                }
+            }
+        }
+
+        return unique_names;
+    }
+}
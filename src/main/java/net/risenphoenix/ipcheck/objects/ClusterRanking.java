@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.objects;
+
+import java.util.Collections;
+import java.util.List;
+
+/* The largest clusters of linked accounts (accounts linked by shared IPs,
+ * directly or through others), as found by the last audit or /ipc top.
+ * Finding them means reading the whole log, so the ranking is kept and
+ * shown again until it is older than top-cache-minutes. Bulk changes to
+ * the log drop it at once. */
+public class ClusterRanking {
+
+    // Clusters ranked, and accounts named for each
+    public static final int MAX_CLUSTERS = 50;
+    public static final int MAX_MEMBERS = 30;
+
+    private final List<Cluster> clusters;
+    private final int clusterCount;
+    private final long created = System.currentTimeMillis();
+
+    public ClusterRanking(List<Cluster> clusters, int clusterCount) {
+        this.clusters = Collections.unmodifiableList(clusters);
+        this.clusterCount = clusterCount;
+    }
+
+    // The largest clusters, largest first
+    public final List<Cluster> getClusters() {
+        return this.clusters;
+    }
+
+    // Number of clusters of two or more accounts in the log
+    public final int getClusterCount() {
+        return this.clusterCount;
+    }
+
+    // Milliseconds since the ranking was made
+    public final long getAge() {
+        return System.currentTimeMillis() - this.created;
+    }
+
+    public static final class Cluster {
+
+        private final int size;
+        private final int ipCount;
+        private final List<String> members;
+
+        public Cluster(int size, int ipCount, List<String> members) {
+            this.size = size;
+            this.ipCount = ipCount;
+            this.members = Collections.unmodifiableList(members);
+        }
+
+        public int getSize() {
+            return this.size;
+        }
+
+        public int getIPCount() {
+            return this.ipCount;
+        }
+
+        // Some of the cluster's accounts, in alphabetical order
+        public List<String> getMembers() {
+            return this.members;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.objects;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/* Recently shown /ipc reports, kept until the records they were built from
+ * change. Staff tend to check the same suspects over and over during an
+ * incident; as long as nothing about them changes, those reports are shown
+ * again without touching the database.
+ *
+ * The database controller invalidates reports as it writes:
+ *   - a change to a player or an IP drops the report on it;
+ *   - a login drops the report on the player, and every report listing
+ *     the accounts seen on its IP, which now include the player;
+ *   - a UUID change drops the reports listing accounts with that UUID.
+ * Reports are indexed by the IPs and UUID they depend on for the latter.
+ *
+ * Logins write from the login threads, so all methods are synchronized. A
+ * report built while a write invalidated the cache is not stored, as it may
+ * have been read before the write. */
+public class ReportCache {
+
+    private static final int MAX_REPORTS = 256;
+
+    private static final String UUID_PREFIX = "uuid:";
+
+    private final Map<String, ReportModel> reports =
+            new LinkedHashMap<String, ReportModel>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, ReportModel> eldest) {
+                    if (this.size() <= MAX_REPORTS) return false;
+
+                    unindex(eldest.getValue());
+                    return true;
+                }
+            };
+
+    // Cached reports, by the IPs and UUIDs they depend on
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    // Incremented on every invalidation
+    private long generation = 0;
+
+    // Look-up Counters
+    private long hits = 0;
+    private long misses = 0;
+
+    // Subjects are player names in lower case, or IPs
+    public synchronized ReportModel get(String subject) {
+        ReportModel model = this.reports.get(subject);
+
+        if (model == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+
+        return model;
+    }
+
+    // To be read before building a report, and passed to put()
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    public synchronized void put(ReportModel model, long generation) {
+        if (generation != this.generation) return;
+
+        ReportModel previous = this.reports.put(model.getSubject(), model);
+        if (previous != null) this.unindex(previous);
+
+        for (String ip : model.getIPs()) this.index(ip, model);
+        if (model.getUUID() != null) {
+            this.index(UUID_PREFIX + model.getUUID(), model);
+        }
+    }
+
+    // Drops the report on the player or IP
+    public synchronized void invalidate(String subject) {
+        this.generation++;
+        this.remove(subject);
+    }
+
+    // Drops the report on the IP, and those listing accounts seen on it
+    public synchronized void invalidateLinks(String ip) {
+        this.generation++;
+        this.remove(ip);
+        this.removeDependents(ip);
+    }
+
+    // Drops the reports listing accounts with the UUID
+    public synchronized void invalidateUUID(String uuid) {
+        this.generation++;
+        this.removeDependents(UUID_PREFIX + uuid);
+    }
+
+    public synchronized void clear() {
+        this.generation++;
+        this.reports.clear();
+        this.dependents.clear();
+    }
+
+    public synchronized int size() {
+        return this.reports.size();
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    private void remove(String subject) {
+        ReportModel model = this.reports.remove(subject);
+        if (model != null) this.unindex(model);
+    }
+
+    private void removeDependents(String key) {
+        Set<String> subjects = this.dependents.remove(key);
+        if (subjects == null) return;
+
+        for (String subject : subjects) this.remove(subject);
+    }
+
+    private void index(String key, ReportModel model) {
+        Set<String> subjects = this.dependents.get(key);
+
+        if (subjects == null) {
+            subjects = new HashSet<>();
+            this.dependents.put(key, subjects);
+        }
+
+        subjects.add(model.getSubject());
+    }
+
+    private void unindex(ReportModel model) {
+        for (String ip : model.getIPs()) this.unindex(ip, model);
+
+        if (model.getUUID() != null) {
+            this.unindex(UUID_PREFIX + model.getUUID(), model);
+        }
+    }
+
+    private void unindex(String key, ReportModel model) {
+        Set<String> subjects = this.dependents.get(key);
+        if (subjects == null) return;
+
+        subjects.remove(model.getSubject());
+        if (subjects.isEmpty()) this.dependents.remove(key);
+    }
+}
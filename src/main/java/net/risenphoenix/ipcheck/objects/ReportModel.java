@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.objects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/* Everything a /ipc report on a player or an IP shows, as read from the
+ * database. Reports are rendered from a model, so that one can be kept in
+ * the ReportCache and shown again without any further queries.
+ *
+ * Models are filled in row by row as the report query is read; accounts
+ * are de-duplicated as they are added, so that building a report stays
+ * linear in the number of rows however many accounts share its IPs. */
+public class ReportModel {
+
+    private final String subject;
+    private final boolean forPlayer;
+    private final long created = System.currentTimeMillis();
+
+    /* Player Reports */
+
+    // Every IP the player was seen on
+    private final Set<String> ips = new LinkedHashSet<>();
+
+    // Other accounts seen on each of those IPs, where there are any
+    private final Map<String, Set<String>> links = new LinkedHashMap<>();
+
+    // All of those accounts, once each
+    private final Set<String> alts = new LinkedHashSet<>();
+
+    // Accounts listed under all of the IPs, counting repeats
+    private int linkEntries = 0;
+
+    // Other accounts with the same UUID, or null if not checked
+    private List<String> uuidAlts = null;
+    private String uuid = null;
+
+    private String lastIP = null;
+    private long lastSeen = -1;
+    private boolean protect = false;
+    private String banMessage = null;
+
+    /* IP Reports */
+
+    // Accounts seen on the IP
+    private final List<String> users = new ArrayList<>();
+
+    /* Both */
+
+    private String country = null;
+    private boolean banned = false;
+    private boolean exempt = false;
+    private boolean rejoinExempt = false;
+
+    // Subjects are player names in lower case, or IPs
+    public ReportModel(String subject, boolean forPlayer) {
+        this.subject = subject;
+        this.forPlayer = forPlayer;
+    }
+
+    /* Building */
+
+    // Records an IP the player was seen on, and an account (if not null)
+    // seen on it too
+    public final void addLink(String ip, String alt) {
+        this.ips.add(ip);
+        if (alt == null || alt.equals(this.subject)) return;
+
+        Set<String> linked = this.links.get(ip);
+
+        if (linked == null) {
+            linked = new LinkedHashSet<>();
+            this.links.put(ip, linked);
+        }
+
+        if (linked.add(alt)) this.linkEntries++;
+        this.alts.add(alt);
+    }
+
+    public final void addUser(String user) {
+        this.users.add(user);
+    }
+
+    public final void setUUID(String uuid) {
+        this.uuid = uuid;
+    }
+
+    public final void setUUIDAlts(List<String> uuidAlts) {
+        this.uuidAlts = uuidAlts;
+    }
+
+    public final void setLastIP(String lastIP) {
+        this.lastIP = lastIP;
+    }
+
+    public final void setLastSeen(long seconds) {
+        this.lastSeen = seconds;
+    }
+
+    public final void setBanMessage(String banMessage) {
+        this.banMessage = banMessage;
+    }
+
+    public final void setCountry(String country) {
+        this.country = country;
+    }
+
+    public final void setStatus(boolean banned, boolean exempt,
+                                boolean rejoinExempt, boolean protect) {
+        this.banned = banned;
+        this.exempt = exempt;
+        this.rejoinExempt = rejoinExempt;
+        this.protect = protect;
+    }
+
+    /* Reading */
+
+    public final String getSubject() {
+        return this.subject;
+    }
+
+    public final boolean isForPlayer() {
+        return this.forPlayer;
+    }
+
+    // The IPs whose log records the report was built from
+    public final Set<String> getIPs() {
+        return (this.forPlayer) ? Collections.unmodifiableSet(this.ips) :
+                Collections.singleton(this.subject);
+    }
+
+    public final Map<String, Set<String>> getLinks() {
+        return Collections.unmodifiableMap(this.links);
+    }
+
+    public final Set<String> getAlts() {
+        return Collections.unmodifiableSet(this.alts);
+    }
+
+    public final List<String> getUUIDAlts() {
+        return this.uuidAlts;
+    }
+
+    public final String getUUID() {
+        return this.uuid;
+    }
+
+    public final String getLastIP() {
+        return this.lastIP;
+    }
+
+    // Seconds since the player was last seen, or -1 if unknown
+    public final long getLastSeen() {
+        if (this.lastSeen < 0) return -1;
+
+        return this.lastSeen + (System.currentTimeMillis() - this.created) /
+                1000;
+    }
+
+    public final boolean isProtected() {
+        return this.protect;
+    }
+
+    public final String getBanMessage() {
+        return this.banMessage;
+    }
+
+    public final List<String> getUsers() {
+        return Collections.unmodifiableList(this.users);
+    }
+
+    public final String getCountry() {
+        return this.country;
+    }
+
+    public final boolean isBanned() {
+        return this.banned;
+    }
+
+    public final boolean isExempt() {
+        return this.exempt;
+    }
+
+    public final boolean isRejoinExempt() {
+        return this.rejoinExempt;
+    }
+
+    // Number of accounts linked to the subject
+    public final int getLinkCount() {
+        return (this.forPlayer) ? this.alts.size() : this.users.size();
+    }
+
+    // Number of accounts the report body lists; on player reports, an
+    // account seen on several of the player's IPs is listed under each
+    public final int getEntryCount() {
+        return (this.forPlayer) ? this.linkEntries : this.users.size();
+    }
+}
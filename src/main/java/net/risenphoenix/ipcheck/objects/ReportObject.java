@@ -35,7 +35,9 @@ import net.risenphoenix.commons.configuration.ConfigurationManager;
 import net.risenphoenix.commons.localization.LocalizationManager;
 import net.risenphoenix.ipcheck.IPCheck;
 import net.risenphoenix.ipcheck.database.DatabaseController;
-import net.risenphoenix.ipcheck.util.FormatFilter;
+import net.risenphoenix.ipcheck.stores.LocaleStore;
+import net.risenphoenix.ipcheck.util.ChatBuffer;
+import net.risenphoenix.ipcheck.util.FlightEvents;
 import net.risenphoenix.ipcheck.util.ListFormatter;
 import net.risenphoenix.ipcheck.util.TimeCalculator;
 import org.bukkit.Bukkit;
@@ -44,458 +46,469 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public class ReportObject {
 
+    // Accounts listed per page, where the configuration does not say
+    private static final int DEFAULT_PAGE_SIZE = 40;
+
     private Plugin plugin;
     private DatabaseController db;
     private ConfigurationManager config;
     private LocalizationManager local;
+    private LocaleStore locale;
+    private ReportCache cache;
 
-    /* IP Cross-Checking Variables */
-    private ArrayList<StringBuilder> SBs;
-    private ArrayList<String> singleAlts;
-    private ArrayList<String> uniqueAlts;
-
-    /* UUID Cross-Checking Variables */
-    private boolean useUUIDResults = false;
-    private String UUIDResults;
+    // Report being shown, from the cache or freshly built
+    private ReportModel model = null;
 
     private OfflinePlayer player;
     private boolean forPlayer;
 
+    // Report Pages
+    private int page = 1;
+    private int pages = 1;
+    private int pageSize;
+    private int topIPs;
+
     public ReportObject(IPCheck ipCheck) {
         this.plugin = ipCheck;
         this.db = ipCheck.getDatabaseController();
         this.config = ipCheck.getConfigurationManager();
         this.local = ipCheck.getLocalizationManager();
+        this.locale = ipCheck.getLocaleStore();
+        this.cache = ipCheck.getReportCache();
 
-        this.SBs = new ArrayList<StringBuilder>();
-        this.singleAlts = new ArrayList<String>();
-        this.uniqueAlts = new ArrayList<String>();
+        int size = this.config.getInteger("report-page-size");
+        this.pageSize = (size > 0) ? size : DEFAULT_PAGE_SIZE;
+        this.topIPs = this.config.getInteger("report-top-ips");
     }
 
-    public void onExecute(CommandSender sender, String arg) {
+    public void onExecute(CommandSender sender, String arg, int page) {
+        Object event = FlightEvents.get().beginReport(arg);
+        this.page = page;
+
+        try {
+            this.generateReport(sender, arg);
+        } finally {
+            FlightEvents.get().endReport(event, (this.model != null) ?
+                    this.model.getLinkCount() : 0, false);
+        }
+    }
+
+    private void generateReport(CommandSender sender, String arg) {
         // IP Filter for differentiating player-names from IPs
         String ip_filter = "\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}";
 
         // Determine if the input is an IP or a Player name
         forPlayer = (!arg.toLowerCase().matches(ip_filter));
 
+        // Player names are stored in lower case
+        String subject = (forPlayer) ? arg.toLowerCase() : arg;
+        this.model = this.cache.get(subject);
+
         // Fetch Offline Player for use with the Database
         if (forPlayer) {
             this.player = Bukkit.getOfflinePlayer(arg);
 
+            boolean banned = (this.model != null) ? this.model.isBanned() :
+                    db.isBannedPlayer(arg);
+
             // Ban State Updater to keep Ban Records up-to-date.
             if (player.isBanned()) {
                 // To prevent re-banning and to preserve ban messages.
-                if (!db.getUserObject(arg).getBannedStatus()) {
+                if (!banned) {
                     db.banPlayer(player.getName(),
                             config.getString("ban-message"));
+                    this.model = null;
                 }
             } else {
-                if (db.getUserObject(arg).getBannedStatus()) {
+                if (banned) {
                     db.unbanPlayer(player.getName());
+                    this.model = null;
                 }
             }
+        }
 
-            FetchResult fResult = this.fetchPlayerData(arg);
+        if (this.model == null) {
+            // Writes made meanwhile keep the new report out of the cache
+            long generation = this.cache.getGeneration();
 
-            // If the Fetch Result returned a NO_FIND status, return.
-            if (fResult == FetchResult.NOT_FOUND) {
-                this.plugin.sendPlayerMessage(sender,
-                        this.local.getLocalString("NO_FIND"));
-                return;
-            }
-        } else {
-            IPObject ipo = this.db.getIPObject(arg);
-            this.singleAlts = ipo.getUsers();
+            this.model = (forPlayer) ? this.fetchPlayerData(subject) :
+                    this.fetchIPData(subject);
 
-            if (ipo.getNumberOfUsers() == 0) {
+            // If the Fetch returned nothing, report it.
+            if (this.model == null) {
                 this.plugin.sendPlayerMessage(sender,
                         this.local.getLocalString("NO_FIND"));
                 return;
             }
+
+            this.cache.put(this.model, generation);
         }
 
+        // Split the listed accounts into pages
+        this.pages = Math.max(1, (this.model.getEntryCount() +
+                this.pageSize - 1) / this.pageSize);
+        this.page = Math.min(this.page, this.pages);
+
         // Output Report
         this.outputHead(sender, arg);
         this.outputBody(sender, arg);
-        this.outputFoot(sender, arg);
+
+        // Only the first page carries the player's or IP's details
+        if (this.page == 1) {
+            this.outputFoot(sender, arg);
+        } else {
+            this.sendSeparator(sender);
+        }
+
+        if (this.page < this.pages) {
+            this.plugin.sendPlayerMessage(sender, ChatColor.GRAY +
+                    String.format(this.local.getLocalString("LIST_NEXT_PAGE"),
+                            "ipc " + arg + " page", this.page + 1), false);
+        }
+    }
+
+    // Starts a line with a pre-rendered, coloured localized string
+    private StringBuilder line(ChatColor color, String key) {
+        return ChatBuffer.get().append(this.locale.getColored(color, key));
+    }
+
+    private void send(CommandSender sender, StringBuilder line) {
+        this.plugin.sendPlayerMessage(sender, line.toString(), false);
+    }
+
+    private void sendSeparator(CommandSender sender) {
+        this.plugin.sendPlayerMessage(sender, ChatBuffer.SEPARATOR, false);
+    }
+
+    private boolean canSeeIPs(CommandSender sender) {
+        return sender.hasPermission("ipcheck.showip") || sender.isOp();
     }
 
     // Report Header
     private void outputHead(CommandSender sender, String arg) {
-        this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
-
-        if (!forPlayer) {
-            if (sender.hasPermission("ipcheck.showip") || sender.isOp()) {
-                this.plugin.sendPlayerMessage(sender, ChatColor.GOLD +
-                        this.local.getLocalString("REPORT_HEAD_ONE") + " " +
-                        ChatColor.GREEN + arg + ChatColor.GOLD +
-                        " ... " + ChatColor.RED +
-                        this.singleAlts.size(), false);
-            } else {
-                this.plugin.sendPlayerMessage(sender, ChatColor.GOLD +
-                        this.local.getLocalString("REPORT_HEAD_TWO") + " " +
-                        ChatColor.RED + this.singleAlts.size(), false);
-            }
+        this.sendSeparator(sender);
+
+        StringBuilder head;
+
+        if (forPlayer || this.canSeeIPs(sender)) {
+            head = this.line(ChatColor.GOLD, "REPORT_HEAD_ONE").append(' ')
+                    .append(ChatColor.GREEN).append(arg).append(ChatColor.GOLD)
+                    .append(" ... ");
         } else {
-            this.plugin.sendPlayerMessage(sender, ChatColor.GOLD +
-                    this.local.getLocalString("REPORT_HEAD_ONE") + " " +
-                    ChatColor.GREEN + arg + ChatColor.GOLD + " ... " +
-                    ChatColor.RED + this.uniqueAlts.size(), false);
+            head = this.line(ChatColor.GOLD, "REPORT_HEAD_TWO").append(' ');
         }
+
+        head.append(ChatColor.RED).append(this.model.getLinkCount());
+
+        // Page number, if the report has several pages
+        if (this.pages > 1) {
+            head.append(ChatColor.GRAY).append(' ').append(String.format(
+                    this.local.getLocalString("LIST_PAGE"), this.page,
+                    this.pages));
+        }
+
+        this.send(sender, head);
     }
 
     // Report Body
     private void outputBody(CommandSender sender, String arg) {
-        if ((forPlayer && uniqueAlts.size() > 0) ||
-                (!forPlayer && singleAlts.size() > 0)) {
-
-            this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
+        if (this.model.getLinkCount() > 0) {
+            this.sendSeparator(sender);
 
             if (!forPlayer) {
-                String output = new ListFormatter(this.singleAlts)
-                        .getFormattedList().toString();
-
                 if (sender.hasPermission("ipcheck.showip")) {
-                    this.plugin.sendPlayerMessage(sender,
-                            ChatColor.LIGHT_PURPLE +
-                                    this.local.getLocalString("REPORT_BODY_ONE"),
-                            false);
-
-                    this.plugin.sendPlayerMessage(sender, ChatColor.YELLOW +
-                            output, false);
+                    this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                            "REPORT_BODY_ONE"));
+                    this.send(sender, this.appendUsers(ChatBuffer.get()
+                            .append(ChatColor.YELLOW)));
                 } else {
-                    this.plugin.sendPlayerMessage(sender,
-                            ChatColor.LIGHT_PURPLE +
-                                    this.local.getLocalString("REPORT_BODY_TWO")
-                                    + " " + ChatColor.YELLOW + output, false);
+                    this.send(sender, this.appendUsers(this.line(
+                            ChatColor.LIGHT_PURPLE, "REPORT_BODY_TWO")
+                            .append(' ').append(ChatColor.YELLOW)));
                 }
 
                 return;
             } else {
-                this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                        this.local.getLocalString("REPORT_BODY_TWO") + " ",
-                        false);
-
-                // For each StringBuilder, fetch the IP address from the
-                // beginning and store it in a separate variable, then remove
-                // it from the list along with the divisor character '|'.
-                for (int i = 0; i < this.SBs.size(); i++) {
-                    StringBuilder sb = this.SBs.get(i);
-                    StringBuilder ipAddress = new StringBuilder();
-                    String full = sb.toString();
-
-                    for (int j = 0; j < full.length(); j++) {
-                        if (full.charAt(j) != '|') {
-                            ipAddress.append(full.charAt(j));
-                        } else {
-                            break;
-                        }
-                    }
+                if (this.page == 1) this.outputTopIPs(sender);
 
-                    // Create an output omitting the IP-Address and divisor char
-                    String out = full.replace(ipAddress.toString() + "|", "");
+                this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                        "REPORT_BODY_TWO").append(' '));
 
-                    // If Sender can see IPs, show the IP, else show the place-
-                    // holder text "####:"
-                    if (!sender.hasPermission("ipcheck.showip") &&
-                            !sender.isOp()) {
-                        this.plugin.sendPlayerMessage(sender,
-                                ChatColor.RED + "####:", false);
-                    } else {
-                        String ipAdd = ipAddress.toString();
-
-                        this.plugin.sendPlayerMessage(sender, ChatColor.RED +
-                                ipAdd + ":", false);
-                    }
-
-                    // Display the associated accounts
-                    this.plugin.sendPlayerMessage(sender, out, false);
-
-                    // Place a Spacer in-between the different IP listings
-                    if (i < (SBs.size() - 1)) sender.sendMessage("");
-                }
+                this.outputLinks(sender);
             }
         } else {
-            this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                    "------------------------------------------------", false);
+            this.sendSeparator(sender);
             this.plugin.sendPlayerMessage(sender,
                     this.local.getLocalString("REPORT_BODY_FOUR"), false);
         }
 
         // UUID Hook, placed outside normal IF logic so that it will show
         // regardless of Alternate Result amounts.
-        if (forPlayer) {
+        if (forPlayer && this.page == 1) {
             // UUID Results Hook
-            if (this.useUUIDResults) {
-                this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                            "------------------------------------------------",
-                        false);
-                this.plugin.sendPlayerMessage(sender,
-                        ChatColor.LIGHT_PURPLE + this.local
-                                .getLocalString("UUID_HEAD") + " ", false);
-                this.plugin.sendPlayerMessage(sender, ChatColor.YELLOW +
-                        this.UUIDResults + " ", false);
-            }
-        }
-    }
+            List<String> uuidAlts = this.model.getUUIDAlts();
 
-    // Report Footer
-    private void outputFoot(CommandSender sender, String arg) {
-        this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
+            if (uuidAlts != null) {
+                this.sendSeparator(sender);
+                this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                        "UUID_HEAD").append(' '));
 
-        if (forPlayer) {
-            if (this.player != null) {
-                // Display Last Known IP
-                String ipOutput = this.db.getLastKnownIP(arg);
+                StringBuilder uuidResults = ChatBuffer.get()
+                        .append(ChatColor.YELLOW);
 
-                if (sender.hasPermission("ipcheck.showip") || sender.isOp()) {
-                // Output Last Known IP
-                    this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE
-                            + this.local.getLocalString("REPORT_FOOT_LAST_IP") +
-                            " " + ChatColor.YELLOW + ipOutput, false);
+                if (uuidAlts.isEmpty()) {
+                    uuidResults.append(this.local.getLocalString(
+                            "NO_UUID_RES"));
+                } else {
+                    // Long lists are cut short at a page's worth
+                    ListFormatter.append(uuidResults, uuidAlts, null, 0,
+                            this.pageSize);
+
+                    if (uuidAlts.size() > this.pageSize) {
+                        uuidResults.append(' ').append(String.format(
+                                this.local.getLocalString("REPORT_MORE"),
+                                uuidAlts.size() - this.pageSize));
+                    }
                 }
 
-                // Display Player Country
-                String out = IPCheck.getInstance().getBlockManager()
-                        .getCountry(ipOutput);
+                this.send(sender, uuidResults.append(' '));
+            }
+        }
+    }
 
-                String country = ChatColor.YELLOW + " " + ((out != null) ? out :
-                        local.getLocalString("LOCATION_UNAVAILABLE"));
+    // Appends the accounts seen on the IP that fall on the page
+    private StringBuilder appendUsers(StringBuilder sb) {
+        return ListFormatter.append(sb, this.model.getUsers(), null,
+                (this.page - 1) * this.pageSize, this.pageSize);
+    }
 
-                this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                        this.local.getLocalString("REPORT_FOOT_LOCATION") +
-                        country, false);
+    /* Sends the accounts linked through each IP that fall on the page.
+     * Pages hold up to pageSize accounts; an IP whose accounts run past the
+     * end of a page is continued on the next. Earlier pages are skipped by
+     * counting, and the accounts shown are formatted straight from the
+     * model, so nothing is copied. */
+    private void outputLinks(CommandSender sender) {
+        int skip = (this.page - 1) * this.pageSize;
+        int left = this.pageSize;
+        boolean first = true;
+
+        for (Map.Entry<String, Set<String>> link :
+                this.model.getLinks().entrySet()) {
+            Set<String> alts = link.getValue();
+
+            if (skip >= alts.size()) {
+                skip -= alts.size();
+                continue;
+            }
 
-                // Display Time since Last Login
-                String lastLog = ChatColor.YELLOW + " " +
-                        new TimeCalculator(arg).getLastTime();
+            // Place a Spacer in-between the different IP listings
+            if (!first) sender.sendMessage("");
+            first = false;
 
-                this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                        this.local.getLocalString("REPORT_FOOT_PTIME") +
-                        lastLog, false);
+            // If Sender can see IPs, show the IP, else show the place-
+            // holder text "####:"
+            StringBuilder head = ChatBuffer.get().append(ChatColor.RED)
+                    .append(this.canSeeIPs(sender) ? link.getKey() : "####")
+                    .append(':');
 
-                this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                        "------------------------------------------------",
-                        false);
+            if (skip > 0) {
+                head.append(' ').append(this.locale.getColored(
+                        ChatColor.GRAY, "REPORT_CONTINUED"));
+            }
 
-                // Display Ban Status
-                String banStatus = (this.db.isBannedPlayer(player.getName())) ?
-                        ChatColor.RED + " True" : ChatColor.GREEN + " False";
+            this.send(sender, head);
 
-                this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                        this.local.getLocalString("REPORT_FOOT_PBAN") +
-                        banStatus, false);
+            // Display the associated accounts
+            int shown = Math.min(left, alts.size() - skip);
+            this.send(sender, ListFormatter.append(ChatBuffer.get(), alts,
+                    null, skip, shown));
 
-                // Display Exemption Status
-                String exmStatus = (this.db.isExemptPlayer(player.getName())) ?
-                        ChatColor.GREEN + " True" : ChatColor.RED + " False";
+            skip = 0;
+            left -= shown;
+            if (left == 0) break;
+        }
+    }
 
-                this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                        this.local.getLocalString("REPORT_FOOT_PEXM") +
-                        exmStatus, false);
+    // Lists the IPs shared with the most accounts, ahead of a report long
+    // enough to need several pages
+    private void outputTopIPs(CommandSender sender) {
+        if (this.topIPs <= 0 || this.pages < 2) return;
+        if (!this.canSeeIPs(sender)) return;
+
+        List<Map.Entry<String, Set<String>>> ranked = new ArrayList<>(
+                this.model.getLinks().entrySet());
+        if (ranked.size() < 2) return;
+
+        Collections.sort(ranked, new Comparator<Map.Entry<String,
+                Set<String>>>() {
+            @Override
+            public int compare(Map.Entry<String, Set<String>> a,
+                               Map.Entry<String, Set<String>> b) {
+                return Integer.compare(b.getValue().size(),
+                        a.getValue().size());
+            }
+        });
 
-                // Display Protection Status
-                String proStatus = (db.isProtectedPlayer(player.getName())) ?
-                        ChatColor.GREEN + " True" : ChatColor.RED + " False";
+        StringBuilder sb = this.line(ChatColor.LIGHT_PURPLE, "REPORT_TOP_IPS");
 
-                this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                        this.local.getLocalString("REPORT_FOOT_PPRO") +
-                        proStatus, false);
+        for (int i = 0; i < Math.min(this.topIPs, ranked.size()); i++) {
+            Map.Entry<String, Set<String>> link = ranked.get(i);
 
-                // Display Rejoin Exemption Status
-                String exmRejoinStatus = (this.db.isRejoinExemptPlayer(arg)) ?
-                         ChatColor.RED + " False" : ChatColor.GREEN + " True";
-
-                if (db.isBannedPlayer(player.getName())) {
-                    this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                            "------------------------------------------------",
-                            false);
-                    this.plugin.sendPlayerMessage(sender,
-                            ChatColor.LIGHT_PURPLE + this.local
-                            .getLocalString("REPORT_FOOT_PREXM") +
-                            exmRejoinStatus, false);
-                }
+            if (i == 0) {
+                sb.append(' ');
             } else {
-                this.plugin.sendPlayerMessage(sender, ChatColor.RED +
-                        "ERROR: " + ChatColor.GOLD +
-                        this.local.getLocalString("REPORT_FOOT_ERR"), false);
+                sb.append(ChatColor.YELLOW).append(", ");
             }
-        } else {
-            // Display IP Country
-            String out = IPCheck.getInstance().getBlockManager()
-                    .getCountry(arg);
-
-            String country = ChatColor.YELLOW + " " + ((out != null) ? out :
-                    local.getLocalString("LOCATION_UNAVAILABLE"));
-
-            this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    this.local.getLocalString("REPORT_FOOT_LOCATION") +
-                    country, false);
 
-            // Display Ban Status
-            String banStatus = (this.db.isBannedIP(arg)) ?
-                    ChatColor.RED + " True" : ChatColor.GREEN + " False";
-
-            this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    this.local.getLocalString("REPORT_FOOT_IBAN") +
-                    banStatus, false);
-
-            // Display Exemption Status
-            String exmStatus = (this.db.isExemptIP(arg)) ?
-                    ChatColor.GREEN + " True" : ChatColor.RED + " False";
+            sb.append(ChatColor.RED).append(link.getKey())
+                    .append(ChatColor.YELLOW).append(" (")
+                    .append(link.getValue().size()).append(')');
+        }
 
-            this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    this.local.getLocalString("REPORT_FOOT_IEXM") +
-                    exmStatus, false);
+        this.send(sender, sb);
+    }
 
-            // Display Rejoin Exemption Status
-            String rexmStatus = (!this.db.isRejoinExemptIP(arg)) ?
-                    ChatColor.GREEN + " True" : ChatColor.RED + " False";
+    // Sends a status flag; flags whose being set is bad are shown in red
+    private void sendFlag(CommandSender sender, String key, boolean value,
+                          boolean setIsBad) {
+        this.send(sender, this.line(ChatColor.LIGHT_PURPLE, key).append(
+                (value == setIsBad) ? ChatColor.RED : ChatColor.GREEN)
+                .append((value) ? " True" : " False"));
+    }
 
-            this.plugin.sendPlayerMessage(sender, ChatColor.LIGHT_PURPLE +
-                    this.local.getLocalString("REPORT_FOOT_IREXM") +
-                    rexmStatus, false);
-        }
+    // Report Footer
+    private void outputFoot(CommandSender sender, String arg) {
+        this.sendSeparator(sender);
 
-        // Display Ban Message if one Exists
         if (forPlayer) {
-            if (sender.hasPermission("ipcheck.showbanreason") || sender.isOp()) {
-                if (player != null) {
-                    if (this.db.isBannedPlayer(arg)) {
-                        String banMsg = this.db.getBanMessage(player.getName());
-
-                        if (banMsg == null || banMsg.length() <= 0) {
-                            banMsg = this.local
-                                    .getLocalString("REPORT_BAN_GENERIC");
-                        }
-
-                        this.plugin.sendPlayerMessage(sender,
-                                ChatColor.LIGHT_PURPLE +
-                                        this.local.getLocalString("REPORT_BAN_HEAD") +
-                                        " " + ChatColor.YELLOW + banMsg, false);
-                    }
+            if (this.player != null) {
+                // Display Last Known IP
+                if (this.canSeeIPs(sender)) {
+                    this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                            "REPORT_FOOT_LAST_IP").append(' ')
+                            .append(ChatColor.YELLOW)
+                            .append(this.model.getLastIP()));
                 }
-            }
-        }
-
-        // End Report Output
-        this.plugin.sendPlayerMessage(sender, ChatColor.DARK_GRAY +
-                "------------------------------------------------", false);
-    }
-
-    // Player Data Fetch
-    private FetchResult fetchPlayerData(final String arg) {
-        // Fetch UserObject from the Database
-        UserObject user = this.db.getUserObject(arg);
 
-        // If there were zero IPs returned, return with NOT_FOUND status.
-        if (user.getNumberOfIPs() == 0) return FetchResult.NOT_FOUND;
+                // Display Player Country
+                this.sendCountry(sender);
 
-        /*=================== IP CROSS-REFERENCING ===================*/
+                // Display Time since Last Login
+                long lastSeen = this.model.getLastSeen();
 
-        // Fetch IPObjects from UserObject
-        ArrayList<IPObject> ipos = new ArrayList<IPObject>();
+                this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                        "REPORT_FOOT_PTIME").append(ChatColor.YELLOW)
+                        .append(' ').append((lastSeen >= 0) ?
+                                TimeCalculator.format(lastSeen) : "ERROR"));
 
-        // Get IP-Addresses
-        for (String s : user.getIPs()) ipos.add(this.db.getIPObject(s));
+                this.sendSeparator(sender);
 
-        // Parse Information Strings
-        for (IPObject ipo : ipos) {
+                // Display Ban, Exemption and Protection Status
+                this.sendFlag(sender, "REPORT_FOOT_PBAN",
+                        this.model.isBanned(), true);
+                this.sendFlag(sender, "REPORT_FOOT_PEXM",
+                        this.model.isExempt(), false);
+                this.sendFlag(sender, "REPORT_FOOT_PPRO",
+                        this.model.isProtected(), false);
 
-            /* If the current IPObject being parsed has one user linked and the
-             * linked user is the same user that we're checking, skip it.*/
-            if (ipo.getNumberOfUsers() == 1) {
-                if (ipo.getUsers().contains(arg.toLowerCase())) continue;
+                // Display Rejoin Exemption Status
+                if (this.model.isBanned()) {
+                    this.sendSeparator(sender);
+                    this.sendFlag(sender, "REPORT_FOOT_PREXM",
+                            !this.model.isRejoinExempt(), false);
+                }
+            } else {
+                this.plugin.sendPlayerMessage(sender, ChatColor.RED +
+                        "ERROR: " + ChatColor.GOLD +
+                        this.local.getLocalString("REPORT_FOOT_ERR"), false);
             }
+        } else {
+            // Display IP Country
+            this.sendCountry(sender);
+
+            // Display Ban, Exemption and Rejoin Exemption Status
+            this.sendFlag(sender, "REPORT_FOOT_IBAN",
+                    this.model.isBanned(), true);
+            this.sendFlag(sender, "REPORT_FOOT_IEXM",
+                    this.model.isExempt(), false);
+            this.sendFlag(sender, "REPORT_FOOT_IREXM",
+                    !this.model.isRejoinExempt(), false);
+        }
 
-            // Create New String Builder
-            StringBuilder sb = new StringBuilder();
+        // Display Ban Message if one Exists
+        if (forPlayer && player != null && this.model.isBanned()) {
+            if (sender.hasPermission("ipcheck.showbanreason") ||
+                    sender.isOp()) {
+                String banMsg = this.model.getBanMessage();
 
-            // Append the leading IP-Address, plus a splitter character '|'
-            sb.append(ipo.getIP() + "|");
+                if (banMsg == null || banMsg.length() <= 0) {
+                    banMsg = this.local.getLocalString("REPORT_BAN_GENERIC");
+                }
 
-            // Create a FormatFilter for the ListFormatter
-            FormatFilter fFilter = new FormatFilter() {
-                private ArrayList<String> inputs = new ArrayList<>();
+                this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                        "REPORT_BAN_HEAD").append(' ')
+                        .append(ChatColor.YELLOW).append(banMsg));
+            }
+        }
 
-                @Override
-                public String execute(String input) {
-                    // Filter out duplicate entries
-                    if (inputs.contains(input.toLowerCase())) {
-                        return null;
-                    } else {
-                        inputs.add(input.toLowerCase());
-                    }
+        // End Report Output
+        this.sendSeparator(sender);
+    }
 
-                    // Filter out entries of the search term
-                    return (!(input.equalsIgnoreCase(arg))) ? input : null;
-                }
-            };
-
-            // Create a Formatted List with the Account Names and append it to
-            // the current StringBuilder.
-            ListFormatter format = new ListFormatter(ipo.getUsers(), fFilter);
-            sb.append(format.getFormattedList());
-
-            // Create Unique_Accounts List, ignoring case.
-            for (String s : ipo.getUsers()) {
-                String val = s.toLowerCase();
-                if (!val.equalsIgnoreCase(arg)) {
-                    if (!uniqueAlts.contains(val)) uniqueAlts.add(val);
-                }
-            }
+    private void sendCountry(CommandSender sender) {
+        String out = this.model.getCountry();
 
-            /* Add the StringBuilder to the holder ArrayList if there are
-             * accounts linked to the IP that are not filtered out. */
-            if (!sb.toString().equals(ipo.getIP() + "|")) SBs.add(sb);
-        }
+        this.send(sender, this.line(ChatColor.LIGHT_PURPLE,
+                "REPORT_FOOT_LOCATION").append(ChatColor.YELLOW).append(' ')
+                .append((out != null) ? out : this.local.getLocalString(
+                        "LOCATION_UNAVAILABLE")));
+    }
 
-        /*=================== UUID CROSS-REFERENCING ===================*/
+    // Player Data Fetch; returns null if the player was never seen
+    private ReportModel fetchPlayerData(final String arg) {
+        ReportModel report = this.db.getPlayerReport(arg);
+        if (report == null) return null;
 
         // If Server is Online, allow Report to display UUID Results
         if (Bukkit.getOnlineMode()) {
-            this.useUUIDResults = true;
+            Set<String> unique = new LinkedHashSet<>();
 
             // If User UUID field is not null, check database for other
             // accounts sharing the same UUID.
-            if (user.getUUID() != null) {
-                ArrayList<String> uuid_links =
-                        this.db.getPlayersByUUID(user.getUUID());
-
-                ArrayList<String> unique_uuid_results =
-                        new ArrayList<String>();
-
-                for (String s : uuid_links) {
-                    if (s.toLowerCase().equals(arg.toLowerCase())) continue;
-                    if (!unique_uuid_results.contains(s))
-                        unique_uuid_results.add(s);
-                }
-
-                if (unique_uuid_results.size() == 0) {
-                    this.UUIDResults = this.local.getLocalString("NO_UUID_RES");
-                } else {
-                    ListFormatter format =
-                            new ListFormatter(unique_uuid_results);
-
-                    this.UUIDResults = format.getFormattedList().toString();
+            if (report.getUUID() != null) {
+                for (String s : this.db.getPlayersByUUID(
+                        UUID.fromString(report.getUUID()))) {
+                    if (!s.equalsIgnoreCase(arg)) unique.add(s);
                 }
-            } else {
-                this.UUIDResults = this.local.getLocalString("NO_UUID_RES");
             }
+
+            report.setUUIDAlts(new ArrayList<>(unique));
         }
 
-        return FetchResult.GOOD;
+        report.setCountry(IPCheck.getInstance().getBlockManager()
+                .getCountry(report.getLastIP()));
+
+        return report;
     }
 
-    private enum FetchResult {
-        GOOD,
-        NOT_FOUND
+    // IP Data Fetch; returns null if the IP was never seen
+    private ReportModel fetchIPData(final String ip) {
+        ReportModel report = this.db.getIPReport(ip);
+        if (report == null) return null;
+
+        report.setCountry(IPCheck.getInstance().getBlockManager()
+                .getCountry(ip));
+
+        return report;
     }
 }
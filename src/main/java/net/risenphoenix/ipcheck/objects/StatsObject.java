@@ -32,22 +32,81 @@ package net.risenphoenix.ipcheck.objects;
 
 import net.risenphoenix.commons.database.DatabaseManager;
 import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.RecordList;
+import net.risenphoenix.ipcheck.util.RollingCounter;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class StatsObject {
 
+    // Counter Names (also used as keys in the ipcheck_stats table)
+    public static final String BANS = "bans";
+    public static final String JOINS = "joins";
+    public static final String WARNINGS = "warnings";
+    public static final String KICKS = "kicks";
+    public static final String UNBANS = "unbans";
+
     private IPCheck ipc;
 
     // Stat Storage
-    private int bannedPlayerSession;
-    private int logPlayerSession;
-    private int warningIssuedSession;
-    private int kickIssuedSession;
-    private int unbannedPlayerSession;
+    private final Map<String, RollingCounter> counters = new LinkedHashMap<>();
+
+    // All-time totals carried over from previous sessions
+    private final Map<String, Long> persisted = new HashMap<>();
+
+    private BukkitTask checkpointTask = null;
 
     public StatsObject(final IPCheck ipc) {
         this.ipc = ipc;
+
+        for (String name : new String[]{BANS, JOINS, WARNINGS, KICKS,
+                UNBANS}) {
+            this.counters.put(name, new RollingCounter());
+        }
+    }
+
+    public void start() {
+        Map<String, Long> stored = ipc.getDatabaseController()
+                .getStatistics();
+
+        for (String name : this.counters.keySet()) {
+            Long value = stored.get(name);
+            this.persisted.put(name, (value == null) ? 0L : value);
+        }
+
+        long period = Math.max(1,
+                ipc.getConfigurationManager().getInteger("stats-checkpoint"))
+                * 20L;
+
+        this.checkpointTask = ipc.getServer().getScheduler().runTaskTimer(ipc,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        checkpoint();
+                    }
+                }, period, period);
+    }
+
+    public void stop() {
+        if (this.checkpointTask != null) {
+            this.checkpointTask.cancel();
+            this.checkpointTask = null;
+        }
+
+        this.checkpoint();
+    }
+
+    // Writes the all-time total of each counter to the database
+    public void checkpoint() {
+        if (this.persisted.isEmpty()) return;
+
+        for (String name : this.counters.keySet()) {
+            ipc.getDatabaseController().saveStatistic(name,
+                    this.getAllTime(name));
+        }
     }
 
     public String getPluginVersion() {
@@ -79,27 +138,33 @@ public class StatsObject {
     }
 
     public int getPlayersExempt() {
-        return ipc.getDatabaseController().getPlayerExemptList().size();
+        return ipc.getDatabaseController().countRecords(
+                RecordList.EXEMPT_PLAYER);
     }
 
     public int getIPsExempt() {
-        return ipc.getDatabaseController().getIPExemptList().size();
+        return ipc.getDatabaseController().countRecords(
+                RecordList.EXEMPT_IP);
     }
 
     public int getPlayersRejoinExempt() {
-        return ipc.getDatabaseController().fetchRejoinExemptPlayers().size();
+        return ipc.getDatabaseController().countRecords(
+                RecordList.REJOIN_PLAYER);
     }
 
     public int getIPsRejoinExempt() {
-        return ipc.getDatabaseController().fetchRejoinExemptIPs().size();
+        return ipc.getDatabaseController().countRecords(
+                RecordList.REJOIN_IP);
     }
 
     public int getPlayersBanned() {
-        return ipc.getDatabaseController().fetchBannedPlayers().size();
+        return ipc.getDatabaseController().countRecords(
+                RecordList.BANNED_PLAYER);
     }
 
     public int getIPsBanned() {
-        return ipc.getDatabaseController().fetchBannedIPs().size();
+        return ipc.getDatabaseController().countRecords(
+                RecordList.BANNED_IP);
     }
 
     public DatabaseManager.DatabaseType getDatabaseType() {
@@ -107,43 +172,61 @@ public class StatsObject {
     }
 
     public void logPlayerBan(int count) {
-        this.bannedPlayerSession += count;
+        this.counters.get(BANS).add(count);
     }
 
     public void logPlayerJoin(int count) {
-        this.logPlayerSession += count;
+        this.counters.get(JOINS).add(count);
     }
 
     public void logWarningIssue(int count) {
-        this.warningIssuedSession += count;
+        this.counters.get(WARNINGS).add(count);
     }
 
     public void logKickIssue(int count) {
-        this.kickIssuedSession += count;
+        this.counters.get(KICKS).add(count);
     }
 
     public void logPlayerUnban(int count) {
-        this.unbannedPlayerSession += count;
+        this.counters.get(UNBANS).add(count);
+    }
+
+    public long getBannedPlayerSession() {
+        return this.counters.get(BANS).getTotal();
     }
 
-    public int getBannedPlayerSession() {
-        return bannedPlayerSession;
+    public long getLogPlayerSession() {
+        return this.counters.get(JOINS).getTotal();
     }
 
-    public int getLogPlayerSession() {
-        return logPlayerSession;
+    public long getWarningIssuedSession() {
+        return this.counters.get(WARNINGS).getTotal();
     }
 
-    public int getWarningIssuedSession() {
-        return warningIssuedSession;
+    public long getKickIssuedSession() {
+        return this.counters.get(KICKS).getTotal();
     }
 
-    public int getKickIssuedSession() {
-        return kickIssuedSession;
+    public long getUnbannedPlayerSession() {
+        return this.counters.get(UNBANS).getTotal();
     }
 
-    public int getUnbannedPlayerSession() {
-        return unbannedPlayerSession;
+    // Returns the number of events counted this session
+    public long getCounter(String name) {
+        return this.counters.get(name).getTotal();
+    }
+
+    // Returns the number of events counted over the last given minutes
+    public long getWindow(String name, int minutes) {
+        return this.counters.get(name).getWindow(minutes);
+    }
+
+    // Returns the total across all sessions (including the current one)
+    public long getAllTime(String name) {
+        Long base = this.persisted.get(name);
+
+        return ((base == null) ? 0L : base) +
+                this.counters.get(name).getTotal();
     }
 
     public boolean getSecureStatus() {
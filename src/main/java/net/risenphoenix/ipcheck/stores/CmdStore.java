@@ -40,6 +40,7 @@ import net.risenphoenix.ipcheck.commands.block.CmdUnblock;
 import net.risenphoenix.ipcheck.commands.exempt.*;
 import net.risenphoenix.ipcheck.commands.exempt.list.*;
 import net.risenphoenix.ipcheck.commands.protect.CmdProtect;
+import net.risenphoenix.ipcheck.commands.protect.CmdProtectList;
 import net.risenphoenix.ipcheck.commands.protect.CmdUnprotect;
 import net.risenphoenix.ipcheck.commands.toggle.CmdToggle;
 
@@ -91,6 +92,16 @@ public class CmdStore extends CommandStore {
                 new CmdModBan(plugin, new String[]{"ipc", "modban", "VAR_ARG"},
                         CommandType.DYNAMIC));
 
+        // Ban-List (IP)
+        this.add(
+                new CmdBanList(plugin, new String[]{"ipc", "ban-list", "ip",
+                        "VAR_ARG_OPT"}, CommandType.VARIABLE, true));
+
+        // Ban-List (Player)
+        this.add(
+                new CmdBanList(plugin, new String[]{"ipc", "ban-list",
+                        "player", "VAR_ARG_OPT"}, CommandType.VARIABLE, false));
+
         // Kick Command
         this.add(
                 new CmdKick(plugin, new String[]{"ipc", "kick", "VAR_ARG"},
@@ -109,18 +120,29 @@ public class CmdStore extends CommandStore {
         // Exempt-List (IP)
         this.add(
                 new CmdExemptListIP(plugin, new String[]{"ipc", "exempt-list",
-                        "ip"}, CommandType.STATIC));
+                        "ip", "VAR_ARG_OPT"}, CommandType.VARIABLE));
 
         // Exempt-List (Player)
         this.add(
                 new CmdExemptListPlayer(plugin, new String[]{"ipc",
-                        "exempt-list", "player"}, CommandType.STATIC));
+                        "exempt-list", "player", "VAR_ARG_OPT"},
+                        CommandType.VARIABLE));
 
         // Exempt-List (All)
         this.add(
                 new CmdExemptListAll(plugin, new String[]{"ipc",
                         "exempt-list"}, CommandType.STATIC));
 
+        // Rejoin-List (IP)
+        this.add(
+                new CmdRejoinList(plugin, new String[]{"ipc", "rejoin-list",
+                        "ip", "VAR_ARG_OPT"}, CommandType.VARIABLE, true));
+
+        // Rejoin-List (Player)
+        this.add(
+                new CmdRejoinList(plugin, new String[]{"ipc", "rejoin-list",
+                        "player", "VAR_ARG_OPT"}, CommandType.VARIABLE, false));
+
         // Block Command
         this.add(
                 new CmdBlock(plugin, new String[]{"ipc", "block", "VAR_ARG"},
@@ -141,9 +163,24 @@ public class CmdStore extends CommandStore {
                 new CmdUnprotect(plugin, new String[]{"ipc", "unprotect",
                         "VAR_ARG"}, CommandType.VARIABLE));
 
+        // Protect-List Command
+        this.add(
+                new CmdProtectList(plugin, new String[]{"ipc", "protect-list",
+                        "VAR_ARG_OPT"}, CommandType.VARIABLE));
+
         // Scan Command
         this.add(
-                new CmdScan(plugin, new String[]{"ipc", "scan"},
+                new CmdScan(plugin, new String[]{"ipc", "scan",
+                        "VAR_ARG_OPT"}, CommandType.VARIABLE));
+
+        // Alerts Command
+        this.add(
+                new CmdAlerts(plugin, new String[]{"ipc", "alerts",
+                        "VAR_ARG_OPT"}, CommandType.VARIABLE));
+
+        // Database Performance Command
+        this.add(
+                new CmdPerfDB(plugin, new String[]{"ipc", "perf", "db"},
                         CommandType.STATIC));
 
         // Status Command
@@ -154,8 +191,47 @@ public class CmdStore extends CommandStore {
         // Purge Command
         this.add(
                 new CmdPurge(plugin, new String[]{"ipc", "purge", "VAR_ARG"},
+                        CommandType.DYNAMIC));
+
+        // Import-Bans Command
+        this.add(
+                new CmdImportBans(plugin, new String[]{"ipc", "import", "bans",
+                        "VAR_ARG_OPT"}, CommandType.VARIABLE));
+
+        // Import Command
+        this.add(
+                new CmdImport(plugin, new String[]{"ipc", "import", "VAR_ARG"},
                         CommandType.VARIABLE));
 
+        // Export Command
+        this.add(
+                new CmdExport(plugin, new String[]{"ipc", "export",
+                        "VAR_ARG_OPT"}, CommandType.VARIABLE));
+
+        // Backup Command
+        this.add(
+                new CmdBackup(plugin, new String[]{"ipc", "backup"},
+                        CommandType.STATIC));
+
+        // Retention Command
+        this.add(
+                new CmdRetention(plugin, new String[]{"ipc", "retention"},
+                        CommandType.STATIC));
+
+        // Audit Command
+        this.add(
+                new CmdAudit(plugin, new String[]{"ipc", "audit"},
+                        CommandType.STATIC));
+
+        // Top Command
+        this.add(
+                new CmdTop(plugin, new String[]{"ipc", "top", "VAR_ARG",
+                        "VAR_ARG"}, CommandType.VARIABLE, true));
+
+        this.add(
+                new CmdTop(plugin, new String[]{"ipc", "top", "VAR_ARG_OPT"},
+                        CommandType.VARIABLE, false));
+
         // Toggle Command
         this.add(
                 new CmdToggle(plugin, new String[]{"ipc", "toggle", "VAR_ARG"},
@@ -166,9 +242,14 @@ public class CmdStore extends CommandStore {
                 new CmdReload(plugin, new String[]{"ipc", "reload"},
                         CommandType.STATIC));
 
+        // Report Pages
+        this.add(
+                new CmdCheck(plugin, new String[]{"ipc", "VAR_ARG", "page",
+                        "VAR_ARG"}, CommandType.VARIABLE, true));
+
         // ROOT COMMAND
         this.add(
                 new CmdCheck(plugin, new String[]{"ipc", "VAR_ARG"},
-                        CommandType.VARIABLE));
+                        CommandType.VARIABLE, false));
     }
 }
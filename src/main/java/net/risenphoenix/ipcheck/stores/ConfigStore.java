@@ -99,6 +99,92 @@ public class ConfigStore extends ConfigurationStore {
         this.add(new ConfigurationOption(ConfigOptionType.Integer,
                 "secure-kick-threshold"));
 
+        // Notification Digest
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "digest-threshold"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "digest-window"));
+
+        // Admission Control
+        this.add(new ConfigurationOption(ConfigOptionType.Boolean,
+                "use-admission-control"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "admission-ip-rate"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "admission-ip-burst"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "admission-subnet-rate"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "admission-subnet-burst"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "admission-global-rate"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "admission-global-burst"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.String,
+                "admission-kick-message"));
+
+        // Rejoin Verdict Cache
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "rejoin-cache-ttl"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "rejoin-warning-window"));
+
+        // Statistics
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "stats-checkpoint"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "slow-query-threshold"));
+
+        // Prometheus Endpoint
+        this.add(new ConfigurationOption(ConfigOptionType.Boolean,
+                "use-prometheus-endpoint"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.String,
+                "prometheus-address"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "prometheus-port"));
+
+        // SQLite Backups
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "backup-interval"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "backup-count"));
+
+        // Log Retention
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "log-retention-days"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "retention-interval"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Boolean,
+                "retention-archive"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Boolean,
+                "retention-optimize"));
+
+        // Reports
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "report-page-size"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "report-top-ips"));
+
+        this.add(new ConfigurationOption(ConfigOptionType.Integer,
+                "top-cache-minutes"));
+
         // Plugin Messages
         this.add(new ConfigurationOption(ConfigOptionType.String,
                 "secure-kick-message"));
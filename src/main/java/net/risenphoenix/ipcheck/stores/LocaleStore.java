@@ -32,11 +32,44 @@ package net.risenphoenix.ipcheck.stores;
 
 import net.risenphoenix.commons.Plugin;
 import net.risenphoenix.commons.stores.LocalizationStore;
+import org.bukkit.ChatColor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LocaleStore extends LocalizationStore {
 
+    private final Plugin plugin;
+
+    // Localized strings with a colour code in front, by colour and key
+    private final Map<ChatColor, Map<String, String>> colored =
+            new EnumMap<>(ChatColor.class);
+
     public LocaleStore(final Plugin plugin) {
         super(plugin);
+        this.plugin = plugin;
+
+        // Filled in up front, so that look-ups need no locking
+        for (ChatColor color : ChatColor.values()) {
+            this.colored.put(color, new ConcurrentHashMap<String, String>());
+        }
+    }
+
+    /* Returns the localized string with the colour code in front, rendered
+     * on first use. The store is replaced when the plugin is reloaded, so
+     * these do not outlive a change of language. */
+    public final String getColored(ChatColor color, String key) {
+        Map<String, String> strings = this.colored.get(color);
+        String rendered = strings.get(key);
+
+        if (rendered == null) {
+            rendered = color + this.plugin.getLocalizationManager()
+                    .getLocalString(key);
+            strings.put(key, rendered);
+        }
+
+        return rendered;
     }
     
     @Override
@@ -50,6 +83,14 @@ public class LocaleStore extends LocalizationStore {
                 "the exemption.");
         this.add("EXEMPT_LIST_IP", "Exempt IPs:");
         this.add("EXEMPT_LIST_PLAYER", "Exempt Players:");
+        this.add("BAN_LIST_IP", "Banned IPs:");
+        this.add("BAN_LIST_PLAYER", "Banned Players:");
+        this.add("PROTECT_LIST", "Protected Players:");
+        this.add("REJOIN_LIST_IP", "Rejoin-Exempt IPs:");
+        this.add("REJOIN_LIST_PLAYER", "Rejoin-Exempt Players:");
+        this.add("LIST_PAGE", "(page %s of %s)");
+        this.add("LIST_NEXT_PAGE", "Type /%s %s for the next page.");
+        this.add("LIST_BAD_PAGE", "Invalid page number: %s");
         this.add("TOGGLE_SECURE", "Secure-Mode");
         this.add("TOGGLE_NOTIFY", "Notify-On-Login");
         this.add("TOGGLE_DETAIL", "Descriptive-Notify");
@@ -64,6 +105,11 @@ public class LocaleStore extends LocalizationStore {
         this.add("DISABLE_ERR", "This command has been disabled via configuration.");
         this.add("SCAN_CLEAN", "No players with multiple accounts are logged " +
                 "in right now.");
+        this.add("SCAN_TOGETHER_CLEAN", "No linked accounts are logged in " +
+                "together right now.");
+        this.add("SCAN_PENDING", "%s players who just joined have not been " +
+                "checked yet.");
+        this.add("SCAN_BAD_MODE", "Unknown scan mode: %s");
         this.add("TIME_RANGE_EMPTY","No accounts were returned within the " +
                 "date-range given.");
         this.add("RELOAD","Reload complete!");
@@ -72,6 +118,8 @@ public class LocaleStore extends LocalizationStore {
                 "fetch this Command from the Command Manager.");
         this.add("METRICS_ERR", "An error occurred while initializing the " +
                 "Metrics system.");
+        this.add("PROMETHEUS_ERR", "Could not start the Prometheus " +
+                "endpoint on %s: %s");
 
         // Command Names
         this.add("CMD_CHECK","Check");
@@ -79,12 +127,18 @@ public class LocaleStore extends LocalizationStore {
         this.add("CMD_UNBAN","Unban");
         this.add("CMD_EXEMPT","Exempt");
         this.add("CMD_UNEXEMPT","Unexempt");
+        this.add("CMD_CHECK_PAGE","Check (page)");
         this.add("CMD_RELOAD","Reload");
         this.add("CMD_ABOUT","About");
         this.add("CMD_TOGGLE","Toggle");
         this.add("CMD_EXEMPT_LIST","Exempt-List (all)");
         this.add("CMD_EXEMPT_LIST_IP","Exempt-List (ip)");
         this.add("CMD_EXEMPT_LIST_PLAYER","Exempt-List (player)");
+        this.add("CMD_BAN_LIST_IP","Ban-List (ip)");
+        this.add("CMD_BAN_LIST_PLAYER","Ban-List (player)");
+        this.add("CMD_REJOIN_LIST_IP","Rejoin-List (ip)");
+        this.add("CMD_REJOIN_LIST_PLAYER","Rejoin-List (player)");
+        this.add("CMD_PROTECT_LIST","Protect-List");
         this.add("CMD_HELP","Help");
         this.add("CMD_KICK","Kick");
         this.add("CMD_SBAN","Single-Ban");
@@ -98,10 +152,22 @@ public class LocaleStore extends LocalizationStore {
         this.add("CMD_UNPROTECT", "Unprotect");
         this.add("CMD_MODBAN", "Modify Ban");
         this.add("CMD_STATUS", "Status");
+        this.add("CMD_ALERTS", "Alerts");
+        this.add("CMD_PERF_DB", "Database Performance");
+        this.add("CMD_IMPORT_BANS", "Import Bans");
+        this.add("CMD_EXPORT", "Export");
+        this.add("CMD_IMPORT", "Import");
+        this.add("CMD_BACKUP", "Backup");
+        this.add("CMD_RETENTION", "Retention");
+        this.add("CMD_AUDIT", "Audit");
+        this.add("CMD_TOP", "Top");
+        this.add("CMD_TOP_COUNT", "Top (Count)");
 
         // Command Help Documentation
         this.add("HELP_CHECK","Displays information about " +
                 "the player or IP Specified.");
+        this.add("HELP_CHECK_PAGE","Displays the given page of a " +
+                "report too long to be shown at once.");
         this.add("HELP_BAN","Bans the player or IP " +
                 "specified. In addition, this command will also ban any " +
                 "alternative accounts associated, plus the IP-address.");
@@ -120,9 +186,20 @@ public class LocaleStore extends LocalizationStore {
         this.add("HELP_EXEMPT_LIST","Displays all players/" +
                 "ips that are exempt from events-checking.");
         this.add("HELP_EXEMPT_LIST_IP","Displays all IPs " +
-                "which are exempt from events-checking.");
+                "which are exempt from events-checking, a page at a time.");
         this.add("HELP_EXEMPT_LIST_PLAYER","Displays all " +
-                "players who are exempt from events-checking.");
+                "players who are exempt from events-checking, a page at a " +
+                "time.");
+        this.add("HELP_BAN_LIST_IP", "Displays all banned IPs, a page at a " +
+                "time.");
+        this.add("HELP_BAN_LIST_PLAYER", "Displays all banned players, a " +
+                "page at a time.");
+        this.add("HELP_REJOIN_LIST_IP", "Displays all IPs exempt from the " +
+                "rejoin warning, a page at a time.");
+        this.add("HELP_REJOIN_LIST_PLAYER", "Displays all players exempt " +
+                "from the rejoin warning, a page at a time.");
+        this.add("HELP_PROTECT_LIST", "Displays all protected players, a " +
+                "page at a time.");
         this.add("HELP_HELP","Provides information about " +
                 "all of the associated IP-Check Commands.");
         this.add("HELP_KICK","Kicks all players linked to " +
@@ -130,9 +207,12 @@ public class LocaleStore extends LocalizationStore {
         this.add("HELP_SBAN","Bans a single player from " +
                 "your server.");
         this.add("HELP_PURGE","Deletes records of the IP or " +
-                "Player name specified.");
+                "Player name specified, or of many at once: a CIDR block, a " +
+                "name prefix (name*), \"inactive 180d\" or \"single\" for " +
+                "unbanned players seen on one IP.");
         this.add("HELP_SCAN","Scans all players currently " +
-                "online to check for any who may possess multiple accounts.");
+                "online to check for any who may possess multiple accounts. " +
+                "With \"online\", lists linked accounts logged in together.");
         this.add("HELP_BANALL","Bans all accounts found " +
                 "within specified time frame.");
         this.add("HELP_UNBANALL","Unbans all accounts found " +
@@ -148,9 +228,35 @@ public class LocaleStore extends LocalizationStore {
         this.add("HELP_MODBAN", "Allows you to modify the ban message of " +
                 "any banned player.");
         this.add("HELP_STATUS", "Displays IP-Check usage statistics.");
+        this.add("HELP_ALERTS", "Displays recent login and rejoin alerts, " +
+                "including those condensed during join floods.");
+        this.add("HELP_PERF_DB", "Displays execution counts and timings " +
+                "(p50 / p99 / max) for each database statement.");
+        this.add("HELP_IMPORT_BANS", "Imports the server's ban lists, or a " +
+                "ban list file placed in the IP-Check folder, into the " +
+                "IP-Check database.");
+        this.add("HELP_EXPORT", "Exports the IP-Check database to a " +
+                "compressed snapshot in the exports folder. The csv and " +
+                "ndjson formats are also available.");
+        this.add("HELP_IMPORT", "Restores a snapshot made with /ipc export, " +
+                "replacing the records it contains.");
+        this.add("HELP_BACKUP", "Backs up the SQLite database into the " +
+                "backups folder while the server keeps running.");
+        this.add("HELP_RETENTION", "Deletes log records older than the " +
+                "configured retention period, and players and IPs not seen " +
+                "since.");
+        this.add("HELP_AUDIT", "Checks every account in the log for alts, " +
+                "offline players included, and writes the clusters of linked " +
+                "accounts found to a report in the audits folder.");
+        this.add("HELP_TOP", "Lists the largest clusters of linked " +
+                "accounts, the IPs shared by the most accounts or the " +
+                "countries with the most accounts.");
+        this.add("HELP_TOP_COUNT", "Lists the given number of the largest " +
+                "clusters, most shared IPs or countries.");
 
         // Other Messages
         this.add("SCAN_TITLE","Player Scan Results");
+        this.add("SCAN_TOGETHER_TITLE","Linked Accounts Online Together");
         this.add("SCAN_EXPLAIN","The following players were " +
                 "found to have multiple accounts:");
         this.add("LOGIN_WARN","Warning!");
@@ -159,6 +265,101 @@ public class LocaleStore extends LocalizationStore {
         this.add("REJOIN_WARN", "Notice!");
         this.add("REJOIN_EXPLAIN", " was kicked from the server due to a " +
                 "previous IP-Ban.");
+        this.add("REJOIN_REPEAT", "(%s attempts since the last warning)");
+
+        // Notification Digest Messages
+        this.add("DIGEST_HEAD", "%s alerts were condensed during the last " +
+                "%s seconds.");
+        this.add("DIGEST_LOGINS", "Login Warnings:");
+        this.add("DIGEST_REJOINS", "Rejoin Attempts:");
+        this.add("DIGEST_TOP_SOURCES", "Top Sources:");
+        this.add("DIGEST_TOP_ACCOUNTS", "Top Accounts:");
+        this.add("DIGEST_DETAIL", "Use '/ipc alerts' to review each alert.");
+        this.add("ALERTS_HEAD", "Recent Alerts (page %s of %s):");
+        this.add("ALERTS_EMPTY", "No alerts have been raised this session.");
+        this.add("ALERTS_LOGIN", "possible alt accounts:");
+        this.add("ALERTS_REJOIN", "rejoin attempt while banned");
+
+        // Performance Messages
+        this.add("PERF_DB_HEAD", "Database Statements (count, p50 / p99 / " +
+                "max, total):");
+        this.add("PERF_DB_EMPTY", "No database statements have been " +
+                "executed yet.");
+        this.add("PERF_DB_MORE", "...and %s more.");
+
+        // Import Messages
+        this.add("IMPORT_START", "Importing %s...");
+        this.add("IMPORT_RESUME", "Resuming the import of %s at entry %s.");
+        this.add("IMPORT_PROGRESS", "%s: %s entries read (%s per second).");
+        this.add("IMPORT_DONE", "Imported %s player bans and %s IP bans from " +
+                "%s (%s expired or empty entries skipped) in %s.");
+        this.add("IMPORT_NOT_FOUND", "Could not find %s.");
+        this.add("IMPORT_BAD_PATH", "Ban lists can only be imported from the " +
+                "IP-Check folder.");
+        this.add("IMPORT_ERR", "The import of %s failed: %s");
+        this.add("IMPORT_STOPPED", "The import of %s was interrupted at " +
+                "entry %s. Run the command again to resume it.");
+        this.add("IMPORT_SYNC_NOTE", "The player bans are added to the " +
+                "server's ban list too, a few at a time, so the import will " +
+                "take a while longer than usual.");
+
+        // Export and Restore Messages
+        this.add("EXPORT_START", "Exporting the database to %s...");
+        this.add("EXPORT_PROGRESS", "%s: %s rows written (%s per second).");
+        this.add("EXPORT_DONE", "Exported %s rows to %s (%s) in %s.");
+        this.add("EXPORT_BAD_FORMAT", "Unknown format '%s'. Use binary, csv " +
+                "or ndjson.");
+        this.add("RESTORE_START", "Restoring %s...");
+        this.add("RESTORE_PROGRESS", "%s: %s rows restored (%s per second).");
+        this.add("RESTORE_DONE", "Restored %s rows from %s in %s.");
+        this.add("RESTORE_BAD_PATH", "Snapshots can only be restored from " +
+                "the IP-Check folder.");
+        this.add("RESTORE_STOPPED", "The restore of %s was interrupted " +
+                "after %s rows. Run it again to complete it.");
+        this.add("BACKUP_START", "Backing up the database...");
+        this.add("BACKUP_DONE", "Backed up the database to %s (%s KiB) in " +
+                "%s. %s old backups removed.");
+        this.add("BACKUP_MYSQL", "Backups are only taken of SQLite " +
+                "databases. Use your MySQL server's tools instead.");
+        this.add("RETENTION_START", "Applying the log retention policy...");
+        this.add("RETENTION_DONE", "Removed %s log records, %s players and " +
+                "%s IPs not seen in %s days, in %s.");
+        this.add("RETENTION_ARCHIVED", "The removed records were saved to %s.");
+        this.add("AUDIT_START", "Auditing the log for linked accounts...");
+        this.add("LOG_READ_PROGRESS", "Reading the log: %s records " +
+                "read...");
+        this.add("AUDIT_PROGRESS_COUNT", "Audit: %s of %s accounts " +
+                "checked...");
+        this.add("AUDIT_DONE", "Audited %s accounts: %s clusters of linked " +
+                "accounts, the largest of %s, and %s accounts over the " +
+                "secure-kick-threshold. Report written to %s in %s.");
+        this.add("TOP_READING", "Reading the log to rank it...");
+        this.add("TOP_CLUSTERS_TITLE", "Largest Clusters of Linked Accounts");
+        this.add("TOP_CLUSTERS_AGE", "%s clusters in all. Ranked %s");
+        this.add("TOP_CLUSTER", "%s accounts on %s IPs:");
+        this.add("TOP_IPS_TITLE", "Most Shared IPs");
+        this.add("TOP_COUNTRIES_TITLE", "Countries with the Most Accounts");
+        this.add("TOP_ACCOUNTS", "%s accounts");
+        this.add("TOP_EMPTY", "There is nothing to rank yet.");
+        this.add("TOP_BAD_MODE", "Unknown ranking '%s'. Use clusters, ips " +
+                "or countries.");
+        this.add("TOP_BAD_COUNT", "Invalid count: %s. Rankings list 1 to %s " +
+                "entries.");
+        this.add("TOP_NO_GEOIP", "Ranking countries requires the GeoIP " +
+                "services to be enabled.");
+        this.add("RETENTION_DISABLED", "Log retention is disabled. Set " +
+                "log-retention-days in the configuration to enable it.");
+        this.add("PURGE_MATCH_PLAYERS", "%s matches %s players.");
+        this.add("PURGE_MATCH_IPS", "%s matches %s IPs.");
+        this.add("PURGE_CONFIRM", "Run /ipc purge %s confirm to delete " +
+                "them and their log records.");
+        this.add("PURGE_PROGRESS", "Purging %s: %s of %s removed...");
+        this.add("PURGE_DONE", "Purged %s: removed %s records and %s log " +
+                "records in %s.");
+        this.add("PURGE_BAD_SELECTOR", "Invalid purge selector: %s");
+        this.add("TRANSFER_RUNNING", "An import or export is already " +
+                "running.");
+        this.add("TRANSFER_ERR", "The transfer failed: %s");
         this.add("TIME_STAMP_ERR","An error occurred while " +
                 "attempting to parse a time stamp. This should never happen. " +
                 "If you see this message, please contact the developers at " +
@@ -187,6 +388,9 @@ public class LocaleStore extends LocalizationStore {
                 "associated with the search term:");
         this.add("REPORT_BODY_FOUR","No alternate accounts " +
                 "were found for this user.");
+        this.add("REPORT_CONTINUED", "(continued)");
+        this.add("REPORT_MORE", "(and %s more)");
+        this.add("REPORT_TOP_IPS", "Most shared IPs:");
 
         this.add("REPORT_FOOT_LAST_IP","Last Known IP:");
         this.add("REPORT_FOOT_LOCATION","Last Location:");
@@ -274,6 +478,16 @@ public class LocaleStore extends LocalizationStore {
         this.add("STATS_PUNBANS", "Players Unbanned this Session: ");
         this.add("STATS_WARNS", "Login Warnings this Session: ");
         this.add("STATS_KICKS", "Kicks Issued this Session: ");
+        this.add("STATS_RATES", "Recent Activity (1m / 5m / 1h / 24h):");
+        this.add("STATS_RATE_JOINS", "Joins");
+        this.add("STATS_RATE_WARNS", "Warnings");
+        this.add("STATS_RATE_KICKS", "Kicks");
+        this.add("STATS_RATE_BANS", "Bans");
+        this.add("STATS_ALLTIME", "All-Time (Joins / Warnings / Kicks / " +
+                "Bans): ");
+        this.add("STATS_STAGES", "Login Stage Timings (p50 / p99 / max):");
+        this.add("STATS_STAGES_TOTAL", "total");
+        this.add("STATS_SHED", "Logins Shed (IP / Net / Global): ");
         this.add("STATS_SECURE", "Secure Mode Status: ");
         this.add("STATS_ACTIVE", "Active Mode Status: ");
         this.add("STATS_BLACKLIST", "Country Black-List Status: ");
@@ -0,0 +1,91 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import java.util.regex.Pattern;
+
+/* This class is used for deriving network prefixes from textual addresses
+ * without resolving them (no DNS look-ups, no InetAddress allocation). */
+public class AddressUtil {
+
+    private static final Pattern IPV4 = Pattern.compile(
+            "\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}\\.\\d{1,3}");
+    private static final Pattern IPV6 = Pattern.compile(
+            "[0-9a-fA-F:.]+(%\\w+)?");
+
+    public static boolean isIPv6(String ip) {
+        return ip.indexOf(':') >= 0;
+    }
+
+    // Whether the text is a literal IPv4 or IPv6 address (not a host name)
+    public static boolean isAddress(String text) {
+        return (isIPv6(text) ? IPV6 : IPV4).matcher(text).matches();
+    }
+
+    // Returns the /24 (IPv4) or /64 (IPv6) network the address belongs to
+    public static String getSubnet(String ip) {
+        if (isIPv6(ip)) return getIPv6Prefix(ip);
+
+        int lastDot = ip.lastIndexOf('.');
+        if (lastDot < 0) return ip;
+
+        return ip.substring(0, lastDot) + ".0/24";
+    }
+
+    private static String getIPv6Prefix(String ip) {
+        // Strip any zone index (fe80::1%eth0)
+        int zone = ip.indexOf('%');
+        if (zone >= 0) ip = ip.substring(0, zone);
+
+        String[] groups = new String[4];
+        int found = 0;
+        int start = 0;
+
+        // Read up to the first four groups, stopping at "::" compression
+        while (found < 4 && start < ip.length()) {
+            int end = ip.indexOf(':', start);
+            if (end < 0) end = ip.length();
+            if (end == start) break;
+
+            groups[found++] = ip.substring(start, end);
+            start = end + 1;
+        }
+
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < 4; i++) {
+            sb.append((i < found) ? groups[i] : "0");
+            sb.append(':');
+        }
+
+        return sb.append(":/64").toString();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import org.bukkit.ChatColor;
+
+/* Builders for chat messages, reused by each thread. Messages are appended
+ * to the thread's builder and taken with toString(), so that a report or a
+ * notification makes one String per line rather than one per colour code
+ * and piece of text.
+ *
+ * A thread has a single builder: a message must be taken before anything
+ * else that might build one is called. */
+public final class ChatBuffer {
+
+    // Pre-rendered border between the sections of a report
+    public static final String SEPARATOR = ChatColor.DARK_GRAY +
+            "------------------------------------------------";
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Builders grown past this by a long list are not kept
+    private static final int MAX_RETAINED = 8192;
+
+    private static final ThreadLocal<StringBuilder> BUFFERS =
+            new ThreadLocal<StringBuilder>() {
+                @Override
+                protected StringBuilder initialValue() {
+                    return new StringBuilder(INITIAL_CAPACITY);
+                }
+            };
+
+    private ChatBuffer() {}
+
+    // Returns the thread's builder, emptied
+    public static StringBuilder get() {
+        StringBuilder sb = BUFFERS.get();
+
+        if (sb.capacity() > MAX_RETAINED) {
+            sb = new StringBuilder(INITIAL_CAPACITY);
+            BUFFERS.set(sb);
+        }
+
+        sb.setLength(0);
+        return sb;
+    }
+}
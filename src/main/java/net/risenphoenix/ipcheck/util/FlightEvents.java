@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+/* Emits Java Flight Recorder events for IP-Check's login checks, database
+ * calls, GeoIP look-ups, bans and reports, so that they show up alongside
+ * server tick stalls in a recording.
+ *
+ * IP-Check itself targets Java 7, which has no jdk.jfr package. The events
+ * are therefore implemented in a separate class (built from src/main/java11)
+ * which is only loaded when the running JVM provides JFR; otherwise this
+ * no-op implementation is used. Every begin method returns an opaque event
+ * (or null when nothing is being recorded) to be handed back to the matching
+ * end method. */
+public class FlightEvents {
+
+    private static final String JFR_IMPL =
+            "net.risenphoenix.ipcheck.jfr.JfrFlightEvents";
+
+    private static final FlightEvents INSTANCE = load();
+
+    public static FlightEvents get() {
+        return INSTANCE;
+    }
+
+    protected FlightEvents() {}
+
+    public Object beginLoginStage(String stage, String player) {
+        return null;
+    }
+
+    public void endLoginStage(Object event, boolean proceeded) {}
+
+    public Object beginDatabaseCall(String sql, int params) {
+        return null;
+    }
+
+    public void endDatabaseCall(Object event, int rows) {}
+
+    public Object beginGeoIPLookup(String address) {
+        return null;
+    }
+
+    public void endGeoIPLookup(Object event, String result) {}
+
+    public Object beginBan(String action, boolean banning) {
+        return null;
+    }
+
+    public void endBan(Object event, int accounts) {}
+
+    public Object beginReport(String target) {
+        return null;
+    }
+
+    public void endReport(Object event, int accounts, boolean cacheHit) {}
+
+    private static FlightEvents load() {
+        try {
+            Class.forName("jdk.jfr.Event");
+
+            return (FlightEvents) Class.forName(JFR_IMPL).newInstance();
+        } catch (Exception | LinkageError e) {
+            // No JFR support (or the Java 11 classes were not built)
+            return new FlightEvents();
+        }
+    }
+}
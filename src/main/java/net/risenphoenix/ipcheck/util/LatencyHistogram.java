@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Lock-free latency histogram with log-linear buckets. Each power of two is
+ * split into eight sub-buckets, so any recorded value is reported to within
+ * 12.5% of its true value while the whole histogram stays a fixed 488 slots,
+ * regardless of how many samples are recorded. Values are in nanoseconds. */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    public static final int BUCKETS = SUB_COUNT + (63 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+
+        this.counts.incrementAndGet(bucketOf(nanos));
+        this.count.incrementAndGet();
+        this.sum.addAndGet(nanos);
+
+        long current;
+        while (nanos > (current = this.max.get())) {
+            if (this.max.compareAndSet(current, nanos)) break;
+        }
+    }
+
+    // Records the time elapsed since the System.nanoTime() value specified
+    public void recordSince(long startNanos) {
+        this.record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return this.count.get();
+    }
+
+    public long getSum() {
+        return this.sum.get();
+    }
+
+    public long getMax() {
+        return this.max.get();
+    }
+
+    public long getMean() {
+        long n = this.count.get();
+        return (n == 0) ? 0 : this.sum.get() / n;
+    }
+
+    /* Returns an upper bound for the given percentile (0 - 100) of the values
+     * recorded, or zero if nothing has been recorded yet. */
+    public long getPercentile(double percentile) {
+        long n = this.count.get();
+        if (n == 0) return 0;
+
+        long rank = (long) Math.ceil((percentile / 100.0) * n);
+        if (rank < 1) rank = 1;
+
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), this.getMax());
+        }
+
+        return this.getMax();
+    }
+
+    // Returns the number of values recorded which were at most the given value
+    public long getCountAtOrBelow(long nanos) {
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS && upperBound(i) <= nanos; i++) {
+            seen += this.counts.get(i);
+        }
+
+        return seen;
+    }
+
+    public long getBucketCount(int bucket) {
+        return this.counts.get(bucket);
+    }
+
+    // Returns the largest value (inclusive) that falls into the bucket
+    public static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+
+        int shift = (bucket - SUB_COUNT) / SUB_COUNT;
+        long sub = (bucket - SUB_COUNT) % SUB_COUNT;
+
+        if (shift == 63 - SUB_BITS - 1 && sub == SUB_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+
+        return ((SUB_COUNT + sub + 1) << shift) - 1;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BITS;
+        int sub = (int) (value >>> shift) & (SUB_COUNT - 1);
+
+        return SUB_COUNT + shift * SUB_COUNT + sub;
+    }
+
+    // Formats a nanosecond value for display (ns, us, ms or s)
+    public static String format(long nanos) {
+        if (nanos < 1000L) return nanos + "ns";
+        if (nanos < 1000000L) return String.format("%.1fus", nanos / 1e3);
+        if (nanos < 1000000000L) return String.format("%.1fms", nanos / 1e6);
+
+        return String.format("%.2fs", nanos / 1e9);
+    }
+}
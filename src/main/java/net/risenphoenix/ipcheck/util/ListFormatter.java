@@ -30,65 +30,66 @@
 
 package net.risenphoenix.ipcheck.util;
 
-import java.util.ArrayList;
-
+/* Formats lists as "a, b and c." Items are filtered and appended as they
+ * are read, holding back only the latest (which may turn out to be the
+ * last), so lists are never copied on the way. */
 public class ListFormatter {
 
-    private ArrayList<String> input;
+    private Iterable<String> input;
     private FormatFilter filter = null;
 
-    public ListFormatter(ArrayList<String> input) {
+    public ListFormatter(Iterable<String> input) {
         this.input = input;
     }
 
-    public ListFormatter(ArrayList<String> input, FormatFilter filter) {
+    public ListFormatter(Iterable<String> input, FormatFilter filter) {
         this.input = input;
         this.filter = filter;
     }
 
     public StringBuilder getFormattedList() {
-        // Convert the Input into a fixed Array
-        ArrayList<String> filtered = new ArrayList<String>();
-        String[] convert;
-
-        // Filter Input if so requested
-        if (filter != null) {
-            for (String s:input) {
-                String result = this.filter.execute(s);
-                if (result != null && !result.equals("")) filtered.add(result);
+        return this.appendTo(new StringBuilder());
+    }
+
+    public StringBuilder appendTo(StringBuilder sb) {
+        return append(sb, this.input, this.filter, 0, Integer.MAX_VALUE);
+    }
+
+    /* Appends up to limit items of the input, after skipping the first skip
+     * (both counted after filtering). The filter may be null. */
+    public static StringBuilder append(StringBuilder sb, Iterable<String> input,
+                                       FormatFilter filter, int skip,
+                                       int limit) {
+        String pending = null;
+        int count = 0;
+
+        for (String s : input) {
+            // Filter Input if so requested
+            if (filter != null) s = filter.execute(s);
+            if (s == null || s.isEmpty()) continue;
+
+            if (skip > 0) {
+                skip--;
+                continue;
             }
 
-            convert = new String[filtered.size()];
-            filtered.toArray(convert);
-        } else {
-            convert = new String[input.size()];
-            input.toArray(convert);
-        }
+            if (count == limit) break;
+
+            if (pending != null) {
+                if (count > 1) sb.append(", ");
+                sb.append(pending);
+            }
 
-        // New String Builder
-        StringBuilder sb = new StringBuilder();
+            pending = s;
+            count++;
+        }
 
         // Format the List
-        for (int i = 0; i < convert.length; i++) {
-            if (convert.length == 1) {
-                sb.append(convert[0]);
-                break;
-            } else if (convert.length == 2) {
-                sb.append(convert[0]);
-                sb.append(" and ");
-                sb.append(convert[1]);
-                break;
-            } else if (convert.length > 2) {
-                sb.append(convert[i]);
-
-                if (i == (convert.length - 2)) {
-                    sb.append(" and ");
-                } else if (i == (convert.length - 1)) {
-                    sb.append(".");
-                } else {
-                    sb.append(", ");
-                }
-            }
+        if (count == 1) {
+            sb.append(pending);
+        } else if (count > 1) {
+            sb.append(" and ").append(pending);
+            if (count > 2) sb.append('.');
         }
 
         return sb;
@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import net.risenphoenix.commons.configuration.ConfigurationManager;
+import net.risenphoenix.ipcheck.IPCheck;
+import net.risenphoenix.ipcheck.database.QueryProfiler;
+import net.risenphoenix.ipcheck.events.AdmissionController;
+import net.risenphoenix.ipcheck.events.NotificationDigest;
+import net.risenphoenix.ipcheck.events.PlayerLoginListener;
+import net.risenphoenix.ipcheck.events.RejoinCache;
+import net.risenphoenix.ipcheck.events.login.LoginStage;
+import net.risenphoenix.ipcheck.objects.ReportCache;
+import net.risenphoenix.ipcheck.objects.StatsObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+
+/* Serves IP-Check's counters, gauges and latency histograms in the Prometheus
+ * text exposition format, so that existing scrapers can alert on them. The
+ * server uses the HTTP server built into the JDK, binds to the loopback
+ * address by default and is served by a small pool of daemon threads; only
+ * thread-safe (atomic) values are read while rendering. */
+public class PrometheusExporter {
+
+    private static final String CONTENT_TYPE =
+            "text/plain; version=0.0.4; charset=utf-8";
+
+    // Histogram bucket bounds, in seconds
+    private static final double[] BOUNDS = new double[]{0.00001, 0.00005,
+            0.0001, 0.0005, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1.0, 5.0};
+
+    private static final int THREADS = 2;
+
+    private IPCheck ipc;
+    private HttpServer server = null;
+    private ExecutorService executor = null;
+
+    public PrometheusExporter(final IPCheck ipc) {
+        this.ipc = ipc;
+    }
+
+    public void start() {
+        ConfigurationManager config = ipc.getConfigurationManager();
+        String host = config.getString("prometheus-address");
+        int port = config.getInteger("prometheus-port");
+
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(host, port),
+                    0);
+        } catch (IOException e) {
+            ipc.sendConsoleMessage(Level.SEVERE, String.format(ipc
+                    .getLocalizationManager().getLocalString("PROMETHEUS_ERR"),
+                    host + ":" + port, e.getMessage()));
+            this.server = null;
+            return;
+        }
+
+        this.executor = Executors.newFixedThreadPool(THREADS,
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "IP-Check Metrics");
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+
+        this.server.createContext("/metrics", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                serve(exchange);
+            }
+        });
+
+        this.server.setExecutor(this.executor);
+        this.server.start();
+    }
+
+    public void stop() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.server = null;
+        }
+
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equalsIgnoreCase("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = this.render().getBytes(Charset.forName("UTF-8"));
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    String render() {
+        StringBuilder sb = new StringBuilder(8192);
+
+        // Event Counters (current session)
+        StatsObject stats = ipc.getStatisticsObject();
+
+        if (stats != null) {
+            header(sb, "ipcheck_events_total", "counter",
+                    "Events handled by IP-Check since it was last enabled.");
+
+            for (String name : new String[]{StatsObject.JOINS,
+                    StatsObject.WARNINGS, StatsObject.KICKS, StatsObject.BANS,
+                    StatsObject.UNBANS}) {
+                sample(sb, "ipcheck_events_total", "type", name,
+                        stats.getCounter(name));
+            }
+
+            header(sb, "ipcheck_login_rate", "gauge",
+                    "Average logins per second over the given window.");
+            sample(sb, "ipcheck_login_rate", "window", "1m",
+                    stats.getWindow(StatsObject.JOINS, 1) / 60.0);
+            sample(sb, "ipcheck_login_rate", "window", "5m",
+                    stats.getWindow(StatsObject.JOINS, 5) / 300.0);
+        }
+
+        // Admission Control
+        AdmissionController admission = ipc.getAdmissionController();
+
+        if (admission != null) {
+            header(sb, "ipcheck_admission_total", "counter",
+                    "Logins admitted or shed by admission control.");
+            sample(sb, "ipcheck_admission_total", "result", "admitted",
+                    admission.getAdmitted());
+            sample(sb, "ipcheck_admission_total", "result", "shed_ip",
+                    admission.getShedIP());
+            sample(sb, "ipcheck_admission_total", "result", "shed_subnet",
+                    admission.getShedSubnet());
+            sample(sb, "ipcheck_admission_total", "result", "shed_global",
+                    admission.getShedGlobal());
+
+            header(sb, "ipcheck_admission_buckets", "gauge",
+                    "Rate-limit buckets currently tracked.");
+            sample(sb, "ipcheck_admission_buckets", null, null,
+                    admission.getTrackedBuckets());
+        }
+
+        // Rejoin Verdict Cache
+        RejoinCache rejoinCache = ipc.getRejoinCache();
+
+        if (rejoinCache != null) {
+            header(sb, "ipcheck_rejoin_cache_requests_total", "counter",
+                    "Rejoin verdict cache look-ups.");
+            sample(sb, "ipcheck_rejoin_cache_requests_total", "result", "hit",
+                    rejoinCache.getHits());
+            sample(sb, "ipcheck_rejoin_cache_requests_total", "result", "miss",
+                    rejoinCache.getMisses());
+
+            header(sb, "ipcheck_rejoin_cache_entries", "gauge",
+                    "Rejoin verdicts currently cached.");
+            sample(sb, "ipcheck_rejoin_cache_entries", null, null,
+                    rejoinCache.size());
+        }
+
+        // Report Cache
+        ReportCache reportCache = ipc.getReportCache();
+
+        if (reportCache != null) {
+            header(sb, "ipcheck_report_cache_requests_total", "counter",
+                    "Report cache look-ups.");
+            sample(sb, "ipcheck_report_cache_requests_total", "result", "hit",
+                    reportCache.getHits());
+            sample(sb, "ipcheck_report_cache_requests_total", "result", "miss",
+                    reportCache.getMisses());
+
+            header(sb, "ipcheck_report_cache_entries", "gauge",
+                    "Reports currently cached.");
+            sample(sb, "ipcheck_report_cache_entries", null, null,
+                    reportCache.size());
+        }
+
+        // Notification Queue Depth
+        NotificationDigest digest = ipc.getNotificationDigest();
+
+        if (digest != null) {
+            header(sb, "ipcheck_digest_pending", "gauge",
+                    "Alerts held back for the next notification digest.");
+            sample(sb, "ipcheck_digest_pending", null, null,
+                    digest.getSuppressedCount());
+        }
+
+        // Login Stage Latency
+        PlayerLoginListener logins = ipc.getLoginListener();
+
+        if (logins != null) {
+            header(sb, "ipcheck_login_stage_seconds", "histogram",
+                    "Time spent in each stage of the login check chain.");
+
+            for (LoginStage stage : logins.getStages()) {
+                histogram(sb, "ipcheck_login_stage_seconds", "stage",
+                        stage.getName(), logins.getTiming(stage));
+            }
+
+            header(sb, "ipcheck_login_seconds", "histogram",
+                    "Time spent running the whole login check chain.");
+            histogram(sb, "ipcheck_login_seconds", null, null,
+                    logins.getTotalTiming());
+        }
+
+        // Database Latency
+        if (ipc.getDatabaseController() != null) {
+            header(sb, "ipcheck_db_statement_seconds", "histogram",
+                    "Database statement latency, by statement template.");
+
+            for (QueryProfiler.Template t : ipc.getDatabaseController()
+                    .getProfiler().getTemplates()) {
+                histogram(sb, "ipcheck_db_statement_seconds", "statement",
+                        t.getSQL(), t.getTiming());
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static void header(StringBuilder sb, String name, String type,
+                               String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String label,
+                               String value, double sample) {
+        sb.append(name);
+        labels(sb, label, value, null);
+        sb.append(' ').append(format(sample)).append('\n');
+    }
+
+    private static void histogram(StringBuilder sb, String name, String label,
+                                  String value, LatencyHistogram h) {
+        for (double bound : BOUNDS) {
+            sb.append(name).append("_bucket");
+            labels(sb, label, value, format(bound));
+            sb.append(' ').append(h.getCountAtOrBelow((long) (bound * 1e9)))
+                    .append('\n');
+        }
+
+        long count = h.getCount();
+
+        sb.append(name).append("_bucket");
+        labels(sb, label, value, "+Inf");
+        sb.append(' ').append(count).append('\n');
+
+        sb.append(name).append("_sum");
+        labels(sb, label, value, null);
+        sb.append(' ').append(format(h.getSum() / 1e9)).append('\n');
+
+        sb.append(name).append("_count");
+        labels(sb, label, value, null);
+        sb.append(' ').append(count).append('\n');
+    }
+
+    private static void labels(StringBuilder sb, String label, String value,
+                               String le) {
+        if (label == null && le == null) return;
+
+        sb.append('{');
+
+        if (label != null) {
+            sb.append(label).append("=\"");
+            escape(sb, value);
+            sb.append('"');
+        }
+
+        if (le != null) {
+            if (label != null) sb.append(',');
+            sb.append("le=\"").append(le).append('"');
+        }
+
+        sb.append('}');
+    }
+
+    private static void escape(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\' || c == '"') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Thread-safe event counter which, in addition to a running total, keeps a
+ * ring of per-minute counts covering the last 24 hours so that the rate of
+ * events over any recent window (1m, 5m, 1h, 24h) can be read back. Each
+ * slot is stamped with the minute it belongs to; a slot whose stamp is stale
+ * is reset by the first increment to land in it, so no timer is needed.
+ *
+ * A slot's stamp and count are packed into one long (the minute in the high
+ * 32 bits, the count in the low 32) and updated together by compare-and-set,
+ * so an increment can never be lost to another thread resetting the slot. */
+public class RollingCounter {
+
+    public static final int MINUTES = 24 * 60;
+
+    private static final int COUNT_BITS = 32;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLongArray slots = new AtomicLongArray(MINUTES);
+
+    public void add(long n) {
+        this.total.addAndGet(n);
+
+        long minute = currentMinute();
+        int slot = (int) (minute % MINUTES);
+
+        while (true) {
+            long packed = this.slots.get(slot);
+
+            // First increment of a new minute starts the slot from zero
+            long count = (packed >>> COUNT_BITS == minute) ?
+                    packed & COUNT_MASK : 0;
+            long next = (minute << COUNT_BITS) |
+                    Math.min(count + n, COUNT_MASK);
+
+            if (this.slots.compareAndSet(slot, packed, next)) return;
+        }
+    }
+
+    public long getTotal() {
+        return this.total.get();
+    }
+
+    // Returns the number of events counted over the last given minutes
+    public long getWindow(int minutes) {
+        minutes = Math.min(minutes, MINUTES);
+
+        long now = currentMinute();
+        long sum = 0;
+
+        for (int i = 0; i < minutes; i++) {
+            long minute = now - i;
+            int slot = (int) (minute % MINUTES);
+
+            long packed = this.slots.get(slot);
+            if (packed >>> COUNT_BITS == minute) sum += packed & COUNT_MASK;
+        }
+
+        return sum;
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60000L;
+    }
+}
@@ -48,6 +48,21 @@ public class TimeCalculator {
     }
 
     public String getLastTime() {
+        long timeOffset = this.getSecondsSince();
+
+        return (timeOffset >= 0) ? format(timeOffset) : "ERROR";
+    }
+
+    // Seconds since the player was last seen, or -1 if unknown
+    public long getSecondsSince() {
+        return secondsBetween(dbc.getLastTime(arg), dbc.getCurrentTimeStamp());
+    }
+
+    // Seconds from one database time-stamp to another, or -1 if either
+    // cannot be read
+    public static long secondsBetween(String from, String to) {
+        if (from == null || to == null) return -1;
+
         // Define Date-Stamp Format
         SimpleDateFormat sParse = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
@@ -57,17 +72,20 @@ public class TimeCalculator {
 
         // Parse Current Time
         try {
-            currentTime = sParse.parse(dbc.getCurrentTimeStamp());
-            lastTime = sParse.parse(dbc.getLastTime(arg));
+            currentTime = sParse.parse(to);
+            lastTime = sParse.parse(from);
         } catch (ParseException e) {
             // Report Exception to Console
             e.printStackTrace();
-            return "ERROR";
+            return -1;
         }
 
         // Get Time difference (divide by 1000 so our calculations will work)
-        long timeOffset = (currentTime.getTime() - lastTime.getTime()) / 1000;
+        return Math.max(0, (currentTime.getTime() - lastTime.getTime()) / 1000);
+    }
 
+    // Formats a number of seconds as "1 Day, 2 Hours, ... ago."
+    public static String format(long timeOffset) {
         // Declare Time Storing Variables
         int days, hours, minutes, seconds;
 
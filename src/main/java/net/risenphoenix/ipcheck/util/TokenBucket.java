@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Lock-free rate limiter. The bucket is stored as a single "theoretical
+ * arrival time" (the generic cell rate algorithm), which behaves exactly like
+ * a token bucket refilled at a constant rate, but needs only one CAS per
+ * check and no background refill. */
+public class TokenBucket {
+
+    private final long interval;  // nanoseconds per token
+    private final long tolerance; // nanoseconds of burst allowance
+    private final AtomicLong arrival;
+
+    /**
+     * @param ratePerMinute Tokens replenished per minute
+     * @param burst Maximum number of tokens which may be spent at once
+     */
+    public TokenBucket(int ratePerMinute, int burst) {
+        this.interval = 60000000000L / Math.max(1, ratePerMinute);
+        this.tolerance = this.interval * (Math.max(1, burst) - 1);
+        this.arrival = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    public boolean tryAcquire(long now) {
+        while (true) {
+            long stored = this.arrival.get();
+            long tat = (stored == Long.MIN_VALUE || stored < now) ?
+                    now : stored;
+
+            // The bucket is empty
+            if (tat - now > this.tolerance) return false;
+
+            if (this.arrival.compareAndSet(stored, tat + this.interval)) {
+                return true;
+            }
+        }
+    }
+
+    // Gives back a token taken by tryAcquire, for a request that was turned
+    // away later on
+    public void release() {
+        while (true) {
+            long stored = this.arrival.get();
+            if (stored == Long.MIN_VALUE) return;
+
+            if (this.arrival.compareAndSet(stored, stored - this.interval)) {
+                return;
+            }
+        }
+    }
+
+    // True if the bucket has completely refilled and may be discarded
+    public boolean isIdle(long now) {
+        long stored = this.arrival.get();
+        return stored == Long.MIN_VALUE || stored <= now;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/* Keeps the k highest scoring of the items offered, in a min-heap of at
+ * most k entries: an item only displaces the lowest kept, so ranking n
+ * items takes O(n log k) time and O(k) memory, however large n grows. Of
+ * items with equal scores, those offered first are kept. */
+public class TopK<T> {
+
+    private static final Comparator<Entry<?>> LOWEST_FIRST =
+            new Comparator<Entry<?>>() {
+                @Override
+                public int compare(Entry<?> a, Entry<?> b) {
+                    int order = Long.compare(a.score, b.score);
+
+                    // The later of two equal entries is the lower
+                    return (order != 0) ? order : Long.compare(b.sequence,
+                            a.sequence);
+                }
+            };
+
+    private final int k;
+    private final PriorityQueue<Entry<T>> heap;
+    private long offered = 0;
+
+    public TopK(int k) {
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.max(1, k), LOWEST_FIRST);
+    }
+
+    public void offer(T item, long score) {
+        long sequence = this.offered++;
+        if (this.k <= 0) return;
+
+        if (this.heap.size() == this.k) {
+            Entry<T> lowest = this.heap.peek();
+
+            // Not enough to displace the lowest entry kept
+            if (score <= lowest.score) return;
+            this.heap.poll();
+        }
+
+        this.heap.add(new Entry<>(item, score, sequence));
+    }
+
+    // The entries kept, highest scoring first
+    public List<Entry<T>> getEntries() {
+        List<Entry<T>> entries = new ArrayList<>(this.heap);
+        Collections.sort(entries, Collections.reverseOrder(LOWEST_FIRST));
+        return entries;
+    }
+
+    public static final class Entry<T> {
+
+        private final T item;
+        private final long score;
+        private final long sequence;
+
+        private Entry(T item, long score, long sequence) {
+            this.item = item;
+            this.score = score;
+            this.sequence = sequence;
+        }
+
+        public T getItem() {
+            return this.item;
+        }
+
+        public long getScore() {
+            return this.score;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2017 Jacob Keep (Jnk1296). All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  * Redistributions of source code must retain the above copyright notice, 
+ *   this list of conditions and the following disclaimer.
+ *
+ *  * Redistributions in binary form must reproduce the above copyright notice, 
+ *   this list of conditions and the following disclaimer in the documentation 
+ *   and/or other materials provided with the distribution.
+ *
+ *  * Neither the name of JuNK Software nor the names of its contributors may 
+ *   be used to endorse or promote products derived from this software without
+ *   specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package net.risenphoenix.ipcheck.jfr;
+
+import jdk.jfr.EventType;
+import net.risenphoenix.ipcheck.util.FlightEvents;
+
+/* JFR-backed implementation of FlightEvents, loaded reflectively when the
+ * running JVM supports Flight Recorder. Events are only allocated while a
+ * recording has the corresponding event type enabled. */
+public class JfrFlightEvents extends FlightEvents {
+
+    private final EventType loginStage =
+            EventType.getEventType(LoginStageEvent.class);
+    private final EventType databaseCall =
+            EventType.getEventType(DatabaseCallEvent.class);
+    private final EventType geoIPLookup =
+            EventType.getEventType(GeoIPLookupEvent.class);
+    private final EventType ban = EventType.getEventType(BanEvent.class);
+    private final EventType report = EventType.getEventType(ReportEvent.class);
+
+    @Override
+    public Object beginLoginStage(String stage, String player) {
+        if (!this.loginStage.isEnabled()) return null;
+
+        LoginStageEvent e = new LoginStageEvent();
+        e.stage = stage;
+        e.player = player;
+        e.begin();
+        return e;
+    }
+
+    @Override
+    public void endLoginStage(Object event, boolean proceeded) {
+        if (event == null) return;
+
+        LoginStageEvent e = (LoginStageEvent) event;
+        e.proceeded = proceeded;
+        e.commit();
+    }
+
+    @Override
+    public Object beginDatabaseCall(String sql, int params) {
+        if (!this.databaseCall.isEnabled()) return null;
+
+        DatabaseCallEvent e = new DatabaseCallEvent();
+        e.sql = sql;
+        e.params = params;
+        e.begin();
+        return e;
+    }
+
+    @Override
+    public void endDatabaseCall(Object event, int rows) {
+        if (event == null) return;
+
+        DatabaseCallEvent e = (DatabaseCallEvent) event;
+        e.rows = rows;
+        e.commit();
+    }
+
+    @Override
+    public Object beginGeoIPLookup(String address) {
+        if (!this.geoIPLookup.isEnabled()) return null;
+
+        GeoIPLookupEvent e = new GeoIPLookupEvent();
+        e.address = address;
+        e.begin();
+        return e;
+    }
+
+    @Override
+    public void endGeoIPLookup(Object event, String result) {
+        if (event == null) return;
+
+        GeoIPLookupEvent e = (GeoIPLookupEvent) event;
+        e.result = result;
+        e.commit();
+    }
+
+    @Override
+    public Object beginBan(String action, boolean banning) {
+        if (!this.ban.isEnabled()) return null;
+
+        BanEvent e = new BanEvent();
+        e.action = action;
+        e.banning = banning;
+        e.begin();
+        return e;
+    }
+
+    @Override
+    public void endBan(Object event, int accounts) {
+        if (event == null) return;
+
+        BanEvent e = (BanEvent) event;
+        e.accounts = accounts;
+        e.commit();
+    }
+
+    @Override
+    public Object beginReport(String target) {
+        if (!this.report.isEnabled()) return null;
+
+        ReportEvent e = new ReportEvent();
+        e.target = target;
+        e.begin();
+        return e;
+    }
+
+    @Override
+    public void endReport(Object event, int accounts, boolean cacheHit) {
+        if (event == null) return;
+
+        ReportEvent e = (ReportEvent) event;
+        e.accounts = accounts;
+        e.cacheHit = cacheHit;
+        e.commit();
+    }
+}